@@ -0,0 +1,74 @@
+package com.laila.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Harness options, from {@code --name=value} arguments. Arguments starting with {@code --shortener.} or
+ * {@code --spring.} are passed to the application instead, so two configurations can be run and compared.
+ */
+record LoadConfig(int links,
+                  double zipf,
+                  double writeRatio,
+                  int workers,
+                  double rate,
+                  Duration warmup,
+                  Duration duration,
+                  long seed,
+                  Path out,
+                  Path baseline,
+                  Map<String, String> appProperties) {
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        Map<String, String> app = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || a.indexOf('=') < 0) throw new IllegalArgumentException("Expected --name=value: " + a);
+            String name = a.substring(2, a.indexOf('='));
+            String value = a.substring(a.indexOf('=') + 1);
+            if (name.startsWith("shortener.") || name.startsWith("spring.")) app.put(name, value);
+            else opts.put(name, value);
+        }
+        LoadConfig c = new LoadConfig(
+                Integer.parseInt(opts.getOrDefault("links", "10000")),
+                Double.parseDouble(opts.getOrDefault("zipf", "1.0")),
+                Double.parseDouble(opts.getOrDefault("write-ratio", "0.01")),
+                Integer.parseInt(opts.getOrDefault("workers", "16")),
+                Double.parseDouble(opts.getOrDefault("rate", "0")),
+                DurationStyle.detectAndParse(opts.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(opts.getOrDefault("duration", "30s")),
+                Long.parseLong(opts.getOrDefault("seed", "42")),
+                Path.of(opts.getOrDefault("out", "target/load/" +
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")))),
+                opts.containsKey("baseline") ? Path.of(opts.get("baseline")) : null,
+                app);
+        opts.keySet().removeAll(Set.of("links", "zipf", "write-ratio", "workers", "rate", "warmup", "duration", "seed",
+                "out", "baseline"));
+        if (!opts.isEmpty()) throw new IllegalArgumentException("Unknown options " + opts.keySet());
+        if (c.writeRatio < 0 || c.writeRatio > 1) throw new IllegalArgumentException("write-ratio must be in [0, 1]");
+        if (c.workers < 1 || c.links < 1) throw new IllegalArgumentException("links and workers must be >= 1");
+        return c;
+    }
+
+    /** Options as they go into the report, so runs can be checked for comparability. */
+    Map<String, Object> describe() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("links", links);
+        m.put("zipf", zipf);
+        m.put("writeRatio", writeRatio);
+        m.put("workers", workers);
+        m.put("rate", rate);
+        m.put("warmup", warmup.toString());
+        m.put("duration", duration.toString());
+        m.put("seed", seed);
+        m.put("appProperties", appProperties);
+        return m;
+    }
+}
@@ -0,0 +1,306 @@
+package com.laila.load;
+
+import com.laila.UrlShortenerApplication;
+import com.laila.support.InProcessRedis;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test on one machine: boots the whole service (Tomcat, UrlService, UrlCache, filters) on an in-memory
+ * H2 database and an {@link InProcessRedis}, pre-creates {@code links} links through {@code POST /create-short}, then
+ * drives {@code GET /{code}} with Zipf-distributed popularity, mixed with creates at {@code write-ratio}.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.laila.load.LoadHarness \
+ *     -Djmh.args="--links=100000 --zipf=1.1 --write-ratio=0.01 --workers=32 --duration=60s --baseline=target/load/before"
+ * </pre>
+ * With {@code rate} (total requests/s) each worker runs open-loop on a fixed schedule and latency counts from the
+ * scheduled start, so server stalls are not hidden by coordinated omission; rate 0 is closed-loop (max throughput).
+ * Absolute numbers are only comparable between runs on the same machine; compare against a previous run with
+ * {@code --baseline=<report dir>}.
+ */
+public final class LoadHarness {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final LoadConfig cfg;
+    private final URI base;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private final AtomicInteger preloaded = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger(); // links created during the run
+
+    private LoadHarness(LoadConfig cfg, URI base) {
+        this.cfg = cfg;
+        this.base = base;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig cfg = LoadConfig.parse(args);
+        LoadReport baseline = cfg.baseline() != null ? LoadReport.read(cfg.baseline()) : null;
+        try (InProcessRedis redis = InProcessRedis.start();
+             ConfigurableApplicationContext app = boot(cfg, redis.port())) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            new LoadHarness(cfg, URI.create("http://127.0.0.1:" + port)).run(app.getBean(MeterRegistry.class), baseline);
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(LoadConfig cfg, int redisPort) {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("server.port", "0");
+        props.put("spring.datasource.url",
+                "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        props.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        props.put("spring.datasource.username", "sa");
+        props.put("spring.datasource.password", "");
+        // V1 needs citext (Postgres only); the entities declare the same tables and indexes
+        props.put("spring.flyway.enabled", "false");
+        props.put("spring.jpa.hibernate.ddl-auto", "create");
+        props.put("spring.data.redis.host", "127.0.0.1");
+        props.put("spring.data.redis.port", Integer.toString(redisPort));
+        props.put("shortener.rate-limit.enabled", "false"); // every request comes from one client IP
+        props.put("shortener.clicks.enabled", "false");     // its upsert is ON CONFLICT DO UPDATE, not in H2
+        props.put("shortener.sweeper.enabled", "false");
+        props.put("shortener.warmup.enabled", "false");
+        props.put("logging.level.root", "WARN");
+        props.putAll(cfg.appProperties());
+        // command-line arguments: they must win over application.properties
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("loadHarnessExcludes", new HarnessExcludes()))
+                .run(args);
+    }
+
+    private void run(MeterRegistry meters, LoadReport baseline) throws Exception {
+        String startedAt = Instant.now().toString();
+        ExecutorService pool = Executors.newFixedThreadPool(cfg.workers());
+        try {
+            System.out.printf("Creating %d links with %d workers...%n", cfg.links(), cfg.workers());
+            long t0 = System.nanoTime();
+            String[] codes = new String[cfg.links()];
+            Histogram preload = merge(runAll(pool, w -> preload(codes)));
+            Duration preloadTime = Duration.ofNanos(System.nanoTime() - t0);
+            System.out.printf("Created %d links in %d ms%n", cfg.links(), preloadTime.toMillis());
+            // popularity rank → code, independent of creation order
+            List<String> byRank = new ArrayList<>(List.of(codes));
+            Collections.shuffle(byRank, new Random(cfg.seed()));
+
+            System.out.printf("Warming up for %s, measuring for %s...%n", cfg.warmup(), cfg.duration());
+            ZipfSampler zipf = new ZipfSampler(byRank.size(), cfg.zipf());
+            long start = System.nanoTime();
+            long measureFrom = start + cfg.warmup().toNanos();
+            long end = measureFrom + cfg.duration().toNanos();
+            Map<String, Long> lookupsBefore = new LinkedHashMap<>();
+            Thread snapshot = new Thread(() -> {
+                parkUntil(measureFrom);
+                lookupsBefore.putAll(cacheLookups(meters));
+            }, "load-snapshot");
+            snapshot.start();
+            List<Worker> workers = runAll(pool, w -> drive(w, byRank, zipf, start, measureFrom, end));
+            snapshot.join();
+            Map<String, Long> lookups = cacheLookups(meters);
+            lookups.replaceAll((k, v) -> v - lookupsBefore.getOrDefault(k, 0L));
+
+            Map<String, Histogram> histograms = new LinkedHashMap<>();
+            histograms.put("redirect", merge(workers.stream().map(w -> w.redirect).toList()));
+            histograms.put("create", merge(workers.stream().map(w -> w.create).toList()));
+            histograms.put("preload", preload);
+            Map<String, LoadReport.OpStats> ops = new LinkedHashMap<>();
+            ops.put("redirect", LoadReport.OpStats.of(histograms.get("redirect"),
+                    workers.stream().mapToLong(w -> w.redirectErrors).sum(), cfg.duration()));
+            ops.put("create", LoadReport.OpStats.of(histograms.get("create"),
+                    workers.stream().mapToLong(w -> w.createErrors).sum(), cfg.duration()));
+            ops.put("preload", LoadReport.OpStats.of(preload, 0, preloadTime));
+
+            LoadReport report = new LoadReport(startedAt, cfg.describe(), environment(), ops, lookups);
+            report.write(cfg.out(), histograms);
+            System.out.println();
+            System.out.print(report.summary());
+            if (baseline != null) {
+                String comparison = report.compareTo(baseline);
+                Files.writeString(cfg.out().resolve("comparison.txt"), comparison);
+                System.out.println();
+                System.out.print(comparison);
+            }
+            System.out.println("Report written to " + cfg.out().toAbsolutePath());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Histogram preload(String[] codes) throws IOException, InterruptedException {
+        Histogram h = new Histogram(3);
+        for (int i = preloaded.getAndIncrement(); i < codes.length; i = preloaded.getAndIncrement()) {
+            long t = System.nanoTime();
+            HttpResponse<String> res = create(longUrl("articles", i));
+            h.recordValue((System.nanoTime() - t) / 1000);
+            if (res.statusCode() != 200) throw new IllegalStateException("Create failed: " + res.statusCode() + " " + res.body());
+            codes[i] = res.body();
+        }
+        return h;
+    }
+
+    private Worker drive(int id, List<String> byRank, ZipfSampler zipf, long start, long measureFrom, long end)
+            throws InterruptedException {
+        Worker w = new Worker();
+        SplittableRandom rnd = new SplittableRandom(cfg.seed() + id);
+        long interval = cfg.rate() > 0 ? (long) (cfg.workers() * 1e9 / cfg.rate()) : 0;
+        long scheduled = start + (interval > 0 ? rnd.nextLong(interval) : 0); // spread the workers' phases
+        while (true) {
+            long intended;
+            if (interval > 0) {
+                intended = scheduled;
+                scheduled += interval;
+                parkUntil(intended);
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= end) return w;
+
+            boolean write = rnd.nextDouble() < cfg.writeRatio();
+            boolean ok;
+            try {
+                ok = write
+                        ? create(longUrl("new", created.getAndIncrement())).statusCode() == 200
+                        : isRedirect(get(byRank.get(zipf.sample(rnd) - 1)).statusCode());
+            } catch (IOException ex) {
+                ok = false;
+            }
+            if (intended < measureFrom) continue;
+            long micros = (System.nanoTime() - intended) / 1000;
+            if (write) {
+                w.create.recordValue(micros);
+                if (!ok) w.createErrors++;
+            } else {
+                w.redirect.recordValue(micros);
+                if (!ok) w.redirectErrors++;
+            }
+        }
+    }
+
+    private HttpResponse<String> create(String longUrl) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(base.resolve("/create-short"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"longUrl\":\"" + longUrl + "\"}"))
+                .build();
+        return http.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<Void> get(String code) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(base.resolve("/" + code)).timeout(REQUEST_TIMEOUT).GET().build();
+        return http.send(req, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static void parkUntil(long nanoTime) {
+        for (long left = nanoTime - System.nanoTime(); left > 0; left = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 307 || status == 308;
+    }
+
+    // realistic lengths: the cache value codec and L1 byte bound both depend on them
+    private static String longUrl(String section, int i) {
+        return "https://www.example.com/" + section + "/" + i + "/a-reasonably-long-title-slug-for-item-" + i +
+                "?utm_source=newsletter&utm_medium=email&utm_campaign=load-test&ref=" + Integer.toHexString(i * 31);
+    }
+
+    private <T> List<T> runAll(ExecutorService pool, WorkerTask<T> task) throws Exception {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int w = 0; w < cfg.workers(); w++) {
+            int id = w;
+            futures.add(pool.submit((Callable<T>) () -> task.run(id)));
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> f : futures) results.add(f.get());
+        return results;
+    }
+
+    private static Histogram merge(List<Histogram> parts) {
+        Histogram total = new Histogram(3);
+        parts.forEach(total::add);
+        return total;
+    }
+
+    private static Map<String, Long> cacheLookups(MeterRegistry meters) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (FunctionCounter c : meters.find("shortener.cache.lookups").functionCounters()) {
+            out.merge(c.getId().getTag("tier") + "." + c.getId().getTag("result"), (long) c.count(), Long::sum);
+        }
+        return out;
+    }
+
+    private static Map<String, Object> environment() {
+        Map<String, Object> env = new LinkedHashMap<>();
+        env.put("java", System.getProperty("java.vm.name") + " " + Runtime.version());
+        env.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        env.put("cpus", Runtime.getRuntime().availableProcessors());
+        env.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        return env;
+    }
+
+    @FunctionalInterface
+    private interface WorkerTask<T> {
+        T run(int worker) throws Exception;
+    }
+
+    private static final class Worker {
+        final Histogram redirect = new Histogram(3);
+        final Histogram create = new Histogram(3);
+        long redirectErrors;
+        long createErrors;
+    }
+
+    /** Keeps benchmark fixtures on the test classpath (e.g. a nested {@code @EnableWebMvc} config) out of the scan. */
+    static final class HarnessExcludes extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader reader, MetadataReaderFactory factory) {
+            String name = reader.getClassMetadata().getClassName();
+            return name.contains("Benchmark") || name.contains("jmh_generated") || name.startsWith("com.laila.load.");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && o.getClass() == getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+}
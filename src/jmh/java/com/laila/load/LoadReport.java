@@ -0,0 +1,105 @@
+package com.laila.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of one run: options, environment and per-operation latency (from HDR histograms, in ms, measured from the
+ * intended start of each request so a stalled server is not hidden by a stalled client). Written as report.json plus
+ * one {@code <op>.hgrm} percentile distribution per operation (HdrHistogram plotter format).
+ */
+record LoadReport(String startedAt,
+                  Map<String, Object> config,
+                  Map<String, Object> environment,
+                  Map<String, OpStats> ops,
+                  Map<String, Long> cacheLookups) {
+
+    static final ObjectMapper JSON = JsonMapper.builder()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    record OpStats(long count, long errors, double throughput, double meanMs, double p50Ms, double p90Ms,
+                   double p99Ms, double p999Ms, double maxMs) {
+
+        static OpStats of(Histogram micros, long errors, Duration window) {
+            return new OpStats(micros.getTotalCount(), errors, micros.getTotalCount() * 1e9 / window.toNanos(),
+                    micros.getMean() / 1000, ms(micros, 50), ms(micros, 90), ms(micros, 99), ms(micros, 99.9),
+                    micros.getMaxValue() / 1000.0);
+        }
+
+        private static double ms(Histogram micros, double percentile) {
+            return micros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    void write(Path dir, Map<String, Histogram> histograms) throws IOException {
+        Files.createDirectories(dir);
+        JSON.writeValue(dir.resolve("report.json").toFile(), this);
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(e.getKey() + ".hgrm")))) {
+                e.getValue().outputPercentileDistribution(out, 1000.0); // µs → ms
+            }
+        }
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        if (Files.isDirectory(file)) file = file.resolve("report.json");
+        return JSON.readValue(file.toFile(), LoadReport.class);
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder(String.format("%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        ops.forEach((op, s) -> sb.append(String.format("%-10s %10d %8d %10.0f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                op, s.count, s.errors, s.throughput, s.p50Ms, s.p90Ms, s.p99Ms, s.p999Ms, s.maxMs)));
+        if (!cacheLookups.isEmpty()) sb.append("cache lookups: ").append(cacheLookups).append('\n');
+        return sb.toString();
+    }
+
+    /** Per operation: baseline → this run, with the relative change; warns when the runs were set up differently. */
+    String compareTo(LoadReport baseline) {
+        StringBuilder sb = new StringBuilder();
+        Map<String, Object> a = asRead(baseline.config);
+        Map<String, Object> b = asRead(config);
+        a.remove("appProperties");
+        b.remove("appProperties");
+        if (!a.equals(b)) sb.append("WARNING: load options differ from the baseline: ").append(a).append(" vs ").append(b).append('\n');
+        sb.append(String.format("%-10s %-8s %12s %12s %9s%n", "op", "metric", "baseline", "this run", "change"));
+        ops.forEach((op, now) -> {
+            OpStats was = baseline.ops.get(op);
+            if (was == null) return;
+            row(sb, op, "ops/s", was.throughput, now.throughput);
+            row(sb, op, "p50 ms", was.p50Ms, now.p50Ms);
+            row(sb, op, "p99 ms", was.p99Ms, now.p99Ms);
+            row(sb, op, "p99.9 ms", was.p999Ms, now.p999Ms);
+        });
+        return sb.toString();
+    }
+
+    // through JSON and back, so number types match those of a report read from disk
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asRead(Map<String, Object> m) {
+        try {
+            return JSON.readValue(JSON.writeValueAsString(m), LinkedHashMap.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void row(StringBuilder sb, String op, String metric, double was, double now) {
+        String change = was == 0 ? "n/a" : String.format("%+.1f%%", (now - was) * 100 / was);
+        sb.append(String.format("%-10s %-8s %12.3f %12.3f %9s%n", op, metric, was, now, change));
+    }
+}
@@ -0,0 +1,61 @@
+package com.laila.load;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Ranks 1..n with P(k) ∝ 1/k^s, sampled in O(1) time and memory by rejection-inversion (Hörmann & Derflinger), so
+ * millions of links need no CDF table. s = 0 is uniform; s ≈ 1 is the usual shape of link popularity.
+ */
+final class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double squeeze;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) throw new IllegalArgumentException("n must be >= 1");
+        if (exponent < 0) throw new IllegalArgumentException("exponent must be >= 0");
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.squeeze = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    int sample(RandomGenerator rnd) {
+        if (exponent == 0) return 1 + rnd.nextInt(n);
+        for (;;) {
+            double u = hIntegralN + rnd.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) Math.max(1, Math.min(n, (long) (x + 0.5)));
+            if (k - x <= squeeze || u >= hIntegral(k + 0.5) - h(k)) return k;
+        }
+    }
+
+    // H(x) = ∫ h, with h(x) = x^-s; written with helpers that stay exact near s = 1
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log1p(x) / x
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    // expm1(x) / x
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
@@ -0,0 +1,36 @@
+package com.laila.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Random code generation across lengths and thread counts (SecureRandom contention shows up at higher counts). */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base62GeneratorBenchmark {
+
+    @Param({"6", "7", "8", "10"})
+    int length;
+
+    @Benchmark
+    @Threads(1)
+    public String randomCode_1thread() {
+        return Base62Generator.randomCode(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomCode_4threads() {
+        return Base62Generator.randomCode(length);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomCode_maxThreads() {
+        return Base62Generator.randomCode(length);
+    }
+}
@@ -0,0 +1,75 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.repository.ResolveTarget;
+import com.laila.repository.UrlRepository;
+import com.laila.support.InProcessRedis;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+
+/** Shared fixtures: an in-process Redis stand-in and a DB stub, so benchmarks need no external services. */
+final class BenchmarkSupport implements AutoCloseable {
+
+    private final InProcessRedis server;
+    private final LettuceConnectionFactory factory;
+    final StringRedisTemplate redis;
+
+    private BenchmarkSupport(InProcessRedis server, LettuceConnectionFactory factory, StringRedisTemplate redis) {
+        this.server = server;
+        this.factory = factory;
+        this.redis = redis;
+    }
+
+    static BenchmarkSupport start() throws IOException {
+        InProcessRedis server = InProcessRedis.start();
+        LettuceConnectionFactory factory = server.connectionFactory();
+        StringRedisTemplate redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+        return new BenchmarkSupport(server, factory, redis);
+    }
+
+    UrlCache cache(boolean l1) {
+        return new UrlCache(redis, new LocalUrlCache(l1, 100_000, 0, Duration.ofMinutes(10)));
+    }
+
+    static ShortCodeFilter disabledFilter() {
+        return new ShortCodeFilter(null, null, null, null, null, false, 1, 0.01, false, Duration.ofSeconds(30), 1);
+    }
+
+    /** UrlRepository whose findById (and resolve projection) answers from the given function; every other method is unsupported. */
+    static UrlRepository repository(Function<String, Optional<Url>> findById) {
+        return (UrlRepository) Proxy.newProxyInstance(
+                UrlRepository.class.getClassLoader(),
+                new Class<?>[]{UrlRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) return findById.apply((String) args[0]);
+                    if (method.getName().equals("findResolveTarget")) {
+                        return findById.apply((String) args[0])
+                                .filter(u -> u.getStatus() == null || u.getStatus() == 1)
+                                .map(u -> new ResolveTarget(u.getLongUrl(), u.getExpiresAt()));
+                    }
+                    if (method.getDeclaringClass() == Object.class) return method.invoke(findById, args);
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Url url(String code, String longUrl) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl(longUrl);
+        return u;
+    }
+
+    @Override
+    public void close() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+}
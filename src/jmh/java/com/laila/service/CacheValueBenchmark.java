@@ -0,0 +1,49 @@
+package com.laila.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of the compact Redis value vs. the plain URL string; run with {@code -prof gc} for bytes allocated per op. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueBenchmark {
+
+    @Param({
+            "https://www.example.com/some/long/url",
+            "https://shop.example.com/products/category/shoes?id=48213&utm_source=newsletter&utm_medium=email&utm_campaign=spring_sale_2025&utm_content=hero_banner"
+    })
+    String url;
+
+    private final Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+    private byte[] plain;
+    private byte[] compact;
+
+    @Setup
+    public void setUp() {
+        plain = url.getBytes(StandardCharsets.UTF_8);
+        compact = UrlValueCodec.encode(url, expiresAt, UrlValueCodec.ACTIVE, 80);
+        System.out.printf("%n%d bytes plain, %d bytes compact%n", plain.length, compact.length);
+    }
+
+    @Benchmark
+    public String decodePlain() {
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UrlValueCodec.Decoded decodeCompact() {
+        return UrlValueCodec.decode(compact);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() {
+        return UrlValueCodec.encode(url, expiresAt, UrlValueCodec.ACTIVE, 80);
+    }
+}
@@ -0,0 +1,42 @@
+package com.laila.service;
+
+import com.laila.repository.ClickRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the redirect path pays per click; flushing runs on its own thread and is not measured here.
+ * Iterations are short and drained between runs so the unbounded buffer stays within the heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ClickCounterBenchmark {
+
+    ClickCounter counter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ClickRepository discard = new ClickRepository(null) {
+            @Override
+            public void incrementAll(Map<String, Long> increments, int batchSize) {
+            }
+        };
+        counter = new ClickCounter(discard, true, Integer.MAX_VALUE, 1000);
+    }
+
+    @Benchmark
+    public void record() {
+        counter.record("aB9x2Q7");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        counter.flush();
+    }
+}
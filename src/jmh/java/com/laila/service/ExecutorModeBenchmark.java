@@ -0,0 +1,96 @@
+package com.laila.service;
+
+import com.laila.config.VirtualThreadConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Platform-thread pool (Tomcat's default 200) vs. virtual thread per request, for a burst of concurrent
+ * redirects: mostly Redis hits, the rest DB loads stubbed as a fixed sleep behind a 10-permit {@link DbGate}
+ * (the Hikari pool). One op = one burst, so req/s = bursts/s × concurrency and the p99 of the burst time is
+ * the tail latency of its slowest request. The virtual mode needs a Java 21 runtime (mvn -Pbenchmark,java21).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorModeBenchmark {
+
+    private static final String TARGET = "https://www.example.com/some/long/url";
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"500"})
+    int concurrency;
+
+    @Param({"90"})
+    int hitPercent;
+
+    @Param({"2"})
+    int dbMillis;
+
+    private BenchmarkSupport support;
+    private UrlService service;
+    private UrlCache cache;
+    private ExecutorService executor;
+    private final AtomicLong seq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        support = BenchmarkSupport.start();
+        var repo = BenchmarkSupport.repository(code -> {
+            sleep(dbMillis);
+            return Optional.of(BenchmarkSupport.url(code, TARGET));
+        });
+        cache = support.cache(false); // every request does at least one Redis round trip
+        service = new UrlService(repo, cache, BenchmarkSupport.disabledFilter(), new RandomCodeGenerator(8),
+                new DbGate(true, 10, Duration.ofSeconds(30)), UrlMetrics.inMemory(), ReadYourWrites.disabled(),
+                RedisGuard.passThrough(), AliasReservations.disabled());
+        service.getOriginalUrl("hot1234");
+
+        executor = mode.equals("virtual")
+                ? VirtualThreadConfig.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        support.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        Future<?>[] inflight = new Future<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            boolean hit = i % 100 < hitPercent;
+            String code = hit ? "hot1234" : "m" + (seq.getAndIncrement() & 0xFFFFF);
+            inflight[i] = executor.submit(() -> {
+                String url = service.getOriginalUrl(code);
+                if (!hit) cache.delete(code); // keep misses cold across bursts
+                return url;
+            });
+        }
+        for (Future<?> f : inflight) f.get();
+        return inflight.length;
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
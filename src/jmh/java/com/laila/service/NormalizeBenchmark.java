@@ -0,0 +1,26 @@
+package com.laila.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizeBenchmark {
+
+    @Param({
+            "https://www.example.com/some/long/url",
+            "  example.com/path?q=1  ",
+            "HTTPS://EXAMPLE.COM/UPPER/CASE/SCHEME/AND/A/MUCH/LONGER/PATH/THAT/IS/TYPICAL/OF/TRACKING/LINKS?utm_source=x&utm_medium=y"
+    })
+    String input;
+
+    @Benchmark
+    public String normalize() {
+        return UrlService.normalize(input);
+    }
+}
@@ -0,0 +1,90 @@
+package com.laila.service;
+
+import com.laila.controller.RedirectFastPathFilter;
+import com.laila.controller.RedirectSemantics;
+import com.laila.controller.ServiceController;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of answering GET /{code} through DispatcherServlet + ServiceController vs. the
+ * RedirectFastPathFilter, with the code already in L1 so the lookup itself is ~1 µs. The difference
+ * is the CPU the fast path saves per redirect.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectDispatchBenchmark {
+
+    private static final String TARGET = "https://www.example.com/some/long/url?utm_source=x&utm_medium=y";
+
+    private BenchmarkSupport support;
+    private DispatcherServlet dispatcher;
+    private RedirectFastPathFilter filter;
+    private final FilterChain unreachable = (req, res) -> {
+        throw new IllegalStateException("fast path fell through");
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        support = BenchmarkSupport.start();
+        var repo = BenchmarkSupport.repository(code -> Optional.of(BenchmarkSupport.url(code, TARGET)));
+        UrlService urlService = new UrlService(repo, support.cache(true), BenchmarkSupport.disabledFilter(),
+                new RandomCodeGenerator(8), DbGate.unbounded(), UrlMetrics.inMemory(),
+                ReadYourWrites.disabled(), RedisGuard.passThrough(), AliasReservations.disabled());
+        ClickCounter clicks = new ClickCounter(null, false, 1, 1);
+        RedirectSemantics semantics = new RedirectSemantics(301, 302, Duration.ofHours(1), 1000);
+        urlService.getOriginalUrl("hot1234");
+
+        GenericWebApplicationContext ctx = new GenericWebApplicationContext(new MockServletContext());
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(ctx);
+        ctx.registerBean(Mvc.class);
+        ctx.registerBean(ServiceController.class, () -> new ServiceController(urlService, null, clicks, semantics,
+                RateLimiter.disabled(), null));
+        ctx.refresh();
+        dispatcher = new DispatcherServlet(ctx);
+        dispatcher.init(new MockServletConfig());
+        filter = new RedirectFastPathFilter(urlService, clicks, semantics, "/error", "/actuator");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        support.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse mvc() throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        dispatcher.service(new MockHttpServletRequest("GET", "/hot1234"), res);
+        return res;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fastPath() throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/hot1234"), res, unreachable);
+        return res;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class Mvc {
+    }
+}
@@ -0,0 +1,84 @@
+package com.laila.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full UrlService.getOriginalUrl paths. The DB is a stub, so miss paths show the service + cache overhead
+ * around a DB call rather than Postgres itself. miss_dbLoad also pays one DEL to keep the code cold;
+ * compare with the evict baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolveBenchmark {
+
+    private static final String TARGET = "https://www.example.com/some/long/url";
+
+    private BenchmarkSupport support;
+    private UrlService withL1;
+    private UrlService redisOnly;
+    private UrlCache redisOnlyCache;
+    private final AtomicLong seq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        support = BenchmarkSupport.start();
+        var repo = BenchmarkSupport.repository(code ->
+                code.startsWith("none") ? Optional.empty() : Optional.of(BenchmarkSupport.url(code, TARGET)));
+        CodeGenerator gen = new RandomCodeGenerator(8);
+
+        withL1 = new UrlService(repo, support.cache(true), BenchmarkSupport.disabledFilter(), gen, DbGate.unbounded(), UrlMetrics.inMemory(),
+                ReadYourWrites.disabled(), RedisGuard.passThrough(), AliasReservations.disabled());
+        redisOnlyCache = support.cache(false);
+        redisOnly = new UrlService(repo, redisOnlyCache, BenchmarkSupport.disabledFilter(), gen, DbGate.unbounded(), UrlMetrics.inMemory(),
+                ReadYourWrites.disabled(), RedisGuard.passThrough(), AliasReservations.disabled());
+
+        withL1.getOriginalUrl("hot1234");
+        redisOnly.getOriginalUrl("hot1234");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        support.close();
+    }
+
+    @Benchmark
+    public String hit_l1() {
+        return withL1.getOriginalUrl("hot1234");
+    }
+
+    @Benchmark
+    public String hit_redis() {
+        return redisOnly.getOriginalUrl("hot1234");
+    }
+
+    @Benchmark
+    public String miss_dbLoad() {
+        String code = "c" + (seq.getAndIncrement() & 0xFFFF);
+        String url = redisOnly.getOriginalUrl(code);
+        redisOnlyCache.delete(code);
+        return url;
+    }
+
+    @Benchmark
+    public void evict() {
+        redisOnlyCache.delete("c" + (seq.getAndIncrement() & 0xFFFF));
+    }
+
+    @Benchmark
+    public Object miss_notFound() {
+        try {
+            return redisOnly.getOriginalUrl("none" + (seq.getAndIncrement() & 0xFFFF));
+        } catch (RuntimeException notFound) {
+            return notFound;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.repository.ResolveTarget;
+import com.laila.repository.UrlRepository;
+import com.laila.repository.UrlResolveQueriesImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-miss DB read: {@code findById} (full Url entity, lazy User proxy, persistence-context entry, dirty-check
+ * snapshot) vs. a JPQL constructor projection vs. the JDBC {@code findResolveTarget} fragment, each inside the
+ * read-only transaction Spring Data would open. Runs on in-memory H2, so the numbers are the JPA/Hibernate overhead
+ * around an almost free query. Add {@code -prof gc} to compare bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ResolveQueryBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String JPQL_PROJECTION =
+            "select new com.laila.repository.ResolveTarget(u.longUrl, u.expiresAt) from Url u where u.code = :code and u.status = 1";
+
+    private LocalContainerEntityManagerFactoryBean emfBean;
+    private UrlRepository repo;
+    private TransactionTemplate readOnlyTx;
+    private EntityManager em;
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:resolve;DB_CLOSE_DELAY=-1");
+
+        emfBean = new LocalContainerEntityManagerFactoryBean();
+        emfBean.setDataSource(ds);
+        emfBean.setPackagesToScan("com.laila.entities");
+        emfBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        emfBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+        emfBean.afterPropertiesSet();
+        EntityManagerFactory emf = emfBean.getObject();
+
+        em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        repo = new JpaRepositoryFactory(em).getRepository(UrlRepository.class,
+                RepositoryFragments.just(new UrlResolveQueriesImpl(jdbc)));
+        readOnlyTx = new TransactionTemplate(new JpaTransactionManager(emf));
+        readOnlyTx.setReadOnly(true);
+
+        jdbc.update("INSERT INTO users (id, email, password_hash, created_at, status) VALUES (1, 'a@b.c', 'x', ?, 1)",
+                Instant.now());
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        codes = new String[ROWS];
+        RandomCodeGenerator gen = new RandomCodeGenerator(8);
+        for (int i = 0; i < ROWS; i++) {
+            codes[i] = gen.nextCode();
+            rows.add(new Object[]{codes[i], "https://www.example.com/some/long/url?i=" + i, Instant.now()});
+        }
+        jdbc.batchUpdate("INSERT INTO short_urls (code, long_url, user_id, created_at, expires_at, is_custom, status) " +
+                "VALUES (?, ?, 1, ?, NULL, FALSE, 1)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emfBean.destroy();
+    }
+
+    @Benchmark
+    public String entity_findById() {
+        String code = codes[ThreadLocalRandom.current().nextInt(ROWS)];
+        Optional<Url> u = readOnlyTx.execute(s -> repo.findById(code));
+        return u.map(Url::getLongUrl).orElseThrow();
+    }
+
+    @Benchmark
+    public String jpqlProjection() {
+        String code = codes[ThreadLocalRandom.current().nextInt(ROWS)];
+        return readOnlyTx.execute(s -> em.createQuery(JPQL_PROJECTION, ResolveTarget.class)
+                .setParameter("code", code)
+                .getSingleResult()
+                .longUrl());
+    }
+
+    @Benchmark
+    public String jdbcProjection_findResolveTarget() {
+        String code = codes[ThreadLocalRandom.current().nextInt(ROWS)];
+        Optional<ResolveTarget> t = readOnlyTx.execute(s -> repo.findResolveTarget(code));
+        return t.map(ResolveTarget::longUrl).orElseThrow();
+    }
+}
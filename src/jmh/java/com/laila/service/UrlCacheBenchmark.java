@@ -0,0 +1,51 @@
+package com.laila.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/** UrlCache get/set against the in-process Redis stand-in, with and without the L1 tier. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlCacheBenchmark {
+
+    @Param({"true", "false"})
+    boolean l1;
+
+    private BenchmarkSupport support;
+    private UrlCache cache;
+    private final Instant expiresAt = Instant.now().plusSeconds(3600);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        support = BenchmarkSupport.start();
+        cache = support.cache(l1);
+        cache.set("hot1234", "https://www.example.com/some/long/url", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        support.close();
+    }
+
+    @Benchmark
+    public String get_hit() {
+        return cache.get("hot1234");
+    }
+
+    @Benchmark
+    public String get_miss() {
+        return cache.get("absent12");
+    }
+
+    @Benchmark
+    public void set() {
+        cache.set("write123", "https://www.example.com/some/long/url", expiresAt);
+    }
+}
@@ -1,12 +1,25 @@
 package com.laila;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+import java.util.Arrays;
+
+// R2DBC is wired by hand in ReactiveConfig, only in reactive mode (see there)
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
 public class UrlShortenerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(UrlShortenerApplication.class, args);
+        SpringApplication app = new SpringApplication(UrlShortenerApplication.class);
+        // bulk import/export (BulkTransferRunner) runs once and exits: no server, no port to bind
+        if (Arrays.stream(args).anyMatch(a -> a.startsWith("--shortener.bulk.command="))) {
+            app.setWebApplicationType(WebApplicationType.NONE);
+        }
+        app.run(args);
     }
 }
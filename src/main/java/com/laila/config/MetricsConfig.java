@@ -0,0 +1,126 @@
+package com.laila.config;
+
+import com.laila.service.AliasReservations;
+import com.laila.service.ClickCounter;
+import com.laila.service.ExpirySweeper;
+import com.laila.service.LocalUrlCache;
+import com.laila.service.RateLimiter;
+import com.laila.service.RedisGuard;
+import com.laila.service.ShortCodeFilter;
+import com.laila.service.UrlCache;
+import com.laila.service.UrlService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+@Configuration
+public class MetricsConfig {
+
+    /** L1/L2 hit counters and ratios, used to size the local tier. */
+    @Bean
+    public MeterBinder urlCacheMetrics(UrlCache cache, LocalUrlCache local) {
+        return registry -> {
+            FunctionCounter.builder("shortener.cache.lookups", cache, c -> c.stats().l1Hits())
+                    .tag("tier", "l1").tag("result", "hit").register(registry);
+            FunctionCounter.builder("shortener.cache.lookups", cache, c -> c.stats().l2Hits())
+                    .tag("tier", "l2").tag("result", "hit").register(registry);
+            FunctionCounter.builder("shortener.cache.lookups", cache, c -> c.stats().misses())
+                    .tag("tier", "l2").tag("result", "miss").register(registry);
+
+            Gauge.builder("shortener.cache.hit.ratio", cache, c -> c.stats().l1HitRatio())
+                    .tag("tier", "l1").register(registry);
+            Gauge.builder("shortener.cache.hit.ratio", cache, c -> c.stats().l2HitRatio())
+                    .tag("tier", "l2").register(registry);
+            Gauge.builder("shortener.cache.local.size", local, LocalUrlCache::size)
+                    .register(registry);
+        };
+    }
+
+    /** Redis fault isolation: breaker state (0 closed, 1 open, 2 half-open), skipped calls, trips and hedged loads. */
+    @Bean
+    public MeterBinder redisGuardMetrics(RedisGuard guard) {
+        return registry -> {
+            Gauge.builder("shortener.cache.breaker.state", guard, g -> g.state().ordinal())
+                    .register(registry);
+            FunctionCounter.builder("shortener.cache.breaker.short.circuited", guard, RedisGuard::shortCircuited)
+                    .register(registry);
+            FunctionCounter.builder("shortener.cache.breaker.trips", guard, RedisGuard::trips)
+                    .register(registry);
+            FunctionCounter.builder("shortener.cache.hedges", guard, RedisGuard::hedges)
+                    .register(registry);
+        };
+    }
+
+    /** Custom-alias creates rejected by a Redis reservation, and stale reservations settled against the DB. */
+    @Bean
+    public MeterBinder aliasReservationMetrics(AliasReservations aliases) {
+        return registry -> {
+            FunctionCounter.builder("shortener.alias.reservations", aliases, AliasReservations::rejected)
+                    .tag("result", "rejected").register(registry);
+            FunctionCounter.builder("shortener.alias.reservations", aliases, AliasReservations::reconciled)
+                    .tag("result", "reconciled").register(registry);
+        };
+    }
+
+    /** Requests answered 429, per limit (redirect-ip, create-ip, create-user). */
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimiter limiter) {
+        return registry -> {
+            for (RateLimiter.Scope scope : RateLimiter.Scope.values()) {
+                FunctionCounter.builder("shortener.rate.limit.rejected", limiter, l -> l.rejected(scope))
+                        .tag("limit", scope.id()).register(registry);
+            }
+        };
+    }
+
+    /** Redirects rejected before touching Redis or the DB. */
+    @Bean
+    public MeterBinder codeFilterMetrics(ShortCodeFilter filter) {
+        return registry -> {
+            FunctionCounter.builder("shortener.code.filter.rejects", filter, ShortCodeFilter::filterRejects)
+                    .tag("layer", "bloom").register(registry);
+            FunctionCounter.builder("shortener.code.filter.rejects", filter, ShortCodeFilter::negativeCacheRejects)
+                    .tag("layer", "negative-cache").register(registry);
+        };
+    }
+
+    /** Cache-miss DB loads vs. concurrent misses coalesced into an in-flight load. */
+    @Bean
+    public MeterBinder missCoalescingMetrics(UrlService urlService) {
+        return registry -> {
+            FunctionCounter.builder("shortener.resolve.miss.loads", urlService, s -> s.missLoads().loads())
+                    .tag("result", "executed").register(registry);
+            FunctionCounter.builder("shortener.resolve.miss.loads", urlService, s -> s.missLoads().deduplicated())
+                    .tag("result", "deduplicated").register(registry);
+        };
+    }
+
+    /** Click events accepted into / dropped from the buffer, and increments written to link_clicks. */
+    @Bean
+    public MeterBinder clickMetrics(ClickCounter clicks) {
+        return registry -> {
+            FunctionCounter.builder("shortener.clicks.events", clicks, ClickCounter::accepted)
+                    .tag("result", "accepted").register(registry);
+            FunctionCounter.builder("shortener.clicks.events", clicks, ClickCounter::dropped)
+                    .tag("result", "dropped").register(registry);
+            FunctionCounter.builder("shortener.clicks.flushed", clicks, ClickCounter::flushed)
+                    .register(registry);
+            Gauge.builder("shortener.clicks.buffered", clicks, ClickCounter::buffered)
+                    .register(registry);
+        };
+    }
+
+    /** Links marked expired by the background sweeper, and sweep runs this instance won the lease for. */
+    @Bean
+    public MeterBinder expirySweeperMetrics(ExpirySweeper sweeper) {
+        return registry -> {
+            FunctionCounter.builder("shortener.sweeper.expired", sweeper, ExpirySweeper::swept)
+                    .register(registry);
+            FunctionCounter.builder("shortener.sweeper.runs", sweeper, ExpirySweeper::runs)
+                    .register(registry);
+        };
+    }
+}
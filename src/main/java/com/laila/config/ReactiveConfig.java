@@ -0,0 +1,77 @@
+package com.laila.config;
+
+import com.laila.controller.ReactiveRedirectHandler;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+
+/**
+ * Reactive mode (spring.main.web-application-type=reactive): Netty with a small fixed set of event-loop threads
+ * serves the routes below instead of the MVC {@link com.laila.controller.ServiceController}.
+ * R2DBC auto-configuration is excluded on purpose; its transaction manager would displace the JPA one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    // Tomcat is on the classpath too; without this the reactive stack would run on it instead of Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionFactory(
+            @Value("${shortener.reactive.r2dbc.url:r2dbc:postgresql://localhost:5432/shortener}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${shortener.reactive.r2dbc.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isBlank()) options.option(ConnectionFactoryOptions.USER, username);
+        if (!password.isBlank()) options.option(ConnectionFactoryOptions.PASSWORD, password);
+        ConnectionFactory cf = ConnectionFactories.get(options.build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(cf)
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionPool r2dbcConnectionFactory) {
+        return DatabaseClient.create(r2dbcConnectionFactory);
+    }
+
+    // same (replica-reading, under sentinel/cluster) connection factory as the blocking cache template
+    @Bean
+    public ReactiveStringRedisTemplate cacheReactiveRedisTemplate(@Qualifier("cacheRedisTemplate") StringRedisTemplate cache) {
+        return new ReactiveStringRedisTemplate((ReactiveRedisConnectionFactory) cache.getRequiredConnectionFactory());
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> shortenerRoutes(ReactiveRedirectHandler handler) {
+        return route(POST("/create-short/batch").and(contentType(MediaType.APPLICATION_JSON)), handler::createBatch)
+                .andRoute(POST("/create-short").and(contentType(MediaType.APPLICATION_JSON)), handler::create)
+                .andRoute(GET("/{shortUrl}"), handler::redirect);
+    }
+}
@@ -1,47 +1,171 @@
 package com.laila.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 
+
+/**
+ * Redis topology from shortener.redis.mode: standalone (spring.data.redis.host/port), sentinel
+ * (spring.data.redis.sentinel.master/nodes) or cluster (spring.data.redis.cluster.nodes).
+ * The primary factory serves writes and every read that must see the latest write (sweeper lease, code counter,
+ * shared code filter), and the cache's bulk pipelines (warm-up, eviction, layout migration), which need more than
+ * one lookup's budget. A second factory backs {@code cacheRedisTemplate}: its command timeout is the cache latency
+ * budget (shortener.cache.timeout) rather than spring.data.redis.timeout, and with sentinel or cluster it reads from
+ * replicas (shortener.redis.read-from), so redirect lookups scale with the replica count; Lettuce still sends its
+ * writes to the primaries.
+ */
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory(
-            org.springframework.core.env.Environment env
-    ) {
-        String host = env.getProperty("spring.data.redis.host", "localhost");
-        int port = Integer.parseInt(env.getProperty("spring.data.redis.port", "6379"));
-        String password = env.getProperty("spring.data.redis.password", "");
-
-        RedisStandaloneConfiguration conf = new RedisStandaloneConfiguration(host, port);
-        if (!password.isBlank()) {
-            conf.setPassword(RedisPassword.of(password));
-        }
-        return new LettuceConnectionFactory(conf);
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(Environment env) {
+        return new LettuceConnectionFactory(topology(env), client(env, null));
     }
 
     @Bean
-    public StringRedisTemplate stringRedisTemplate(LettuceConnectionFactory cf) {
+    public LettuceConnectionFactory cacheRedisConnectionFactory(Environment env) {
+        return new LettuceConnectionFactory(topology(env), cacheClient(env));
+    }
+
+    @Bean
+    @Primary
+    public StringRedisTemplate stringRedisTemplate(@Qualifier("redisConnectionFactory") LettuceConnectionFactory cf) {
         return new StringRedisTemplate(cf);
     }
 
+    /** UrlCache reads and writes; a replica miss caused by replication lag costs one DB load, never a wrong answer. */
     @Bean
-    public CacheManager cacheManager(LettuceConnectionFactory cf) {
+    public StringRedisTemplate cacheRedisTemplate(@Qualifier("cacheRedisConnectionFactory") LettuceConnectionFactory cf) {
+        return new StringRedisTemplate(cf);
+    }
+
+    @Bean
+    public CacheManager cacheManager(@Qualifier("redisConnectionFactory") LettuceConnectionFactory cf) {
         var config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(24))       // default TTL for annotated caches
                 .disableCachingNullValues();
         return RedisCacheManager.builder(cf).cacheDefaults(config).build();
     }
-}
\ No newline at end of file
+
+    static RedisConfiguration topology(Environment env) {
+        String mode = env.getProperty("shortener.redis.mode", "standalone");
+        RedisPassword password = password(env.getProperty("spring.data.redis.password", ""));
+        switch (mode) {
+            case "standalone" -> {
+                RedisStandaloneConfiguration conf = new RedisStandaloneConfiguration(
+                        env.getProperty("spring.data.redis.host", "localhost"),
+                        Integer.parseInt(env.getProperty("spring.data.redis.port", "6379")));
+                conf.setPassword(password);
+                return conf;
+            }
+            case "sentinel" -> {
+                RedisSentinelConfiguration conf = new RedisSentinelConfiguration(
+                        env.getRequiredProperty("spring.data.redis.sentinel.master"),
+                        new LinkedHashSet<>(nodes(env, "spring.data.redis.sentinel.nodes")));
+                conf.setPassword(password);
+                conf.setSentinelPassword(password(env.getProperty("spring.data.redis.sentinel.password", "")));
+                return conf;
+            }
+            case "cluster" -> {
+                RedisClusterConfiguration conf = new RedisClusterConfiguration(nodes(env, "spring.data.redis.cluster.nodes"));
+                conf.setPassword(password);
+                conf.setMaxRedirects(Integer.parseInt(env.getProperty("spring.data.redis.cluster.max-redirects", "3")));
+                return conf;
+            }
+            default -> throw new IllegalArgumentException("shortener.redis.mode must be standalone, sentinel or cluster");
+        }
+    }
+
+    // pipelined calls (UrlCache GET+PTTL, batch warm-up) need a dedicated connection;
+    // pooling keeps that from being a fresh TCP connect per call
+    static LettuceClientConfiguration client(Environment env, ReadFrom readFrom) {
+        return client(env, readFrom, DurationStyle.detectAndParse(env.getProperty("spring.data.redis.timeout", "2000"), ChronoUnit.MILLIS));
+    }
+
+    // a cache command past its budget fails fast; UrlService/RedisGuard then answer from the DB
+    static LettuceClientConfiguration cacheClient(Environment env) {
+        ReadFrom readFrom = "standalone".equals(env.getProperty("shortener.redis.mode", "standalone"))
+                ? null
+                : ReadFrom.valueOf(env.getProperty("shortener.redis.read-from", "replicaPreferred"));
+        return client(env, readFrom, DurationStyle.detectAndParse(env.getProperty("shortener.cache.timeout", "50ms")));
+    }
+
+    private static LettuceClientConfiguration client(Environment env, ReadFrom readFrom, Duration commandTimeout) {
+        GenericObjectPoolConfig<?> pool = new GenericObjectPoolConfig<>();
+        pool.setMaxTotal(Integer.parseInt(env.getProperty("spring.data.redis.lettuce.pool.max-active", "16")));
+        pool.setMaxIdle(Integer.parseInt(env.getProperty("spring.data.redis.lettuce.pool.max-idle", "16")));
+        pool.setMinIdle(Integer.parseInt(env.getProperty("spring.data.redis.lettuce.pool.min-idle", "2")));
+        pool.setMaxWait(maxWait(env, commandTimeout));
+        var builder = LettucePoolingClientConfiguration.builder()
+                .poolConfig(pool)
+                .commandTimeout(commandTimeout)
+                .clientOptions(clientOptions(env));
+        if (readFrom != null) builder.readFrom(readFrom);
+        return builder.build();
+    }
+
+    // waiting for a connection counts against the same budget as the command: never unbounded (commons-pool's -1),
+    // never longer than the command timeout, so the cache factory's borrowers give up within the cache budget
+    static Duration maxWait(Environment env, Duration commandTimeout) {
+        Duration wait = DurationStyle.detectAndParse(
+                env.getProperty("spring.data.redis.lettuce.pool.max-wait", "-1"), ChronoUnit.MILLIS);
+        return wait.isNegative() || wait.compareTo(commandTimeout) > 0 ? commandTimeout : wait;
+    }
+
+    // cluster: refresh the slot map periodically and on MOVED/ASK redirects or reconnects, so a failover
+    // or resharding is picked up without waiting for the period; sentinel reports failovers itself
+    private static ClientOptions clientOptions(Environment env) {
+        if (!"cluster".equals(env.getProperty("shortener.redis.mode", "standalone"))) return ClientOptions.create();
+        Duration period = DurationStyle.detectAndParse(env.getProperty("shortener.redis.cluster.refresh-period", "30s"));
+        return ClusterClientOptions.builder()
+                .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                        .enablePeriodicRefresh(period)
+                        .enableAllAdaptiveRefreshTriggers()
+                        .build())
+                .build();
+    }
+
+    private static List<String> nodes(Environment env, String property) {
+        List<String> nodes = Arrays.stream(env.getRequiredProperty(property).split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toList();
+        if (nodes.isEmpty()) throw new IllegalArgumentException(property + " lists no nodes");
+        return nodes;
+    }
+
+    private static RedisPassword password(String value) {
+        return value.isBlank() ? RedisPassword.none() : RedisPassword.of(value);
+    }
+}
@@ -0,0 +1,85 @@
+package com.laila.config;
+
+import com.laila.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Read-replica routing, active when shortener.datasource.replica-urls is set. Replaces Boot's single pool with
+ * a primary pool (spring.datasource.*) plus one pool per replica URL (same credentials and Hikari settings, smaller
+ * connection timeout). Read-only transactions, which includes every Spring Data finder, go to the replicas;
+ * writes, Flyway and read-write transactions stay on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shortener.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties props,
+            Environment env,
+            @Value("${shortener.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${shortener.datasource.replica-connection-timeout:2s}") Duration replicaTimeout,
+            @Value("${shortener.datasource.replica-probe-interval:5s}") Duration probeInterval) {
+        HikariDataSource primary = pool(props, env, "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) continue;
+            HikariDataSource r = pool(props, env, "replica-" + replicas.size());
+            r.setJdbcUrl(url.trim());
+            r.setConnectionTimeout(replicaTimeout.toMillis());
+            r.setInitializationFailTimeout(-1); // a replica that is down at startup must not stop the app
+            replicas.add(r);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, probeInterval.toMillis());
+    }
+
+    // LazyConnectionDataSourceProxy: the physical connection (and so the route) is picked at the first statement,
+    // after the transaction manager has flagged the transaction read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /** Where read-only transactions went: a replica, or the primary because none was healthy or the code was fresh. */
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRoutingDataSource routing, ReadYourWrites readYourWrites) {
+        return registry -> {
+            FunctionCounter.builder("shortener.db.reads", routing, ReplicaRoutingDataSource::replicaReads)
+                    .tag("target", "replica").register(registry);
+            FunctionCounter.builder("shortener.db.reads", routing, ReplicaRoutingDataSource::primaryFallbacks)
+                    .tag("target", "primary-fallback").register(registry);
+            FunctionCounter.builder("shortener.db.reads", readYourWrites, ReadYourWrites::primaryReads)
+                    .tag("target", "primary-read-your-writes").register(registry);
+            Gauge.builder("shortener.db.replicas.healthy", routing, ReplicaRoutingDataSource::healthyReplicas)
+                    .register(registry);
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties props, Environment env, String name) {
+        HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(ds));
+        ds.setPoolName(name);
+        return ds;
+    }
+}
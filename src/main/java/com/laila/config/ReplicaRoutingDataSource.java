@@ -0,0 +1,153 @@
+package com.laila.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+ * A replica is taken out of rotation when a connection to it fails or a periodic {@code isValid} probe does,
+ * and put back once a probe succeeds again; with no healthy replica, reads fall back to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the routing decision happens after the transaction's
+ * read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Map<String, Replica> byKey = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryFallbacks = new AtomicLong();
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "replica-health");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, long probeIntervalMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica r : this.replicas) {
+            targets.put(r.key(), r.ds);
+            byKey.put(r.key(), r);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        if (!replicas.isEmpty()) {
+            prober.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+        Replica r = pickHealthy();
+        if (r == null) {
+            primaryFallbacks.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return r.key();
+    }
+
+    // a replica that refuses connections fails over to the primary right away, not after the next probe
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica r = byKey.get(determineCurrentLookupKey());
+        if (r == null) return primary.getConnection();
+        try {
+            return r.ds.getConnection();
+        } catch (SQLException ex) {
+            r.markDown(ex);
+            primaryFallbacks.incrementAndGet();
+            return primary.getConnection();
+        }
+    }
+
+    private Replica pickHealthy() {
+        int n = replicas.size();
+        if (n == 0) return null;
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.healthy) return r;
+        }
+        return null;
+    }
+
+    void probe() {
+        for (Replica r : replicas) {
+            try (Connection c = r.ds.getConnection()) {
+                if (c.isValid(2)) r.markUp();
+                else r.markDown(null);
+            } catch (SQLException | RuntimeException ex) {
+                r.markDown(ex);
+            }
+        }
+    }
+
+    /** Read-only transactions served by a replica. */
+    public long replicaReads() {
+        return replicaReads.get();
+    }
+
+    /** Read-only transactions that went to the primary because no replica was healthy. */
+    public long primaryFallbacks() {
+        return primaryFallbacks.get();
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        replicas.forEach(r -> r.ds.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        final HikariDataSource ds;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource ds) {
+            this.ds = ds;
+        }
+
+        String key() {
+            return ds.getPoolName();
+        }
+
+        void markDown(Exception cause) {
+            if (healthy) log.warn("Replica {} out of rotation", key(), cause);
+            healthy = false;
+        }
+
+        void markUp() {
+            if (!healthy) log.info("Replica {} back in rotation", key());
+            healthy = true;
+        }
+    }
+}
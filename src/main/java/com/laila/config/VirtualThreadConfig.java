@@ -0,0 +1,46 @@
+package com.laila.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Opt-in (shortener.threads.virtual=true, Java 21+): Tomcat runs each request on its own virtual thread,
+ * so the blocking Redis and JPA calls in UrlService park instead of pinning a platform thread.
+ * DB concurrency stays bounded by {@link com.laila.service.DbGate}. The build targets 17, hence the reflective lookup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shortener.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(ExecutorService virtualThreadExecutor) {
+        log.info("Request handling on virtual threads");
+        return handler -> handler.setExecutor(virtualThreadExecutor);
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("shortener.threads.virtual=true needs Java 21+ (running "
+                    + Runtime.version() + ")", ex);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not create a virtual-thread executor", ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.laila.controller;
+
+import com.laila.exception.AliasTakenException;
+import com.laila.exception.EntityNotFoundException;
+import com.laila.exception.RateLimitExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+
+/**
+ * Status codes for the service exceptions the API documents: 404 for an unknown code, 409 for a taken alias,
+ * 429 for a rate limit. {@link RedirectFastPathFilter} answers unknown codes the same way.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> notFound(EntityNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(AliasTakenException.class)
+    public ResponseEntity<String> aliasTaken(AliasTakenException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+    }
+
+    /** Limits applied inside handlers (per-user create limit, see {@link RateLimitFilter}). */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> tooManyRequests(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+    }
+}
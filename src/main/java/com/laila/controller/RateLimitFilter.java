@@ -0,0 +1,67 @@
+package com.laila.controller;
+
+import com.laila.exception.RateLimitExceededException;
+import com.laila.service.RateLimiter;
+import com.laila.service.RateLimiter.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+
+/**
+ * Per-IP limits for redirects and creates, ahead of {@link RedirectFastPathFilter} so a rejected redirect never reaches
+ * the cache or the DB. The client IP is the remote address; behind a proxy, set server.forward-headers-strategy so it
+ * reflects X-Forwarded-For. Per-user limits and the per-item batch limit need the request body and are applied in
+ * {@link ServiceController}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "shortener.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+
+    public RateLimitFilter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Scope scope = scopeOf(request);
+        long wait = scope != null ? limiter.tryAcquire(scope, request.getRemoteAddr(), 1) : 0;
+        if (wait > 0) {
+            reject(response, new RateLimitExceededException(scope.id(), Duration.ofNanos(wait)));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static Scope scopeOf(HttpServletRequest request) {
+        if ("POST".equals(request.getMethod())) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            return path.equals("/create-short") ? Scope.CREATE_IP : null;
+        }
+        return RedirectFastPathFilter.codeOf(request) != null ? Scope.REDIRECT_IP : null;
+    }
+
+    static void reject(HttpServletResponse response, RateLimitExceededException ex) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(ex.getMessage());
+    }
+}
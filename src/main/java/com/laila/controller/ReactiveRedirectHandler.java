@@ -0,0 +1,136 @@
+package com.laila.controller;
+
+import com.laila.dto.UrlDto;
+import com.laila.exception.AliasTakenException;
+import com.laila.exception.RateLimitExceededException;
+import com.laila.service.ClickCounter;
+import com.laila.service.RateLimiter;
+import com.laila.service.RateLimiter.Scope;
+import com.laila.service.ReactiveUrlService;
+import com.laila.service.UrlBatchService;
+import com.laila.service.UrlService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * WebFlux counterpart of {@link ServiceController}. Redirects resolve without blocking; the create endpoints
+ * still use the blocking JPA services, so they run on the bounded-elastic scheduler, never on an event loop.
+ * Rate limits are the same as {@link RateLimitFilter} and the per-user check in {@link ServiceController}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRedirectHandler {
+
+    private static final ParameterizedTypeReference<List<UrlDto>> URL_LIST = new ParameterizedTypeReference<>() {};
+
+    private final ReactiveUrlService reactiveUrlService;
+    private final UrlService urlService;
+    private final UrlBatchService urlBatchService;
+    private final ClickCounter clickCounter;
+    private final Validator validator;
+    private final RedirectSemantics redirectSemantics;
+    private final RateLimiter rateLimiter;
+
+    public ReactiveRedirectHandler(ReactiveUrlService reactiveUrlService,
+                                   UrlService urlService,
+                                   UrlBatchService urlBatchService,
+                                   ClickCounter clickCounter,
+                                   Validator validator,
+                                   RedirectSemantics redirectSemantics,
+                                   RateLimiter rateLimiter) {
+        this.reactiveUrlService = reactiveUrlService;
+        this.urlService = urlService;
+        this.urlBatchService = urlBatchService;
+        this.clickCounter = clickCounter;
+        this.validator = validator;
+        this.redirectSemantics = redirectSemantics;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public Mono<ServerResponse> redirect(ServerRequest request) {
+        String code = request.pathVariable("shortUrl");
+        long wait = rateLimiter.tryAcquire(Scope.REDIRECT_IP, clientIp(request), 1);
+        if (wait > 0) return tooManyRequests(new RateLimitExceededException(Scope.REDIRECT_IP.id(), Duration.ofNanos(wait)));
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return reactiveUrlService.resolve(code)
+                .map(redirectSemantics::of)
+                .flatMap(r -> {
+                    boolean notModified = RedirectSemantics.notModified(ifNoneMatch, r.etag());
+                    if (!notModified) clickCounter.record(code);
+                    return ServerResponse.status(notModified ? HttpStatus.NOT_MODIFIED : r.status())
+                            .header(HttpHeaders.LOCATION, r.location())
+                            .header(HttpHeaders.CACHE_CONTROL, r.cacheControl())
+                            .header(HttpHeaders.ETAG, r.etag())
+                            .header(HttpHeaders.EXPIRES, RedirectSemantics.httpDate(r.expires()))
+                            .build();
+                })
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        long wait = rateLimiter.tryAcquire(Scope.CREATE_IP, clientIp(request), 1);
+        if (wait > 0) return tooManyRequests(new RateLimitExceededException(Scope.CREATE_IP.id(), Duration.ofNanos(wait)));
+        return request.bodyToMono(UrlDto.class)
+                .flatMap(dto -> {
+                    Set<ConstraintViolation<UrlDto>> violations = validator.validate(dto);
+                    if (!violations.isEmpty()) {
+                        ConstraintViolation<UrlDto> v = violations.iterator().next();
+                        return badRequest(v.getPropertyPath() + ": " + v.getMessage());
+                    }
+                    rateLimiter.checkUsers(List.of(dto));
+                    return Mono.fromCallable(() -> urlService.convertToShortUrl(dto))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(code -> ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue(code));
+                })
+                .onErrorResume(IllegalArgumentException.class, ex -> badRequest(ex.getMessage()))
+                .onErrorResume(RateLimitExceededException.class, ReactiveRedirectHandler::tooManyRequests)
+                .onErrorResume(AliasTakenException.class,
+                        ex -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue("Alias already exists"));
+    }
+
+    public Mono<ServerResponse> createBatch(ServerRequest request) {
+        String ip = clientIp(request);
+        return request.bodyToMono(URL_LIST)
+                .doOnNext(items -> rateLimiter.checkBatch(ip, items))
+                .doOnNext(rateLimiter::checkUsers)
+                .flatMap(items -> Mono.fromCallable(() -> urlBatchService.convertToShortUrls(items))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(results -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(results))
+                .onErrorResume(IllegalArgumentException.class, ex -> badRequest(ex.getMessage()))
+                .onErrorResume(RateLimitExceededException.class, ReactiveRedirectHandler::tooManyRequests);
+    }
+
+    private static String clientIp(ServerRequest request) {
+        return request.remoteAddress()
+                .map(InetSocketAddress::getAddress)
+                .map(InetAddress::getHostAddress)
+                .orElse(null);
+    }
+
+    private static Mono<ServerResponse> tooManyRequests(RateLimitExceededException ex) {
+        return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(ex.getMessage());
+    }
+
+    private static Mono<ServerResponse> badRequest(String message) {
+        return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(message);
+    }
+}
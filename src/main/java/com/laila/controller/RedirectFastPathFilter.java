@@ -0,0 +1,108 @@
+package com.laila.controller;
+
+import com.laila.exception.EntityNotFoundException;
+import com.laila.service.ClickCounter;
+import com.laila.service.UrlService;
+import com.laila.controller.RedirectSemantics.Redirect;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+
+/**
+ * Redirect fast path in front of DispatcherServlet: a GET/HEAD for /{code} is resolved through {@link UrlService}
+ * and answered with the headers {@link RedirectSemantics} derives (pre-validated Location, caching, ETag), skipping
+ * handler mapping, argument resolution and ResponseEntity building. An unknown code is answered 404 here, and a failed
+ * lookup goes to the container's error handling as an MVC exception would: resolving it again in MVC would double the
+ * Redis and DB work of every miss, and of every request during an incident. Only requests that are not GET/HEAD of a
+ * well-formed code, or that hit the error or actuator path, fall through to MVC.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "shortener.redirect.fast-path.enabled", havingValue = "true", matchIfMissing = true)
+public class RedirectFastPathFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedirectFastPathFilter.class);
+    static final int MAX_CODE_LENGTH = 10; // short_urls.code is VARCHAR(10)
+
+    private final UrlService urlService;
+    private final ClickCounter clickCounter;
+    private final RedirectSemantics semantics;
+    private final Set<String> reserved; // single-segment paths MVC serves, which look like codes
+
+    public RedirectFastPathFilter(UrlService urlService, ClickCounter clickCounter, RedirectSemantics semantics,
+                                  @Value("${server.error.path:/error}") String errorPath,
+                                  @Value("${management.endpoints.web.base-path:/actuator}") String actuatorPath) {
+        this.urlService = urlService;
+        this.clickCounter = clickCounter;
+        this.semantics = semantics;
+        this.reserved = Set.of(StringUtils.trimLeadingCharacter(errorPath, '/'),
+                StringUtils.trimLeadingCharacter(actuatorPath, '/'));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String code = codeOf(request);
+        if (code == null || reserved.contains(code)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Redirect r;
+        try {
+            r = semantics.of(urlService.resolve(code));
+        } catch (EntityNotFoundException notFound) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(notFound.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            // unhandled in MVC as well: a 500 rendered by the error controller
+            log.warn("Redirect lookup failed for {}", code, ex);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        boolean notModified = RedirectSemantics.notModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), r.etag());
+        if (!notModified) clickCounter.record(code);
+        response.setStatus(notModified ? HttpServletResponse.SC_NOT_MODIFIED : r.status().value());
+        response.setHeader(HttpHeaders.LOCATION, r.location());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, r.cacheControl());
+        response.setHeader(HttpHeaders.ETAG, r.etag());
+        response.setDateHeader(HttpHeaders.EXPIRES, r.expires().toEpochMilli());
+    }
+
+    /** The code for GET/HEAD /{code}, or null when the request is anything else. */
+    static String codeOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) return null;
+        String path = request.getRequestURI();
+        int start = request.getContextPath().length() + 1;
+        int len = path.length() - start;
+        if (len < 1 || len > MAX_CODE_LENGTH || path.charAt(start - 1) != '/') return null;
+        for (int i = start; i < path.length(); i++) {
+            char c = path.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+            if (!ok) return null;
+        }
+        return path.substring(start);
+    }
+}
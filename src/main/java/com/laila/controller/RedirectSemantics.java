@@ -0,0 +1,106 @@
+package com.laila.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.laila.service.ResolvedUrl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.CRC32C;
+
+
+/**
+ * HTTP semantics shared by every redirect endpoint: 301/308 for links without expiry, 302/307 for expiring ones,
+ * and Cache-Control/Expires derived from the link's expiry so a CDN or browser never serves it past that point.
+ * An ETag over status + Location lets edges revalidate with If-None-Match and get a 304.
+ */
+@Component
+public class RedirectSemantics {
+
+    private final HttpStatus permanentStatus;
+    private final HttpStatus temporaryStatus;
+    private final long maxAgeSeconds;
+    private final Cache<String, String> locations; // long URL → header-safe Location value
+
+    public RedirectSemantics(@Value("${shortener.redirect.permanent-status:301}") int permanentStatus,
+                             @Value("${shortener.redirect.temporary-status:302}") int temporaryStatus,
+                             @Value("${shortener.redirect.max-age:1h}") Duration maxAge,
+                             @Value("${shortener.redirect.location-cache-size:10000}") long locationCacheSize) {
+        if (permanentStatus != 301 && permanentStatus != 308) {
+            throw new IllegalArgumentException("shortener.redirect.permanent-status must be 301 or 308");
+        }
+        if (temporaryStatus != 302 && temporaryStatus != 307) {
+            throw new IllegalArgumentException("shortener.redirect.temporary-status must be 302 or 307");
+        }
+        this.permanentStatus = HttpStatus.valueOf(permanentStatus);
+        this.temporaryStatus = HttpStatus.valueOf(temporaryStatus);
+        this.maxAgeSeconds = Math.max(0, maxAge.getSeconds());
+        this.locations = Caffeine.newBuilder().maximumSize(locationCacheSize).build();
+    }
+
+    public Redirect of(ResolvedUrl resolved) {
+        return of(resolved, Instant.now());
+    }
+
+    Redirect of(ResolvedUrl resolved, Instant now) {
+        String location = locations.get(resolved.url(), RedirectSemantics::toLocation);
+        HttpStatus status = resolved.permanent() ? permanentStatus : temporaryStatus;
+
+        long maxAge = maxAgeSeconds;
+        if (!resolved.permanent()) {
+            long left = resolved.expiresAt() == null ? 0 : Duration.between(now, resolved.expiresAt()).getSeconds();
+            maxAge = Math.max(0, Math.min(maxAge, left)); // whole seconds, rounded down: never past expiry
+        }
+        String cacheControl = maxAge > 0 ? "public, max-age=" + maxAge : "no-cache";
+        return new Redirect(status, location, cacheControl, now.plusSeconds(maxAge), etag(status, location));
+    }
+
+    /** True when an If-None-Match header matches the redirect's ETag (weak comparison, as for GET). */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    public ResponseEntity<Void> toResponse(Redirect r, String ifNoneMatch) {
+        ResponseEntity.BodyBuilder b = ResponseEntity.status(notModified(ifNoneMatch, r.etag()) ? HttpStatus.NOT_MODIFIED : r.status());
+        return b.header(HttpHeaders.LOCATION, r.location())
+                .header(HttpHeaders.CACHE_CONTROL, r.cacheControl())
+                .header(HttpHeaders.ETAG, r.etag())
+                .header(HttpHeaders.EXPIRES, httpDate(r.expires()))
+                .build();
+    }
+
+    public static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+
+    // same parsing ResponseEntity.location(URI.create(url)) does, once per distinct URL
+    private static String toLocation(String url) {
+        return URI.create(url).toASCIIString();
+    }
+
+    private static String etag(HttpStatus status, String location) {
+        CRC32C crc = new CRC32C();
+        crc.update(status.value());
+        crc.update(location.getBytes(StandardCharsets.UTF_8));
+        return "\"" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /** Everything a redirect response carries; Location is already header-safe. */
+    public record Redirect(HttpStatus status, String location, String cacheControl, Instant expires, String etag) {}
+}
@@ -1,6 +1,11 @@
 package com.laila.controller;
 
+import com.laila.dto.UrlBatchResultDto;
 import com.laila.dto.UrlDto;
+import com.laila.service.ClickCounter;
+import com.laila.service.LinkStatusService;
+import com.laila.service.RateLimiter;
+import com.laila.service.UrlBatchService;
 import com.laila.service.UrlService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.headers.Header;
@@ -10,23 +15,39 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
+import java.util.List;
 
 @Tag(name = "URL Shortener")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // reactive mode: ReactiveRedirectHandler
 @RequestMapping("/")
 public class ServiceController {
 
     private final UrlService urlService;
+    private final UrlBatchService urlBatchService;
+    private final ClickCounter clickCounter;
+    private final RedirectSemantics redirectSemantics;
+    private final RateLimiter rateLimiter;
+    private final LinkStatusService linkStatusService;
 
-    public ServiceController(UrlService urlService) {
+    public ServiceController(UrlService urlService, UrlBatchService urlBatchService, ClickCounter clickCounter,
+                             RedirectSemantics redirectSemantics, RateLimiter rateLimiter,
+                             LinkStatusService linkStatusService) {
         this.urlService = urlService;
+        this.urlBatchService = urlBatchService;
+        this.clickCounter = clickCounter;
+        this.redirectSemantics = redirectSemantics;
+        this.rateLimiter = rateLimiter;
+        this.linkStatusService = linkStatusService;
     }
 
     @Operation(
@@ -45,7 +66,9 @@ public class ServiceController {
                     )
             ),
             @ApiResponse(responseCode = "400", description = "Validation error"),
-            @ApiResponse(responseCode = "409", description = "Alias already exists")
+            @ApiResponse(responseCode = "409", description = "Alias already exists"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded (client IP or userId)",
+                    headers = @Header(name = "Retry-After", description = "Seconds until the request would be admitted"))
     })
     @PostMapping(
             path = "/create-short",
@@ -53,28 +76,91 @@ public class ServiceController {
             produces = MediaType.TEXT_PLAIN_VALUE
     )
     public ResponseEntity<String> convertToShortUrl(@RequestBody @Valid UrlDto request) {
+        rateLimiter.checkUsers(List.of(request));
         String code = urlService.convertToShortUrl(request);
         return ResponseEntity.ok(code);
     }
 
+    @Operation(
+            summary = "Convert many URLs",
+            description = "Converts a list of long URLs in one request (JDBC-batched insert, pipelined cache warm-up). " +
+                    "Each item is validated on its own; the response has one result per item, in request order."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Per-item results (code or error)"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded (items per client IP, or a userId for its items)",
+                    headers = @Header(name = "Retry-After", description = "Seconds until the request would be admitted"))
+    })
+    @PostMapping(
+            path = "/create-short/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<UrlBatchResultDto>> convertToShortUrls(@RequestBody List<UrlDto> requests,
+                                                                      HttpServletRequest http) {
+        if (requests != null) {
+            rateLimiter.checkBatch(http.getRemoteAddr(), requests);
+            rateLimiter.checkUsers(requests);
+        }
+        return ResponseEntity.ok(urlBatchService.convertToShortUrls(requests));
+    }
+
     @Operation(
             summary = "Redirect",
-            description = "Finds original URL from short code and redirects with HTTP 302."
+            description = "Finds original URL from short code and redirects: 301 (or 308) for links without expiry, " +
+                    "302 (or 307) for expiring ones. Cache-Control/Expires never reach past the link's expiry."
     )
     @ApiResponses({
+            @ApiResponse(
+                    responseCode = "301",
+                    description = "Redirected to original URL (permanent link)",
+                    headers = @Header(name = "Location", description = "The original URL")
+            ),
             @ApiResponse(
                     responseCode = "302",
-                    description = "Redirected to original URL",
+                    description = "Redirected to original URL (expiring link)",
                     headers = @Header(name = "Location", description = "The original URL")
             ),
+            @ApiResponse(responseCode = "304", description = "If-None-Match matched the redirect's ETag"),
             @ApiResponse(responseCode = "404", description = "Short code not found"),
-            @ApiResponse(responseCode = "410", description = "Short code expired")
+            @ApiResponse(responseCode = "410", description = "Short code expired"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded (client IP)",
+                    headers = @Header(name = "Retry-After", description = "Seconds until the request would be admitted"))
     })
     @GetMapping("{shortUrl}")
-    public ResponseEntity<Void> getAndRedirect(@PathVariable String shortUrl) {
-        String url = urlService.getOriginalUrl(shortUrl);
-        return ResponseEntity.status(HttpStatus.FOUND)
-                .location(URI.create(url))
-                .build();
+    public ResponseEntity<Void> getAndRedirect(@PathVariable String shortUrl,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ResponseEntity<Void> res = redirectSemantics.toResponse(redirectSemantics.of(urlService.resolve(shortUrl)), ifNoneMatch);
+        if (res.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            clickCounter.record(shortUrl); // enqueue only; counts are flushed in the background
+        }
+        return res;
+    }
+
+    @Operation(
+            summary = "Delete",
+            description = "Marks the link deleted: it stops redirecting, its cache entries are evicted and edge caches " +
+                    "purged, and shortening the same URL again creates a new code."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Deleted (or already deleted)"),
+            @ApiResponse(responseCode = "404", description = "Short code not found")
+    })
+    @DeleteMapping("{shortUrl}")
+    public ResponseEntity<Void> delete(@PathVariable String shortUrl) {
+        linkStatusService.changeStatus(shortUrl, LinkStatusService.DELETED);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Restore", description = "Makes a deleted link redirect again; it keeps its expiration date.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Restored (or already active)"),
+            @ApiResponse(responseCode = "404", description = "Short code not found")
+    })
+    @PostMapping("{shortUrl}/restore")
+    public ResponseEntity<Void> restore(@PathVariable String shortUrl) {
+        linkStatusService.changeStatus(shortUrl, LinkStatusService.ACTIVE);
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.laila.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.laila.entities.Url;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One line of a bulk import or export file (JSONL object, or CSV row under a header with these names).
+ * Only longUrl is required on import: without code/alias a code is generated, with code (e.g. migrated links) it is kept,
+ * alias is a custom code like the API's.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BulkRecordDto(String code,
+                            String alias,
+                            String longUrl,
+                            Instant expirationDate,
+                            Instant createdAt,
+                            Boolean custom,
+                            Short status) {
+
+    /** Column order of exported CSV files. */
+    public static final List<String> CSV_COLUMNS = List.of("code", "longUrl", "createdAt", "expirationDate", "custom", "status");
+
+    public static BulkRecordDto from(Url u) {
+        return new BulkRecordDto(u.getCode(), null, u.getLongUrl(), u.getExpiresAt(), u.getCreatedAt(), u.getCustom(),
+                u.getStatus());
+    }
+}
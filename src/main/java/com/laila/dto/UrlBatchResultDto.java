@@ -0,0 +1,56 @@
+package com.laila.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "UrlBatchResultDto", description = "Per-item outcome of a batch shorten request")
+public class UrlBatchResultDto {
+
+    @Schema(description = "Position of the item in the request list", example = "0")
+    private int index;
+
+    @Schema(description = "Created short code (absent on error)", example = "aB9x2Q7")
+    private String code;
+
+    @Schema(description = "Why the item was not created (absent on success)", example = "Alias already exists")
+    private String error;
+
+    public static UrlBatchResultDto created(int index, String code) {
+        UrlBatchResultDto r = new UrlBatchResultDto();
+        r.index = index;
+        r.code = code;
+        return r;
+    }
+
+    public static UrlBatchResultDto failed(int index, String error) {
+        UrlBatchResultDto r = new UrlBatchResultDto();
+        r.index = index;
+        r.error = error;
+        return r;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -19,7 +19,7 @@ public class UrlDto {
     private String longUrl;
 
     // Optional custom alias; server enforces uniqueness in DB
-    @Size(min = 3, max = 32, message = "Alias must be 3–32 characters")
+    @Size(min = 3, max = 10, message = "Alias must be 3–10 characters")
     @Pattern(regexp = "^[A-Za-z0-9_-]+$", message = "Alias may contain letters, numbers, _ and - only")
     @Schema(description = "Optional custom short code (must be unique)", example = "docs123")
     private String alias;
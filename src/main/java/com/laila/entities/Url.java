@@ -1,6 +1,8 @@
 package com.laila.entities;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 
 @Entity
@@ -10,7 +12,7 @@ import java.time.Instant;
                 @Index(name = "idx_short_urls_expires", columnList = "expires_at"),
                 @Index(name = "uq_short_urls_url_hash", columnList = "url_hash", unique = true) // optional
         })
-public class Url {
+public class Url implements Persistable<String> {
 
     @Id
     @Column(name = "code", length = 10, nullable = false, updatable = false)
@@ -38,6 +40,11 @@ public class Url {
     @Column(name = "status", nullable = false)
     private Short status = 1;
 
+    // The code is assigned, not generated: without this, save() would merge a new Url over an existing row
+    // with the same code instead of inserting it and failing on the primary key.
+    @Transient
+    private boolean isNew = true;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) createdAt = Instant.now();
@@ -45,6 +52,22 @@ public class Url {
         if (status == null) status = 1;
     }
 
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return code;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
     public String getCode() {
         return code;
     }
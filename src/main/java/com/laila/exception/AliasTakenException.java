@@ -0,0 +1,7 @@
+package com.laila.exception;
+
+public class AliasTakenException extends RuntimeException {
+    public AliasTakenException(String alias) {
+        super("Alias already exists: " + alias);
+    }
+}
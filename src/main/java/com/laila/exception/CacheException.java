@@ -1,6 +1,10 @@
 package com.laila.exception;
 
 public class CacheException extends RuntimeException {
+    public CacheException(String message) {
+        super(message);
+    }
+
     public CacheException(String message, Throwable cause) {
         super(message, cause);
     }
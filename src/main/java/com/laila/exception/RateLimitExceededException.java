@@ -0,0 +1,21 @@
+package com.laila.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String scope, Duration retryAfter) {
+        super("Rate limit exceeded (" + scope + ")");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /** Whole seconds for the Retry-After header, rounded up so a client retrying on time is admitted. */
+    public long retryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
@@ -0,0 +1,38 @@
+package com.laila.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ClickRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO link_clicks (code, clicks, updated_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (code) DO UPDATE SET clicks = link_clicks.clicks + EXCLUDED.clicks, updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbc;
+
+    public ClickRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Adds the given increments in one JDBC batch and one transaction, so a failed flush applies none of them and can
+     * be retried whole. Codes are written in sorted order so two instances flushing overlapping codes lock rows in the
+     * same order and cannot deadlock.
+     */
+    @Transactional
+    public void incrementAll(Map<String, Long> increments, int batchSize) {
+        List<Map.Entry<String, Long>> rows = new ArrayList<>(increments.entrySet());
+        rows.sort(Map.Entry.comparingByKey());
+        jdbc.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, e) -> {
+            ps.setString(1, e.getKey());
+            ps.setLong(2, e.getValue());
+        });
+    }
+}
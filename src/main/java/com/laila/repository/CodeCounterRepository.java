@@ -0,0 +1,31 @@
+package com.laila.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class CodeCounterRepository {
+
+    private static final String RAISE_SQL =
+            "INSERT INTO code_counter (name, high) VALUES (?, ?) " +
+            "ON CONFLICT (name) DO UPDATE SET high = GREATEST(code_counter.high, EXCLUDED.high)";
+
+    private final JdbcTemplate jdbc;
+
+    public CodeCounterRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Highest value ever recorded for the counter, 0 if none. */
+    public long highWater(String name) {
+        List<Long> high = jdbc.queryForList("SELECT high FROM code_counter WHERE name = ?", Long.class, name);
+        return high.isEmpty() ? 0 : high.get(0);
+    }
+
+    /** Records {@code high} unless a higher value is already stored (never lowers the mark). */
+    public void raise(String name, long high) {
+        jdbc.update(RAISE_SQL, name, high);
+    }
+}
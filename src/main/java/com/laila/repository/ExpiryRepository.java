@@ -0,0 +1,56 @@
+package com.laila.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Repository
+public class ExpiryRepository {
+
+    // (expires_at, code) row comparison = keyset cursor; walks idx_short_urls_expires instead of OFFSET scans
+    private static final String FIND_SQL =
+            "SELECT code, expires_at, url_hash FROM short_urls " +
+            "WHERE expires_at <= ? AND (expires_at, code) > (?, ?) AND status = 1 " +
+            "ORDER BY expires_at, code LIMIT ?";
+
+    // status = 1 guard: sweeping twice (or racing a status change) is harmless; url_hash is freed for re-shortening
+    private static final String MARK_SQL =
+            "UPDATE short_urls SET status = 2, url_hash = NULL WHERE code = ? AND status = 1 AND expires_at <= ?";
+
+    private final JdbcTemplate jdbc;
+
+    public ExpiryRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Active rows expired at {@code now}, strictly after the (expiresAt, code) cursor, oldest first. */
+    public List<ExpiredRow> findExpired(Instant now, Instant afterExpiresAt, String afterCode, int limit) {
+        return jdbc.query(FIND_SQL, (rs, i) -> new ExpiredRow(
+                        rs.getString("code"),
+                        rs.getObject("expires_at", OffsetDateTime.class).toInstant(),
+                        rs.getString("url_hash")),
+                utc(now), utc(afterExpiresAt), afterCode, limit);
+    }
+
+    /** Marks the rows expired (status = 2) in one JDBC batch; returns how many were still active. */
+    public int markExpired(List<ExpiredRow> rows, Instant now) {
+        if (rows.isEmpty()) return 0;
+        int[] counts = jdbc.batchUpdate(MARK_SQL, rows, rows.size(), (ps, r) -> {
+            ps.setString(1, r.code());
+            ps.setObject(2, utc(now));
+        })[0];
+        int n = 0;
+        for (int c : counts) n += Math.max(c, 0);
+        return n;
+    }
+
+    private static OffsetDateTime utc(Instant i) {
+        return OffsetDateTime.ofInstant(i, ZoneOffset.UTC);
+    }
+
+    public record ExpiredRow(String code, Instant expiresAt, String urlHash) {}
+}
@@ -0,0 +1,38 @@
+package com.laila.repository;
+
+import com.laila.entities.Url;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/** Non-blocking reads of short_urls over R2DBC, for the reactive redirect path. */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlRepository {
+
+    private static final String FIND_SQL = "SELECT code, long_url, expires_at, status FROM short_urls WHERE code = $1";
+
+    private final DatabaseClient db;
+
+    public ReactiveUrlRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    public Mono<Url> findById(String code) {
+        return db.sql(FIND_SQL)
+                .bind(0, code)
+                .map((row, meta) -> {
+                    Url u = new Url();
+                    u.setCode(row.get("code", String.class));
+                    u.setLongUrl(row.get("long_url", String.class));
+                    OffsetDateTime expiresAt = row.get("expires_at", OffsetDateTime.class);
+                    u.setExpiresAt(expiresAt == null ? null : expiresAt.toInstant());
+                    u.setStatus(row.get("status", Short.class));
+                    return u;
+                })
+                .one();
+    }
+}
@@ -0,0 +1,7 @@
+package com.laila.repository;
+
+import java.time.Instant;
+
+/** The two columns a redirect needs, read without hydrating (or tracking) a Url entity. */
+public record ResolveTarget(String longUrl, Instant expiresAt) {
+}
@@ -0,0 +1,51 @@
+package com.laila.repository;
+
+import com.laila.entities.Url;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Repository
+public class UrlBatchRepository {
+
+    // ON CONFLICT DO NOTHING → a taken code (or url_hash) reports 0 rows instead of aborting the batch
+    private static final String INSERT_SQL =
+            "INSERT INTO short_urls (code, long_url, url_hash, created_at, expires_at, is_custom, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbc;
+
+    public UrlBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * JDBC-batched insert. Returns, per row in input order, true if inserted and false if a unique key was taken.
+     * Keep reWriteBatchedInserts off on the JDBC URL: it collapses the per-row counts this relies on.
+     */
+    public boolean[] insertIgnoringConflicts(List<Url> rows, int batchSize) {
+        int[][] counts = jdbc.batchUpdate(INSERT_SQL, rows, batchSize, (ps, u) -> {
+            ps.setString(1, u.getCode());
+            ps.setString(2, u.getLongUrl());
+            ps.setString(3, u.getUrlHash());
+            ps.setObject(4, utc(u.getCreatedAt()));
+            ps.setObject(5, utc(u.getExpiresAt()));
+            ps.setBoolean(6, Boolean.TRUE.equals(u.getCustom()));
+            ps.setShort(7, u.getStatus() != null ? u.getStatus() : 1);
+        });
+        boolean[] inserted = new boolean[rows.size()];
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int c : chunk) inserted[i++] = c != 0; // SUCCESS_NO_INFO (-2) counts as inserted
+        }
+        return inserted;
+    }
+
+    private static OffsetDateTime utc(Instant i) {
+        return i == null ? null : OffsetDateTime.ofInstant(i, ZoneOffset.UTC);
+    }
+}
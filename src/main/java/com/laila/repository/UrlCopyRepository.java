@@ -0,0 +1,186 @@
+package com.laila.repository;
+
+import com.laila.entities.Url;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk paths that bypass JPA: COPY into short_urls for imports, a server-side cursor for exports.
+ * COPY cannot skip conflicting rows, so each chunk is copied into a session-local staging table and moved over with
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING}; the caller resolves what did not make it.
+ */
+@Repository
+public class UrlCopyRepository {
+
+    private static final String COLUMNS = "code, long_url, url_hash, created_at, expires_at, is_custom, status";
+    // no constraints on the staging table: conflicts are only decided by the INSERT into short_urls
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE IF NOT EXISTS import_staging (code VARCHAR(10), long_url TEXT, url_hash VARCHAR(64), " +
+            "created_at TIMESTAMPTZ, expires_at TIMESTAMPTZ, is_custom BOOLEAN, status SMALLINT) ON COMMIT DELETE ROWS";
+    private static final String COPY_SQL = "COPY import_staging (" + COLUMNS + ") FROM STDIN (FORMAT csv)";
+    private static final String MOVE_SQL = "INSERT INTO short_urls (" + COLUMNS + ") SELECT " + COLUMNS +
+            " FROM import_staging ON CONFLICT DO NOTHING RETURNING code";
+    private static final String EXPORT_SQL = "SELECT " + COLUMNS + " FROM short_urls";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate cursor;
+    private final TransactionTemplate readOnlyTx;
+
+    public UrlCopyRepository(DataSource dataSource,
+                             PlatformTransactionManager txManager,
+                             @Value("${shortener.bulk.export.fetch-size:10000}") int fetchSize) {
+        this.dataSource = dataSource;
+        // inside a transaction the PG driver turns the fetch size into a server-side cursor instead of buffering all rows
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /** Import session on one primary connection (the staging table is per session). */
+    public CopySession openImport() {
+        try {
+            return new PgCopySession(dataSource.getConnection());
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not open an import connection", ex);
+        }
+    }
+
+    /**
+     * Streams every row of short_urls to {@code sink}, {@code fetchSize} rows per round trip. Read-only transaction:
+     * with read replicas configured the scan runs on one of them. Returns the row count.
+     */
+    public long exportAll(Consumer<Url> sink) {
+        Long rows = readOnlyTx.execute(status -> {
+            long[] n = {0};
+            cursor.query(EXPORT_SQL, rs -> {
+                sink.accept(toUrl(rs));
+                n[0]++;
+            });
+            return n[0];
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    public interface CopySession extends AutoCloseable {
+
+        /** COPYs the rows and commits the ones that took no unique key; returns their codes. */
+        Set<String> insert(List<Url> rows);
+
+        @Override
+        void close();
+    }
+
+    private static final class PgCopySession implements CopySession {
+
+        private final Connection conn;
+        private final CopyManager copy;
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream(1 << 20);
+
+        PgCopySession(Connection conn) throws SQLException {
+            try {
+                this.conn = conn;
+                this.copy = conn.unwrap(PGConnection.class).getCopyAPI();
+                conn.setAutoCommit(false);
+                try (Statement st = conn.createStatement()) {
+                    st.execute(CREATE_STAGING);
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.close();
+                throw ex;
+            }
+        }
+
+        @Override
+        public Set<String> insert(List<Url> rows) {
+            buf.reset();
+            for (Url u : rows) writeCsv(buf, u);
+            try {
+                copy.copyIn(COPY_SQL, new ByteArrayInputStream(buf.toByteArray()));
+                Set<String> inserted = new HashSet<>(rows.size() * 2);
+                try (PreparedStatement ps = conn.prepareStatement(MOVE_SQL); ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) inserted.add(rs.getString(1));
+                }
+                conn.commit(); // ON COMMIT DELETE ROWS empties the staging table for the next chunk
+                return inserted;
+            } catch (SQLException | IOException ex) {
+                rollback();
+                throw new IllegalStateException("COPY of " + rows.size() + " rows failed", ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // pool discards a broken connection
+            }
+        }
+
+        private void rollback() {
+            try {
+                conn.rollback();
+            } catch (SQLException ignored) {
+                // the connection is gone; close() returns it to the pool
+            }
+        }
+    }
+
+    // COPY csv: an unquoted empty field is NULL, so every text value is quoted
+    static void writeCsv(ByteArrayOutputStream out, Url u) {
+        StringBuilder line = new StringBuilder(u.getLongUrl().length() + 128);
+        quoted(line, u.getCode()).append(',');
+        quoted(line, u.getLongUrl()).append(',');
+        quoted(line, u.getUrlHash()).append(',');
+        line.append(u.getCreatedAt() == null ? "" : u.getCreatedAt().toString()).append(',');
+        line.append(u.getExpiresAt() == null ? "" : u.getExpiresAt().toString()).append(',');
+        line.append(Boolean.TRUE.equals(u.getCustom())).append(',');
+        line.append(u.getStatus() != null ? u.getStatus() : 1).append('\n');
+        out.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StringBuilder quoted(StringBuilder sb, String s) {
+        if (s == null) return sb;
+        return sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+
+    private static Url toUrl(ResultSet rs) throws SQLException {
+        Url u = new Url();
+        u.setCode(rs.getString(1));
+        u.setLongUrl(rs.getString(2));
+        u.setUrlHash(rs.getString(3));
+        u.setCreatedAt(instant(rs.getTimestamp(4)));
+        u.setExpiresAt(instant(rs.getTimestamp(5)));
+        u.setCustom(rs.getBoolean(6));
+        u.setStatus(rs.getShort(7));
+        return u;
+    }
+
+    private static Instant instant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
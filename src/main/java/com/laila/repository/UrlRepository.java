@@ -1,9 +1,46 @@
 package com.laila.repository;
 
 import com.laila.entities.Url;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
-public interface UrlRepository extends JpaRepository<Url, String> {
+public interface UrlRepository extends JpaRepository<Url, String>, UrlResolveQueries {
     Optional<Url> findByUrlHash(String urlHash); // optional idempotency
-}
\ No newline at end of file
+
+    List<Url> findByUrlHashIn(Collection<String> urlHashes);
+
+    // a dead (expired/deleted) row must not keep the unique url_hash of a URL that is shortened again
+    @Transactional
+    @Modifying
+    @Query("update Url u set u.urlHash = null where u.code = :code")
+    int releaseUrlHash(@Param("code") String code);
+
+    @Transactional
+    @Modifying
+    @Query("update Url u set u.status = :status where u.code = :code and u.status <> :status")
+    int updateStatus(@Param("code") String code, @Param("status") short status);
+
+    // leaving the active state frees url_hash in the same statement, like the expiry sweeper's MARK_SQL
+    @Transactional
+    @Modifying
+    @Query("update Url u set u.status = :status, u.urlHash = null where u.code = :code and u.status <> :status")
+    int retire(@Param("code") String code, @Param("status") short status);
+
+    // cursor-streamed; caller must hold an open (read-only) transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select u.code from Url u")
+    Stream<String> streamAllCodes();
+}
@@ -0,0 +1,16 @@
+package com.laila.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/** Custom fragment of {@link UrlRepository}, implemented with plain JDBC in {@link UrlResolveQueriesImpl}. */
+public interface UrlResolveQueries {
+
+    /**
+     * Long URL and expiry of an active (status = 1) code, without hydrating a Url entity. Deleted and swept rows
+     * never match; expiry itself is left to the caller. Read-only, so it routes to a replica when one is configured.
+     */
+    @Transactional(readOnly = true)
+    Optional<ResolveTarget> findResolveTarget(String code);
+}
@@ -0,0 +1,28 @@
+package com.laila.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+// picked up by Spring Data as the implementation of UrlResolveQueries (Impl suffix); ResolveQueryBenchmark
+// compares it with findById and with a JPQL constructor projection, both several times slower under Hibernate
+public class UrlResolveQueriesImpl implements UrlResolveQueries {
+
+    private static final String RESOLVE_SQL = "SELECT long_url, expires_at FROM short_urls WHERE code = ? AND status = 1";
+
+    private final JdbcTemplate jdbc;
+
+    public UrlResolveQueriesImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<ResolveTarget> findResolveTarget(String code) {
+        return jdbc.query(RESOLVE_SQL, rs -> {
+            if (!rs.next()) return Optional.empty();
+            OffsetDateTime expiresAt = rs.getObject("expires_at", OffsetDateTime.class);
+            return Optional.of(new ResolveTarget(rs.getString("long_url"), expiresAt == null ? null : expiresAt.toInstant()));
+        }, code);
+    }
+}
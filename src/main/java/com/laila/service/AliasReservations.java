@@ -0,0 +1,193 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.exception.AliasTakenException;
+import com.laila.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Custom aliases are claimed in Redis before the insert: {@code SET reserved:{alias} <token> NX PX pending-ttl}.
+ * A held key (another create in flight, or an alias already known to be taken) rejects the request without a DB
+ * round trip. After the insert the key becomes a long-lived "taken" marker; a failed insert releases it. Redis only
+ * short-circuits: the primary key on short_urls stays the authority, and when Redis is unavailable creates go straight
+ * to the DB. Reservations left behind by a crashed instance are reconciled against the DB by {@link #reconcile}.
+ */
+@Component
+public class AliasReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(AliasReservations.class);
+    static final String TAKEN = "taken";
+    static final String PENDING_KEY = "aliases:pending"; // reserved alias → reservation time (epoch ms)
+
+    private final StringRedisTemplate redis;
+    private final UrlRepository repo;
+    private final ReadYourWrites readYourWrites;
+    private final boolean enabled;
+    private final Duration pendingTtl;
+    private final Duration staleAfter;
+    private final Duration takenTtl;
+    private final int reconcileBatch;
+    private final LongSupplier clock;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder reconciled = new LongAdder();
+
+    @Autowired
+    public AliasReservations(StringRedisTemplate redis,
+                             UrlRepository repo,
+                             ReadYourWrites readYourWrites,
+                             @Value("${shortener.alias.reservation.enabled:true}") boolean enabled,
+                             @Value("${shortener.alias.reservation.pending-ttl:2m}") Duration pendingTtl,
+                             @Value("${shortener.alias.reservation.stale-after:30s}") Duration staleAfter,
+                             @Value("${shortener.alias.reservation.taken-ttl:7d}") Duration takenTtl,
+                             @Value("${shortener.alias.reservation.reconcile-batch-size:500}") int reconcileBatch) {
+        this(redis, repo, readYourWrites, enabled, pendingTtl, staleAfter, takenTtl, reconcileBatch, System::currentTimeMillis);
+    }
+
+    AliasReservations(StringRedisTemplate redis, UrlRepository repo, ReadYourWrites readYourWrites, boolean enabled,
+                      Duration pendingTtl, Duration staleAfter, Duration takenTtl, int reconcileBatch, LongSupplier clock) {
+        this.redis = redis;
+        this.repo = repo;
+        this.readYourWrites = readYourWrites;
+        this.enabled = enabled;
+        this.pendingTtl = pendingTtl;
+        this.staleAfter = staleAfter;
+        this.takenTtl = takenTtl;
+        this.reconcileBatch = reconcileBatch;
+        this.clock = clock;
+    }
+
+    /** No reservations: every alias goes to the DB; for tests and benchmarks. */
+    public static AliasReservations disabled() {
+        return new AliasReservations(null, null, null, false, Duration.ZERO, Duration.ZERO, Duration.ZERO, 1,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Claims the alias for one insert. Returns the token to {@link #release} it with, or null when Redis could not be
+     * asked (the DB decides alone).
+     *
+     * @throws AliasTakenException when the alias is taken or another create holds it
+     */
+    public String reserve(String alias) {
+        if (!enabled) return null;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired;
+        try {
+            acquired = redis.opsForValue().setIfAbsent(key(alias), token, pendingTtl);
+            if (Boolean.TRUE.equals(acquired)) redis.opsForZSet().add(PENDING_KEY, alias, clock.getAsLong());
+        } catch (RuntimeException ex) {
+            log.debug("Alias reservation for {} skipped; relying on the primary key", alias, ex);
+            return null;
+        }
+        if (!Boolean.TRUE.equals(acquired)) {
+            rejected.increment();
+            throw new AliasTakenException(alias);
+        }
+        return token;
+    }
+
+    /** The insert committed (or hit the primary key): remember the alias as taken. */
+    public void markTaken(String alias) {
+        if (!enabled) return;
+        try {
+            redis.executePipelined((RedisCallback<Object>) c -> {
+                c.stringCommands().set(bytes(key(alias)), bytes(TAKEN), Expiration.from(takenTtl),
+                        RedisStringCommands.SetOption.upsert());
+                c.zSetCommands().zRem(bytes(PENDING_KEY), bytes(alias));
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.debug("Could not mark alias {} taken; the reservation expires in {}", alias, pendingTtl, ex);
+        }
+    }
+
+    /** The insert failed for another reason: free the alias if the reservation is still ours. */
+    public void release(String alias, String token) {
+        if (!enabled || token == null) return;
+        try {
+            // no compare-and-delete without a script: another reservation can only appear once ours expired, and the
+            // worst case is then one create reaching the primary key check
+            if (token.equals(redis.opsForValue().get(key(alias)))) redis.delete(key(alias));
+            redis.opsForZSet().remove(PENDING_KEY, alias);
+        } catch (RuntimeException ex) {
+            log.debug("Could not release alias {}; the reservation expires in {}", alias, pendingTtl, ex);
+        }
+    }
+
+    /**
+     * Settles reservations older than stale-after (their instance died between reserve and markTaken/release):
+     * aliases that made it into short_urls become taken, the rest are freed. Returns how many were settled.
+     */
+    @Scheduled(fixedDelayString = "${shortener.alias.reservation.reconcile-interval:PT1M}")
+    public int reconcile() {
+        if (!enabled) return 0;
+        try {
+            Set<String> stale = redis.opsForZSet().rangeByScore(PENDING_KEY, 0,
+                    clock.getAsLong() - staleAfter.toMillis(), 0, reconcileBatch);
+            if (stale == null || stale.isEmpty()) return 0;
+            List<String> aliases = new ArrayList<>(stale);
+            // primary: the insert behind a reservation may have committed a moment ago
+            Set<String> inserted = readYourWrites.onPrimary(() -> repo.findAllById(aliases)).stream()
+                    .map(Url::getCode)
+                    .collect(Collectors.toSet());
+            List<String> holders = redis.opsForValue().multiGet(aliases.stream().map(AliasReservations::key).toList());
+            redis.executePipelined((RedisCallback<Object>) c -> {
+                for (int i = 0; i < aliases.size(); i++) {
+                    String alias = aliases.get(i);
+                    byte[] k = bytes(key(alias));
+                    if (inserted.contains(alias)) {
+                        c.stringCommands().set(k, bytes(TAKEN), Expiration.from(takenTtl), RedisStringCommands.SetOption.upsert());
+                    } else if (holders != null && holders.get(i) != null && !TAKEN.equals(holders.get(i))) {
+                        c.keyCommands().del(k);
+                    }
+                    c.zSetCommands().zRem(bytes(PENDING_KEY), bytes(alias));
+                }
+                return null;
+            });
+            reconciled.add(aliases.size());
+            log.info("Reconciled {} stale alias reservations ({} taken)", aliases.size(), inserted.size());
+            return aliases.size();
+        } catch (RuntimeException ex) {
+            log.warn("Alias reservation reconciliation failed; retrying next run", ex);
+            return 0;
+        }
+    }
+
+    /** Creates turned away by a held reservation, without touching the DB. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long reconciled() {
+        return reconciled.sum();
+    }
+
+    static String key(String alias) {
+        return "reserved:" + alias;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -16,6 +16,19 @@ public final class Base62Generator {
         return randomCode(length, RNG);
     }
 
+    /** Counter path: Base62 of a non-negative number, most significant digit first */
+    public static String encode(long value) {
+        if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+        if (value == 0) return "0";
+        char[] buf = new char[11]; // 62^11 > Long.MAX_VALUE
+        int pos = buf.length;
+        while (value > 0) {
+            buf[--pos] = ALPHABET.charAt((int) (value % 62));
+            value /= 62;
+        }
+        return new String(buf, pos, buf.length - pos);
+    }
+
     /** Testable path: injectable RNG */
     static String randomCode(int length, Random rng) {
         if (length <= 0) throw new IllegalArgumentException("length must be > 0");
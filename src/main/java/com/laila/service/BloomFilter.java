@@ -0,0 +1,120 @@
+package com.laila.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock-free Bloom filter over short codes (double hashing, Kirsch–Mitzenmacher).
+ * Bit i lives at word i / 64, mask 1L << (i % 64); {@link #toRedisBitmap()} maps it to Redis SETBIT order.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double fpp) {
+        this(expectedInsertions, fpp, true);
+    }
+
+    private BloomFilter(long expectedInsertions, double fpp, boolean withBits) {
+        if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be > 0");
+        if (fpp <= 0 || fpp >= 1) throw new IllegalArgumentException("fpp must be in (0, 1)");
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.words = new AtomicLongArray(withBits ? wordCount : 0);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /** Size and hash count of a filter with these settings, without its bits: only {@link #bitIndexes} works. */
+    static BloomFilter layout(long expectedInsertions, double fpp) {
+        return new BloomFilter(expectedInsertions, fpp, false);
+    }
+
+    void put(String code) {
+        long h1 = hash1(code), h2 = hash2(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1, h2, i);
+            int w = (int) (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            long cur;
+            while (((cur = words.get(w)) & mask) == 0) {
+                if (words.compareAndSet(w, cur, cur | mask)) break;
+            }
+        }
+    }
+
+    boolean mightContain(String code) {
+        long h1 = hash1(code), h2 = hash2(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Bit positions for code; identical across instances configured with the same size. */
+    long[] bitIndexes(String code) {
+        long h1 = hash1(code), h2 = hash2(h1);
+        long[] out = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            out[i] = index(h1, h2, i);
+        }
+        return out;
+    }
+
+    private long index(long h1, long h2, int i) {
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    private static long hash1(String code) {
+        return fmix64(fnv1a64(code));
+    }
+
+    private static long hash2(long h1) {
+        return fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    /** Bits as a Redis bitmap (bit 0 = most significant bit of byte 0). */
+    byte[] toRedisBitmap() {
+        byte[] out = new byte[(int) (bitCount / 8)];
+        for (int w = 0; w < words.length(); w++) {
+            long v = words.get(w);
+            if (v == 0) continue;
+            for (int b = 0; b < 64; b++) {
+                if ((v & (1L << b)) != 0) {
+                    long bit = (long) w * 64 + b;
+                    out[(int) (bit >>> 3)] |= (byte) (0x80 >>> (bit & 7));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static long fnv1a64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
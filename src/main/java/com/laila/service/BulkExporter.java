@@ -0,0 +1,54 @@
+package com.laila.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laila.dto.BulkRecordDto;
+import com.laila.repository.UrlCopyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+
+
+/**
+ * Dumps short_urls as CSV/JSONL (the import format, so an export can be re-imported) through a server-side cursor:
+ * rows are written as they arrive, fetch-size at a time, never collected.
+ */
+@Service
+public class BulkExporter {
+
+    private final UrlCopyRepository copyRepo;
+    private final ObjectMapper json;
+    private final Duration progressInterval;
+
+    public BulkExporter(UrlCopyRepository copyRepo,
+                        ObjectMapper json,
+                        @Value("${shortener.bulk.progress-interval:10s}") Duration progressInterval) {
+        this.copyRepo = copyRepo;
+        this.json = json;
+        this.progressInterval = progressInterval;
+    }
+
+    public BulkReport exportTo(Writer out, BulkFormat format) throws IOException {
+        BulkProgress progress = new BulkProgress("export", progressInterval, System::nanoTime);
+        format.writeHeader(out);
+        try {
+            copyRepo.exportAll(u -> {
+                progress.read++;
+                try {
+                    format.write(out, BulkRecordDto.from(u), json);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                progress.written++;
+                progress.maybeLog();
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        out.flush();
+        return progress.finish();
+    }
+}
@@ -0,0 +1,181 @@
+package com.laila.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laila.dto.BulkRecordDto;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/** Line formats of bulk import/export files; one {@link BulkRecordDto} per line either way, so memory stays flat. */
+public enum BulkFormat {
+
+    /** Header row naming {@link BulkRecordDto} fields (any order, unknown columns ignored), RFC 4180 quoting. */
+    CSV,
+    /** One JSON object per line. */
+    JSONL;
+
+    /** The named format, or by file extension when none is named ({@code .csv[.gz]}, anything else is JSONL). */
+    public static BulkFormat of(String name, Path file) {
+        if (StringUtils.hasText(name)) return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        String f = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return f.endsWith(".csv") || f.endsWith(".csv.gz") ? CSV : JSONL;
+    }
+
+    public Records open(BufferedReader in, ObjectMapper json) throws IOException {
+        return this == CSV ? new CsvRecords(in) : new JsonRecords(in, json);
+    }
+
+    public void writeHeader(Writer out) throws IOException {
+        if (this == CSV) out.write(String.join(",", BulkRecordDto.CSV_COLUMNS) + "\n");
+    }
+
+    public void write(Writer out, BulkRecordDto r, ObjectMapper json) throws IOException {
+        if (this == JSONL) {
+            out.write(json.writeValueAsString(r));
+            out.write('\n');
+            return;
+        }
+        StringBuilder line = new StringBuilder(r.longUrl().length() + 96);
+        csvField(line, r.code()).append(',');
+        csvField(line, r.longUrl()).append(',');
+        csvField(line, r.createdAt()).append(',');
+        csvField(line, r.expirationDate()).append(',');
+        csvField(line, r.custom()).append(',');
+        csvField(line, r.status()).append('\n');
+        out.write(line.toString());
+    }
+
+    /** A parsed line: the record, or why it could not be read. */
+    public record Line(long number, String raw, BulkRecordDto record, String error) {}
+
+    /** Reads one line per call; blank lines are skipped. */
+    public abstract static class Records {
+
+        final BufferedReader in;
+        long number; // file line number of the last line read
+
+        Records(BufferedReader in) {
+            this.in = in;
+        }
+
+        /** Next line, or null at the end of the input. */
+        public Line next() throws IOException {
+            String raw;
+            do {
+                raw = in.readLine();
+                if (raw == null) return null;
+                number++;
+            } while (raw.isBlank());
+            try {
+                return new Line(number, raw, parse(raw), null);
+            } catch (IllegalArgumentException | DateTimeParseException | JsonProcessingException ex) {
+                return new Line(number, raw, null, ex.getMessage());
+            }
+        }
+
+        abstract BulkRecordDto parse(String line) throws JsonProcessingException;
+    }
+
+    private static final class JsonRecords extends Records {
+
+        private final ObjectMapper json;
+
+        JsonRecords(BufferedReader in, ObjectMapper json) {
+            super(in);
+            this.json = json;
+        }
+
+        @Override
+        BulkRecordDto parse(String line) throws JsonProcessingException {
+            return json.readValue(line, BulkRecordDto.class);
+        }
+    }
+
+    private static final class CsvRecords extends Records {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRecords(BufferedReader in) throws IOException {
+            super(in);
+            String header;
+            do {
+                header = in.readLine();
+                if (header == null) return; // empty file
+                number++;
+            } while (header.isBlank());
+            List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            for (int i = 0; i < names.size(); i++) columns.put(names.get(i).trim(), i);
+            if (!columns.containsKey("longUrl")) throw new IllegalArgumentException("CSV header has no longUrl column");
+        }
+
+        @Override
+        BulkRecordDto parse(String line) {
+            List<String> f = split(line);
+            String custom = field(f, "custom");
+            String status = field(f, "status");
+            String expires = field(f, "expirationDate");
+            String created = field(f, "createdAt");
+            return new BulkRecordDto(field(f, "code"), field(f, "alias"), field(f, "longUrl"),
+                    expires == null ? null : Instant.parse(expires),
+                    created == null ? null : Instant.parse(created),
+                    custom == null ? null : Boolean.valueOf(custom),
+                    status == null ? null : Short.valueOf(status));
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer i = columns.get(name);
+            if (i == null || i >= fields.size()) return null;
+            String v = fields.get(i);
+            return v.isEmpty() ? null : v;
+        }
+    }
+
+    // one record per line: quoted fields may hold commas and "" but not line breaks
+    static List<String> split(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cur.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        out.add(cur.toString());
+        return out;
+    }
+
+    private static StringBuilder csvField(StringBuilder sb, Object value) {
+        if (value == null) return sb;
+        String s = value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return sb.append(s);
+        return sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,220 @@
+package com.laila.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laila.dto.BulkRecordDto;
+import com.laila.entities.Url;
+import com.laila.repository.UrlBatchRepository;
+import com.laila.repository.UrlCopyRepository;
+import com.laila.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+
+/**
+ * Streams a CSV/JSONL file into short_urls: lines are normalized like {@link UrlService} creates, then COPYed in
+ * chunks of chunk-size rows, so memory is bounded by one chunk whatever the file size. Rows the COPY could not insert
+ * are sorted out afterwards: generated codes that collided are redrawn, links that already exist (same code and URL,
+ * or a live link for the same URL) count as duplicates, so a re-run is harmless, and a kept code held by another URL is
+ * rejected. Rejected lines go to the rejects writer with their line number and reason.
+ */
+@Service
+public class BulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final Pattern CODE = Pattern.compile("[A-Za-z0-9_-]{1,10}"); // short_urls.code is VARCHAR(10)
+
+    private final UrlCopyRepository copyRepo;
+    private final UrlBatchRepository batchRepo;
+    private final UrlRepository repo;
+    private final CodeGenerator codeGenerator;
+    private final ShortCodeFilter codeFilter;
+    private final ReadYourWrites readYourWrites;
+    private final ObjectMapper json;
+    private final int chunkSize;
+    private final int jdbcBatchSize;
+    private final Duration progressInterval;
+
+    public BulkImporter(UrlCopyRepository copyRepo,
+                        UrlBatchRepository batchRepo,
+                        UrlRepository repo,
+                        CodeGenerator codeGenerator,
+                        ShortCodeFilter codeFilter,
+                        ReadYourWrites readYourWrites,
+                        ObjectMapper json,
+                        @Value("${shortener.bulk.import.chunk-size:10000}") int chunkSize,
+                        @Value("${shortener.batch.jdbc-batch-size:1000}") int jdbcBatchSize,
+                        @Value("${shortener.bulk.progress-interval:10s}") Duration progressInterval) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunk-size must be > 0");
+        this.copyRepo = copyRepo;
+        this.batchRepo = batchRepo;
+        this.repo = repo;
+        this.codeGenerator = codeGenerator;
+        this.codeFilter = codeFilter;
+        this.readYourWrites = readYourWrites;
+        this.json = json;
+        this.chunkSize = chunkSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    public BulkReport importFrom(BufferedReader in, BulkFormat format, Writer rejects) throws IOException {
+        BulkProgress progress = new BulkProgress("import", progressInterval, System::nanoTime);
+        BulkFormat.Records records = format.open(in, json);
+        Instant now = Instant.now();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try (UrlCopyRepository.CopySession session = copyRepo.openImport()) {
+            for (BulkFormat.Line line = records.next(); line != null; line = records.next()) {
+                progress.read++;
+                String error = line.error() != null ? line.error() : validate(line.record());
+                if (error != null) {
+                    reject(rejects, line, error, progress);
+                } else {
+                    chunk.add(toRow(line, now));
+                    if (chunk.size() == chunkSize) {
+                        flush(session, chunk, rejects, progress);
+                        chunk.clear();
+                    }
+                }
+                progress.maybeLog();
+            }
+            if (!chunk.isEmpty()) flush(session, chunk, rejects, progress);
+        }
+        return progress.finish();
+    }
+
+    private void flush(UrlCopyRepository.CopySession session, List<Row> chunk, Writer rejects, BulkProgress progress)
+            throws IOException {
+        Set<String> inserted = new HashSet<>(session.insert(chunk.stream().map(Row::url).toList()));
+        List<String> written = new ArrayList<>();
+        List<Row> pending = new ArrayList<>();
+        for (Row r : chunk) {
+            // remove: a code twice in one chunk was inserted once
+            if (inserted.remove(r.url.getCode())) written.add(r.url.getCode());
+            else pending.add(r);
+        }
+        try {
+            for (int attempt = 0; ; attempt++) {
+                pending = resolve(pending, rejects, progress);
+                if (pending.isEmpty()) return;
+                if (attempt == UrlService.MAX_RETRIES) {
+                    for (Row r : pending) reject(rejects, r.line, "Failed to create short code", progress);
+                    return;
+                }
+                boolean[] ok = batchRepo.insertIgnoringConflicts(pending.stream().map(Row::url).toList(), jdbcBatchSize);
+                List<Row> lost = new ArrayList<>();
+                for (int i = 0; i < ok.length; i++) {
+                    if (ok[i]) written.add(pending.get(i).url.getCode());
+                    else lost.add(pending.get(i));
+                }
+                pending = lost;
+            }
+        } finally {
+            progress.written += written.size();
+            // serving instances learn the codes through the shared filter bitmap, so they resolve right away
+            codeFilter.addAll(written);
+        }
+    }
+
+    /** Settles rows that took no unique key; returns the ones to insert again (with a new code or without url_hash). */
+    private List<Row> resolve(List<Row> collided, Writer rejects, BulkProgress progress) throws IOException {
+        if (collided.isEmpty()) return collided;
+        List<String> codes = collided.stream().map(r -> r.url.getCode()).distinct().toList();
+        List<String> hashes = collided.stream().map(r -> r.url.getUrlHash()).filter(StringUtils::hasText).distinct().toList();
+        Map<String, Url> byCode = readYourWrites.onPrimary(() -> repo.findAllById(codes)).stream()
+                .collect(Collectors.toMap(Url::getCode, Function.identity()));
+        Map<String, Url> byHash = hashes.isEmpty() ? Map.of() : readYourWrites.onPrimary(() -> repo.findByUrlHashIn(hashes))
+                .stream()
+                .collect(Collectors.toMap(Url::getUrlHash, Function.identity(), (a, b) -> a));
+
+        List<Row> retry = new ArrayList<>();
+        for (Row r : collided) {
+            Url u = r.url;
+            Url holder = byCode.get(u.getCode());
+            if (holder != null) {
+                if (r.generated) {
+                    u.setCode(codeGenerator.nextCode());
+                    progress.recoded++;
+                    retry.add(r);
+                } else if (holder.getLongUrl().equals(u.getLongUrl())) {
+                    progress.duplicates++; // imported before
+                } else {
+                    reject(rejects, r.line, "Code " + u.getCode() + " is taken by another URL", progress);
+                }
+                continue;
+            }
+            // the code is free, so the row lost on url_hash
+            Url sameUrl = u.getUrlHash() == null ? null : byHash.get(u.getUrlHash());
+            if (sameUrl != null) {
+                if (!UrlService.isResolvable(sameUrl)) {
+                    if (byHash.remove(u.getUrlHash()) != null) repo.releaseUrlHash(sameUrl.getCode()); // dead row still holds it
+                } else if (r.generated) {
+                    progress.duplicates++; // same answer as the API: the live link for this URL
+                    continue;
+                } else {
+                    u.setUrlHash(null); // a kept code stays a link of its own; the existing one keeps the hash
+                }
+            }
+            retry.add(r);
+        }
+        return retry;
+    }
+
+    private void reject(Writer rejects, BulkFormat.Line line, String reason, BulkProgress progress) throws IOException {
+        progress.rejected++;
+        if (rejects != null) {
+            rejects.write(line.number() + "\t" + reason + "\t" + line.raw() + "\n");
+        } else if (log.isDebugEnabled()) {
+            log.debug("Line {} rejected: {}", line.number(), reason);
+        }
+    }
+
+    static String validate(BulkRecordDto r) {
+        if (r == null || !StringUtils.hasText(r.longUrl())) return "longUrl is required";
+        if (UrlService.normalize(r.longUrl()).length() > MAX_URL_LENGTH) return "longUrl is too long";
+        if (StringUtils.hasText(r.code()) && StringUtils.hasText(r.alias())) return "code and alias are mutually exclusive";
+        String code = StringUtils.hasText(r.alias()) ? r.alias() : r.code();
+        if (StringUtils.hasText(code) && !CODE.matcher(code.trim()).matches()) {
+            return "code must be 1-10 letters, digits, _ or -";
+        }
+        if (r.status() != null && (r.status() < 1 || r.status() > 3)) return "status must be 1, 2 or 3";
+        return null;
+    }
+
+    private Row toRow(BulkFormat.Line line, Instant now) {
+        BulkRecordDto r = line.record();
+        boolean alias = StringUtils.hasText(r.alias());
+        boolean generated = !alias && !StringUtils.hasText(r.code());
+        boolean custom = alias || (!generated && Boolean.TRUE.equals(r.custom()));
+
+        Url e = new Url();
+        e.setCode(generated ? codeGenerator.nextCode() : (alias ? r.alias() : r.code()).trim());
+        e.setLongUrl(UrlService.normalize(r.longUrl()));
+        e.setCustom(custom);
+        e.setCreatedAt(r.createdAt() != null ? r.createdAt() : now);
+        e.setExpiresAt(r.expirationDate());
+        e.setStatus(r.status() != null ? r.status() : 1);
+        // like API creates: generated and kept codes of live links are findable by URL, aliases are not
+        if (!custom && e.getStatus() == 1) e.setUrlHash(UrlService.urlHash(e.getLongUrl(), e.getExpiresAt()));
+        return new Row(line, e, generated);
+    }
+
+    private record Row(BulkFormat.Line line, Url url, boolean generated) {}
+}
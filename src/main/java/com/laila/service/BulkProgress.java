@@ -0,0 +1,54 @@
+package com.laila.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/** Counters of one bulk run, logged every interval with the overall and the recent throughput. Single-threaded. */
+final class BulkProgress {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkProgress.class);
+
+    private final String operation;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final long started;
+    private long lastLogged;
+    private long readAtLastLog;
+
+    long read;
+    long written;
+    long duplicates;
+    long rejected;
+    long recoded;
+
+    BulkProgress(String operation, Duration interval, LongSupplier nanoClock) {
+        this.operation = operation;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.started = nanoClock.getAsLong();
+        this.lastLogged = started;
+    }
+
+    /** Logs when the interval has passed; cheap enough to call per row. */
+    void maybeLog() {
+        long now = nanoClock.getAsLong();
+        if (now - lastLogged < intervalNanos) return;
+        double recent = (read - readAtLastLog) * 1e9 / (now - lastLogged);
+        log.info("{} (now {} rows/s)", report(now), Math.round(recent));
+        lastLogged = now;
+        readAtLastLog = read;
+    }
+
+    BulkReport finish() {
+        BulkReport r = report(nanoClock.getAsLong());
+        log.info("Finished {}", r);
+        return r;
+    }
+
+    private BulkReport report(long now) {
+        return new BulkReport(operation, read, written, duplicates, rejected, recoded, Duration.ofNanos(now - started));
+    }
+}
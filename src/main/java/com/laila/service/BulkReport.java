@@ -0,0 +1,22 @@
+package com.laila.service;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk import or export. read = input lines (import) or rows scanned (export); written = rows inserted
+ * or lines written; duplicates = links that already existed; recoded = generated codes redrawn after a collision.
+ */
+public record BulkReport(String operation, long read, long written, long duplicates, long rejected, long recoded,
+                         Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : read * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d read, %d written, %d duplicates, %d rejected, %d recoded in %d s (%.0f rows/s)",
+                operation, read, written, duplicates, rejected, recoded, elapsed.toSeconds(), rowsPerSecond());
+    }
+}
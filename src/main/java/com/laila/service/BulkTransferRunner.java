@@ -0,0 +1,115 @@
+package com.laila.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Command-line mode: {@code --shortener.bulk.command=import|export --shortener.bulk.file=links.jsonl[.gz]} runs one
+ * bulk transfer instead of serving traffic, then exits (status 1 on failure). The application starts without a web
+ * server in this mode (see UrlShortenerApplication).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "shortener.bulk.command")
+public class BulkTransferRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTransferRunner.class);
+    private static final int BUFFER = 1 << 16;
+
+    private final BulkImporter importer;
+    private final BulkExporter exporter;
+    private final ConfigurableApplicationContext context;
+    private final String command;
+    private final Path file;
+    private final String format;
+    private final String rejectsFile;
+
+    public BulkTransferRunner(BulkImporter importer,
+                              BulkExporter exporter,
+                              ConfigurableApplicationContext context,
+                              @Value("${shortener.bulk.command}") String command,
+                              @Value("${shortener.bulk.file}") Path file,
+                              @Value("${shortener.bulk.format:}") String format,
+                              @Value("${shortener.bulk.rejects-file:}") String rejectsFile) {
+        this.importer = importer;
+        this.exporter = exporter;
+        this.context = context;
+        this.command = command;
+        this.file = file;
+        this.format = format;
+        this.rejectsFile = rejectsFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int status = 0;
+        try {
+            BulkReport report = switch (command) {
+                case "import" -> runImport();
+                case "export" -> runExport();
+                default -> throw new IllegalArgumentException("shortener.bulk.command must be import or export");
+            };
+            log.info("Bulk {} of {} done: {}", command, file, report);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Bulk {} of {} failed", command, file, ex);
+            status = 1;
+        }
+        int exit = status;
+        System.exit(SpringApplication.exit(context, () -> exit));
+    }
+
+    private BulkReport runImport() throws IOException {
+        Path rejects = StringUtils.hasText(rejectsFile) ? Path.of(rejectsFile) : Path.of(file + ".rejects");
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8), BUFFER);
+             Writer out = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            BulkReport report = importer.importFrom(in, BulkFormat.of(format, file), out);
+            if (report.rejected() > 0) log.warn("{} lines rejected, see {}", report.rejected(), rejects);
+            return report;
+        }
+    }
+
+    private BulkReport runExport() throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(create(file), StandardCharsets.UTF_8), BUFFER)) {
+            return exporter.exportTo(out, BulkFormat.of(format, file));
+        }
+    }
+
+    private static InputStream open(Path p) throws IOException {
+        InputStream in = Files.newInputStream(p);
+        return gzipped(p) ? new GZIPInputStream(in, BUFFER) : in;
+    }
+
+    private static OutputStream create(Path p) throws IOException {
+        OutputStream out = Files.newOutputStream(p);
+        return gzipped(p) ? new GZIPOutputStream(out, BUFFER) : out;
+    }
+
+    private static boolean gzipped(Path p) {
+        return p.getFileName().toString().endsWith(".gz");
+    }
+}
@@ -0,0 +1,99 @@
+package com.laila.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * One-off move from the {@code code:{code}} keyspace to the bucketed layout (shortener.cache.layout=buckets):
+ * SCANs the old keys and hands them to {@link UrlCache#migrateKeys} in batches, keeping each entry's remaining TTL.
+ * While it runs, bucket misses fall back to the old key, so the move does not turn into DB load.
+ * Every step is idempotent; running it on several instances at once only repeats work.
+ */
+@Component
+@ConditionalOnProperty(name = "shortener.cache.migrate-layout", havingValue = "true")
+public class CacheLayoutMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheLayoutMigrator.class);
+
+    private final StringRedisTemplate redis;
+    private final UrlCache cache;
+    private final int batchSize;
+
+    public CacheLayoutMigrator(StringRedisTemplate redis,
+                               UrlCache cache,
+                               @Value("${shortener.cache.migrate-batch-size:500}") int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("migrate-batch-size must be > 0");
+        if (!cache.bucketed()) throw new IllegalStateException("shortener.cache.migrate-layout needs shortener.cache.layout=buckets");
+        this.redis = redis;
+        this.cache = cache;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        Thread t = new Thread(this::migrate, "cache-layout-migration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Returns how many keys were moved. */
+    public long migrate() {
+        long started = System.nanoTime();
+        long moved = 0;
+        ScanOptions options = ScanOptions.scanOptions().match("code:*").count(batchSize).build();
+        try {
+            RedisConnectionFactory cf = redis.getRequiredConnectionFactory();
+            if (cf instanceof LettuceConnectionFactory l && l.isClusterAware()) {
+                // SCAN covers one node; walk every primary
+                try (RedisClusterConnection cluster = cf.getClusterConnection()) {
+                    for (RedisClusterNode node : cluster.clusterGetNodes()) {
+                        if (!node.isMaster()) continue;
+                        try (Cursor<byte[]> keys = cluster.scan(node, options)) {
+                            moved += drain(keys, k -> new String(k, StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+            } else {
+                try (Cursor<String> keys = redis.scan(options)) {
+                    moved += drain(keys, k -> k);
+                }
+            }
+            log.info("Cache layout migration moved {} keys into buckets in {} ms; shortener.cache.migrate-layout can be turned off",
+                    moved, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Cache layout migration stopped after {} keys; rerun to continue", moved, ex);
+        }
+        return moved;
+    }
+
+    private <K> long drain(Cursor<K> keys, Function<K, String> toString) {
+        long moved = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        while (keys.hasNext()) {
+            batch.add(toString.apply(keys.next()).substring("code:".length()));
+            if (batch.size() == batchSize) {
+                moved += cache.migrateKeys(batch);
+                batch.clear();
+            }
+        }
+        return moved + cache.migrateKeys(batch);
+    }
+}
@@ -0,0 +1,72 @@
+package com.laila.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Purge hook for edge caches: on every {@link LinkStatusChangedEvent}, fires one async request at
+ * shortener.cdn.purge-url with {code} substituted. Disabled when no URL is configured; failures are only
+ * logged, since edges still drop the redirect once its max-age runs out.
+ */
+@Component
+public class CdnPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(CdnPurger.class);
+
+    private final String urlTemplate;
+    private final String method;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public CdnPurger(@Value("${shortener.cdn.purge-url:}") String urlTemplate,
+                     @Value("${shortener.cdn.purge-method:POST}") String method,
+                     @Value("${shortener.cdn.purge-timeout:5s}") Duration timeout) {
+        this.urlTemplate = urlTemplate;
+        this.method = method;
+        this.timeout = timeout;
+        this.http = StringUtils.hasText(urlTemplate)
+                ? HttpClient.newBuilder().connectTimeout(timeout).build()
+                : null;
+    }
+
+    @EventListener
+    public void onStatusChanged(LinkStatusChangedEvent event) {
+        purge(event.code());
+    }
+
+    /** Completes with the purge endpoint's status code, or 0 when purging is disabled or the call failed. */
+    public CompletableFuture<Integer> purge(String code) {
+        if (http == null) return CompletableFuture.completedFuture(0);
+        HttpRequest req = HttpRequest.newBuilder(purgeUri(urlTemplate, code))
+                .timeout(timeout)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return http.sendAsync(req, HttpResponse.BodyHandlers.discarding())
+                .thenApply(res -> {
+                    if (res.statusCode() >= 300) log.warn("CDN purge of {} returned {}", code, res.statusCode());
+                    return res.statusCode();
+                })
+                .exceptionally(ex -> {
+                    log.warn("CDN purge of {} failed", code, ex);
+                    return 0;
+                });
+    }
+
+    static URI purgeUri(String template, String code) {
+        return URI.create(template.replace("{code}", URLEncoder.encode(code, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.laila.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Count-based circuit breaker: trips when at least {@code failureRate} of the last {@code window} calls failed
+ * (after {@code minCalls}), short-circuits every call for {@code openFor}, then lets a single trial call through.
+ * Its success closes the breaker with a fresh window, its failure opens it again. Recording is lock-free.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int window;
+    private final double failureRate;
+    private final int minCalls;
+    private final long openForNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicIntegerArray outcomes; // 1 = failure, ring over the last `window` calls
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean open;
+    private volatile long openedAt;
+
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    public CircuitBreaker(int window, double failureRate, int minCalls, Duration openFor) {
+        this(window, failureRate, minCalls, openFor, System::nanoTime);
+    }
+
+    CircuitBreaker(int window, double failureRate, int minCalls, Duration openFor, LongSupplier nanoClock) {
+        if (window <= 0) throw new IllegalArgumentException("window must be > 0");
+        if (failureRate <= 0 || failureRate > 1) throw new IllegalArgumentException("failure-rate must be in (0, 1]");
+        this.window = window;
+        this.failureRate = failureRate;
+        this.minCalls = Math.max(1, minCalls);
+        this.openForNanos = openFor.toNanos();
+        this.nanoClock = nanoClock;
+        this.outcomes = new AtomicIntegerArray(window);
+    }
+
+    /** False while open (counted as short-circuited); true when closed, or for the one trial call once open-for elapsed. */
+    public boolean allowRequest() {
+        if (!open) return true;
+        if (nanoClock.getAsLong() - openedAt >= openForNanos && probing.compareAndSet(false, true)) return true;
+        shortCircuited.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        if (open) {
+            if (probing.get()) close();
+            return;
+        }
+        record(0);
+    }
+
+    public void onFailure() {
+        if (open) {
+            if (probing.compareAndSet(true, false)) openedAt = nanoClock.getAsLong(); // trial failed: another full open period
+            return;
+        }
+        int failed = record(1);
+        long seen = Math.min(calls.get(), window);
+        if (seen >= minCalls && failed >= failureRate * seen) trip();
+    }
+
+    public State state() {
+        if (!open) return State.CLOSED;
+        return probing.get() || nanoClock.getAsLong() - openedAt >= openForNanos ? State.HALF_OPEN : State.OPEN;
+    }
+
+    /** Calls rejected without reaching the protected resource. */
+    public long shortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    /** Times the breaker went from closed to open. */
+    public long trips() {
+        return trips.sum();
+    }
+
+    private int record(int failure) {
+        int slot = (int) (calls.getAndIncrement() % window);
+        int previous = outcomes.getAndSet(slot, failure);
+        return failures.addAndGet(failure - previous);
+    }
+
+    private synchronized void trip() {
+        if (open) return;
+        openedAt = nanoClock.getAsLong();
+        open = true;
+        trips.increment();
+    }
+
+    private synchronized void close() {
+        for (int i = 0; i < window; i++) outcomes.set(i, 0);
+        failures.set(0);
+        calls.set(0);
+        open = false;
+        probing.set(false);
+    }
+}
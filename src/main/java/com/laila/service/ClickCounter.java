@@ -0,0 +1,125 @@
+package com.laila.service;
+
+import com.laila.repository.ClickRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Click counting off the redirect path: {@link #record} only enqueues the code into a bounded lock-free
+ * buffer, striped by thread (overflow is dropped and counted). A scheduled flush folds the buffer per code and upserts the
+ * increments into link_clicks in one JDBC batch. Increments from a failed flush are kept for the next one; while the
+ * DB stays down they are held for at most buffer-capacity distinct codes, and clicks on further codes are dropped.
+ */
+@Component
+public class ClickCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickCounter.class);
+
+    private final ClickRepository repo;
+    private final boolean enabled;
+    private final int jdbcBatchSize;
+
+    private final Stripe[] stripes;       // one queue per thread slot, so redirect threads rarely share a tail
+    private final int stripeCapacity;
+    private final int maxUnflushedCodes;
+    private final Map<String, Long> unflushed = new HashMap<>(); // guarded by this
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+
+    public ClickCounter(ClickRepository repo,
+                        @Value("${shortener.clicks.enabled:true}") boolean enabled,
+                        @Value("${shortener.clicks.buffer-capacity:100000}") int capacity,
+                        @Value("${shortener.clicks.jdbc-batch-size:1000}") int jdbcBatchSize) {
+        if (capacity <= 0) throw new IllegalArgumentException("buffer-capacity must be > 0");
+        this.repo = repo;
+        this.enabled = enabled;
+        this.jdbcBatchSize = jdbcBatchSize;
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+        n = Math.min(n, capacity);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) stripes[i] = new Stripe();
+        this.stripeCapacity = capacity / n;
+        this.maxUnflushedCodes = capacity;
+    }
+
+    /** Hot path: never blocks, never touches the DB. */
+    public void record(String code) {
+        if (!enabled) return;
+        Stripe s = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        if (s.size.getAndIncrement() >= stripeCapacity) {
+            s.size.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        s.queue.offer(code);
+        accepted.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.clicks.flush-interval:PT1S}")
+    public void flush() {
+        synchronized (this) {
+            for (Stripe s : stripes) {
+                String code;
+                while ((code = s.queue.poll()) != null) {
+                    s.size.decrementAndGet();
+                    if (unflushed.size() >= maxUnflushedCodes && !unflushed.containsKey(code)) {
+                        dropped.increment(); // failed flushes piled up: keep what is held, lose the new code
+                        continue;
+                    }
+                    unflushed.merge(code, 1L, Long::sum);
+                }
+            }
+            if (unflushed.isEmpty()) return;
+
+            long total = unflushed.values().stream().mapToLong(Long::longValue).sum();
+            try {
+                repo.incrementAll(unflushed, jdbcBatchSize);
+                flushed.add(total);
+                unflushed.clear();
+            } catch (RuntimeException ex) {
+                log.warn("Click flush failed for {} codes; retrying on the next tick", unflushed.size(), ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long flushed() {
+        return flushed.sum();
+    }
+
+    public int buffered() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.size.get();
+        return n;
+    }
+
+    private static final class Stripe {
+        final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+}
@@ -0,0 +1,8 @@
+package com.laila.service;
+
+/** Source of candidate short codes for auto-generated links; selected by shortener.codegen.strategy. */
+public interface CodeGenerator {
+
+    /** Next candidate code. Callers still rely on the DB primary key to reject the rare clash (e.g. with an alias). */
+    String nextCode();
+}
@@ -0,0 +1,61 @@
+package com.laila.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+/**
+ * Bounds concurrent DB work to the Hikari pool size. With virtual threads there is no request-thread
+ * ceiling any more, so thousands of callers would otherwise queue inside Hikari and hit its connection
+ * timeout; here they park cheaply on a fair semaphore instead. A no-op unless virtual-thread mode is on.
+ */
+@Component
+public class DbGate {
+
+    private final Semaphore permits;   // null → pass-through
+    private final long timeoutNanos;
+
+    public DbGate(@Value("${shortener.threads.virtual:false}") boolean virtualThreads,
+                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                  @Value("${spring.datasource.hikari.connection-timeout:30000ms}") Duration timeout) {
+        this.permits = virtualThreads ? new Semaphore(poolSize, true) : null;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /** Pass-through gate, for tests and benchmarks. */
+    public static DbGate unbounded() {
+        return new DbGate(false, 0, Duration.ZERO);
+    }
+
+    public <T> T call(Supplier<T> work) {
+        if (permits == null) return work.get();
+        acquire();
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Permits currently free; -1 when the gate is a pass-through. */
+    public int available() {
+        return permits == null ? -1 : permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new TransientDataAccessResourceException("Timed out waiting for a DB permit");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessResourceException("Interrupted waiting for a DB permit", ex);
+        }
+    }
+}
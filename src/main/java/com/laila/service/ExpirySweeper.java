@@ -0,0 +1,189 @@
+package com.laila.service;
+
+import com.laila.exception.CacheException;
+import com.laila.repository.ExpiryRepository;
+import com.laila.repository.ExpiryRepository.ExpiredRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Background expiry: walks idx_short_urls_expires in keyset-paginated batches, marks expired rows status = 2
+ * (freeing their url_hash) and drops their Redis keys with one pipelined DEL per batch, publishing a
+ * {@link LinkStatusChangedEvent} per link as {@link LinkStatusService} does. One instance sweeps at a
+ * time, holding a Redis lease (SET NX PX) that is renewed per batch. Between batches the sweeper sleeps so DB time
+ * stays within shortener.sweeper.db-budget of wall-clock time. The cursor is kept in Redis, so a run resumes where
+ * the last one stopped. It records when its pass began, and a pass older than cursor-ttl starts over from the oldest
+ * expiry: rows that were already behind the cursor when inserted (past-dated creates, imports) are swept by that
+ * full pass. Writing the cursor on every batch never postpones it.
+ */
+@Component
+public class ExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpirySweeper.class);
+    static final String LEASE_KEY = "sweeper:expiry:lease";
+    static final String CURSOR_KEY = "sweeper:expiry:cursor";
+    private static final Instant START = Instant.EPOCH;
+
+    private final ExpiryRepository repo;
+    private final UrlCache cache;
+    private final StringRedisTemplate redis;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxRowsPerRun;
+    private final double dbBudget;
+    private final Duration lease;
+    private final Duration cursorTtl;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    private final LongAdder swept = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+
+    public ExpirySweeper(ExpiryRepository repo,
+                         UrlCache cache,
+                         StringRedisTemplate redis,
+                         ApplicationEventPublisher events,
+                         @Value("${shortener.sweeper.enabled:true}") boolean enabled,
+                         @Value("${shortener.sweeper.batch-size:500}") int batchSize,
+                         @Value("${shortener.sweeper.max-rows-per-run:100000}") long maxRowsPerRun,
+                         @Value("${shortener.sweeper.db-budget:0.2}") double dbBudget,
+                         @Value("${shortener.sweeper.lease:2m}") Duration lease,
+                         @Value("${shortener.sweeper.cursor-ttl:24h}") Duration cursorTtl) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batch-size must be > 0");
+        if (dbBudget <= 0 || dbBudget > 1) throw new IllegalArgumentException("db-budget must be in (0, 1]");
+        this.repo = repo;
+        this.cache = cache;
+        this.redis = redis;
+        this.events = events;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.dbBudget = dbBudget;
+        this.lease = lease;
+        this.cursorTtl = cursorTtl;
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.sweeper.interval:PT5M}", initialDelayString = "${shortener.sweeper.initial-delay:PT1M}")
+    public void scheduledSweep() {
+        if (!enabled) return;
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            log.warn("Expiry sweep failed; retrying next interval", ex);
+        }
+    }
+
+    /** One sweep run; returns rows marked expired, or -1 when another instance holds the lease. */
+    public long sweep() {
+        if (!Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(LEASE_KEY, owner, lease))) return -1;
+        long started = System.nanoTime();
+        long marked = 0;
+        try {
+            Instant now = Instant.now();
+            Cursor cursor = readCursor(now);
+            while (marked < maxRowsPerRun) {
+                long dbStart = System.nanoTime();
+                List<ExpiredRow> rows = repo.findExpired(now, cursor.expiresAt, cursor.code, batchSize);
+                if (rows.isEmpty()) break;
+                marked += repo.markExpired(rows, now);
+                long dbNanos = System.nanoTime() - dbStart;
+                ExpiredRow last = rows.get(rows.size() - 1);
+                cursor = new Cursor(last.expiresAt(), last.code(), cursor.passStarted);
+                writeCursor(cursor);
+
+                evict(rows);
+                for (ExpiredRow r : rows) events.publishEvent(new LinkStatusChangedEvent(r.code(), LinkStatusService.EXPIRED));
+
+                if (rows.size() < batchSize || !renewLease()) break;
+                throttle(dbNanos);
+            }
+        } finally {
+            releaseLease();
+        }
+        runs.increment();
+        swept.add(marked);
+        if (marked > 0) {
+            log.info("Expiry sweep marked {} links expired in {} ms", marked, (System.nanoTime() - started) / 1_000_000);
+        }
+        return marked;
+    }
+
+    public long swept() {
+        return swept.sum();
+    }
+
+    public long runs() {
+        return runs.sum();
+    }
+
+    // the rows are already marked: a failed eviction must not stop the sweep. Cache TTLs never outlive a link's expiry,
+    // so what is left behind still ages out
+    private void evict(List<ExpiredRow> rows) {
+        try {
+            cache.deleteAll(rows.stream().map(ExpiredRow::code).toList(),
+                    rows.stream().map(ExpiredRow::urlHash).filter(Objects::nonNull).toList());
+        } catch (CacheException ex) {
+            log.warn("Could not evict {} expired links from the cache; they age out with their TTL", rows.size(), ex);
+        }
+    }
+
+    // sleep long enough that dbNanos is only dbBudget of the elapsed time
+    private void throttle(long dbNanos) {
+        long pauseNanos = (long) (dbNanos * (1 - dbBudget) / dbBudget);
+        if (pauseNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // no compare-and-set without a script: the check-then-act window is harmless because marking is idempotent
+    private boolean renewLease() {
+        if (!owner.equals(redis.opsForValue().get(LEASE_KEY))) return false;
+        return Boolean.TRUE.equals(redis.expire(LEASE_KEY, lease));
+    }
+
+    private void releaseLease() {
+        try {
+            if (owner.equals(redis.opsForValue().get(LEASE_KEY))) redis.delete(LEASE_KEY);
+        } catch (RuntimeException ex) {
+            log.debug("Could not release sweeper lease; it expires in {}", lease, ex);
+        }
+    }
+
+    // "expiresAt code passStarted"; a cursor without its pass start predates it and counts as overdue
+    private Cursor readCursor(Instant now) {
+        String v = redis.opsForValue().get(CURSOR_KEY);
+        String[] parts = v == null ? new String[0] : v.split(" ");
+        if (parts.length < 2) return new Cursor(START, "", now);
+        Instant passStarted = parts.length > 2 ? Instant.parse(parts[2]) : START;
+        if (!now.isBefore(passStarted.plus(cursorTtl))) {
+            log.info("Expiry sweep pass started at {} is over {} old; starting a full pass", passStarted, cursorTtl);
+            return new Cursor(START, "", now);
+        }
+        return new Cursor(Instant.parse(parts[0]), parts[1], passStarted);
+    }
+
+    // the key's TTL only cleans up after sweeping stops; the full pass is driven by passStarted
+    private void writeCursor(Cursor c) {
+        redis.opsForValue().set(CURSOR_KEY, c.expiresAt + " " + c.code + " " + c.passStarted, cursorTtl.multipliedBy(2));
+    }
+
+    private record Cursor(Instant expiresAt, String code, Instant passStarted) {}
+}
@@ -0,0 +1,123 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.repository.UrlRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+/**
+ * Keeps the redirect tier warm across deploys and Redis failovers: the hottest L1 codes are snapshotted
+ * to a local file on a timer (and on shutdown). At startup, before the app reports ready, the snapshot is
+ * loaded back with batched {@code WHERE code IN (...)} reads and written to Redis + L1 in pipelined round trips.
+ */
+@Component
+public class HotKeyWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyWarmup.class);
+
+    private final UrlRepository repo;
+    private final UrlCache cache;
+    private final LocalUrlCache local;
+    private final boolean enabled;
+    private final Path file;
+    private final int snapshotSize;
+    private final int batchSize;
+
+    public HotKeyWarmup(UrlRepository repo,
+                        UrlCache cache,
+                        LocalUrlCache local,
+                        @Value("${shortener.warmup.enabled:true}") boolean enabled,
+                        @Value("${shortener.warmup.snapshot-file:${java.io.tmpdir}/shortener-hot-codes.txt}") Path file,
+                        @Value("${shortener.warmup.snapshot-size:10000}") int snapshotSize,
+                        @Value("${shortener.warmup.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batch-size must be > 0");
+        this.repo = repo;
+        this.cache = cache;
+        this.local = local;
+        this.enabled = enabled;
+        this.file = file;
+        this.snapshotSize = snapshotSize;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) warmUp();
+    }
+
+    /** Loads the snapshot into Redis and L1; returns how many codes were warmed. Never fails startup. */
+    public int warmUp() {
+        long started = System.nanoTime();
+        List<String> codes = readSnapshot();
+        if (codes.isEmpty()) return 0;
+
+        int warmed = 0;
+        try {
+            for (int from = 0; from < codes.size(); from += batchSize) {
+                List<String> chunk = codes.subList(from, Math.min(codes.size(), from + batchSize));
+                List<Url> live = repo.findAllById(chunk).stream()
+                        .filter(UrlService::isResolvable)
+                        .toList();
+                cache.setAll(live);
+                warmed += live.size();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cache warm-up stopped after {} codes", warmed, ex);
+        }
+        log.info("Cache warm-up: {} of {} snapshot codes in {} ms", warmed, codes.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return warmed;
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.warmup.snapshot-interval:PT5M}",
+            initialDelayString = "${shortener.warmup.snapshot-interval:PT5M}")
+    public void snapshot() {
+        if (!enabled) return;
+        List<String> hottest = local.hottest(snapshotSize);
+        if (hottest.isEmpty()) return; // keep the previous snapshot rather than replacing it with nothing
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "hot-codes", ".tmp");
+            Files.write(tmp, hottest, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            log.warn("Could not write hot-key snapshot {}", file, ex);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private List<String> readSnapshot() {
+        if (!Files.isReadable(file)) return List.of();
+        List<String> codes = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.map(String::trim)
+                    .filter(l -> !l.isEmpty())
+                    .limit(snapshotSize)
+                    .forEach(codes::add);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not read hot-key snapshot {}", file, ex);
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,153 @@
+package com.laila.service;
+
+import com.laila.repository.CodeCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Counter strategy from the README: each instance leases a block of ids with one Redis INCRBY,
+ * hands them out from memory with a single atomic increment, and leases the next block in the
+ * background once the current one runs low. Ids are offset so every code has at least min-length chars.
+ * Codes are sequential (guessable); prefer the random strategy where that matters.
+ * <p>
+ * The end of every leased block is recorded in the DB before any of its ids is used. A lease that comes back below
+ * that high-water mark means the Redis key was lost (flush, failover without persistence, new instance), so the
+ * counter is raised past the mark instead of re-issuing codes that exist. Codes that still collide (a custom alias
+ * of the same length) fail the insert and are retried by {@link UrlService}.
+ */
+@Component
+@ConditionalOnProperty(name = "shortener.codegen.strategy", havingValue = "leased")
+public class LeasedBlockCodeGenerator implements CodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedBlockCodeGenerator.class);
+    static final String COUNTER_KEY = "counter:short_urls";
+    private static final long MAX_CODE_VALUE = pow62(10) - 1; // short_urls.code is VARCHAR(10)
+    // compare-and-raise: never lowers a counter another instance has already moved past the floor
+    private static final RedisScript<Long> RAISE = new DefaultRedisScript<>(
+            "if tonumber(redis.call('GET', KEYS[1]) or '0') < tonumber(ARGV[1]) then " +
+            "redis.call('SET', KEYS[1], ARGV[1]) return 1 end return 0", Long.class);
+
+    private final StringRedisTemplate redis;
+    private final CodeCounterRepository counters;
+    private final long blockSize;
+    private final long refillAt;  // ids left in the current block when the next lease starts
+    private final long offset;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+    private final AtomicReference<CompletableFuture<Block>> next = new AtomicReference<>();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "code-block-lease");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LeasedBlockCodeGenerator(StringRedisTemplate redis,
+                                    CodeCounterRepository counters,
+                                    @Value("${shortener.codegen.leased.block-size:1000}") long blockSize,
+                                    @Value("${shortener.codegen.leased.refill-ratio:0.2}") double refillRatio,
+                                    @Value("${shortener.codegen.leased.min-length:7}") int minLength) {
+        if (blockSize <= 0) throw new IllegalArgumentException("block-size must be > 0");
+        if (minLength < 1 || minLength > 10) throw new IllegalArgumentException("min-length must be 1..10");
+        this.redis = redis;
+        this.counters = counters;
+        this.blockSize = blockSize;
+        this.refillAt = Math.max(1, (long) (blockSize * refillRatio));
+        this.offset = minLength == 1 ? 0 : pow62(minLength - 1);
+    }
+
+    @Override
+    public String nextCode() {
+        while (true) {
+            Block b = current.get();
+            long id = b.next.getAndIncrement();
+            if (id < b.end) {
+                if (b.end - id == refillAt) prefetch();
+                return encode(id);
+            }
+            advance(b);
+        }
+    }
+
+    private String encode(long id) {
+        long value = offset + id;
+        if (value > MAX_CODE_VALUE) throw new IllegalStateException("Counter exhausted the 10-char code space");
+        return Base62Generator.encode(value);
+    }
+
+    /** Slow path, once per block: swap in the prefetched block (or lease one inline if none is ready). */
+    private synchronized void advance(Block exhausted) {
+        if (current.get() != exhausted) return; // another thread already moved on
+        CompletableFuture<Block> pending = next.getAndSet(null);
+        Block fresh = null;
+        if (pending != null) {
+            try {
+                fresh = pending.get(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                log.warn("Background block lease failed; leasing inline", ex);
+            }
+        }
+        current.set(fresh != null ? fresh : lease());
+    }
+
+    private void prefetch() {
+        CompletableFuture<Block> f = new CompletableFuture<>();
+        if (next.compareAndSet(null, f)) {
+            refiller.execute(() -> {
+                try {
+                    f.complete(lease());
+                } catch (RuntimeException ex) {
+                    f.completeExceptionally(ex);
+                }
+            });
+        }
+    }
+
+    private Block lease() {
+        long floor = counters.highWater(COUNTER_KEY);
+        while (true) {
+            Long high = redis.opsForValue().increment(COUNTER_KEY, blockSize);
+            if (high == null) throw new IllegalStateException("INCRBY returned no value for " + COUNTER_KEY);
+            if (high - blockSize >= floor) {
+                counters.raise(COUNTER_KEY, high);
+                return new Block(high - blockSize, high);
+            }
+            log.warn("{} leased up to {}, below its high-water mark {}; the key was lost, raising it",
+                    COUNTER_KEY, high, floor);
+            redis.execute(RAISE, List.of(COUNTER_KEY), Long.toString(floor));
+        }
+    }
+
+    private static long pow62(int exp) {
+        long v = 1;
+        for (int i = 0; i < exp; i++) v *= 62;
+        return v;
+    }
+
+    /** Ids in [next, end) are still free. */
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.laila.service;
+
+/** Published after a link's status column changed (1 = active); listeners purge anything that cached the old answer. */
+public record LinkStatusChangedEvent(String code, short status) {
+}
@@ -0,0 +1,59 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.exception.CacheException;
+import com.laila.exception.EntityNotFoundException;
+import com.laila.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+
+/**
+ * Status changes (delete, restore, expire) for existing links. Every effective change evicts the code from
+ * L1/Redis and publishes a {@link LinkStatusChangedEvent}, so edge caches can be purged too. A link leaving the active
+ * state also gives up its url_hash, in the DB and in the Redis hash → code index, so shortening the same URL again
+ * creates a new code instead of returning the dead one.
+ */
+@Service
+public class LinkStatusService {
+
+    // short_urls.status values (see V1__init.sql)
+    public static final short ACTIVE = 1;
+    public static final short EXPIRED = 2;
+    public static final short DELETED = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(LinkStatusService.class);
+
+    private final UrlRepository repo;
+    private final UrlCache cache;
+    private final ReadYourWrites readYourWrites;
+    private final ApplicationEventPublisher events;
+
+    public LinkStatusService(UrlRepository repo, UrlCache cache, ReadYourWrites readYourWrites,
+                             ApplicationEventPublisher events) {
+        this.repo = repo;
+        this.cache = cache;
+        this.readYourWrites = readYourWrites;
+        this.events = events;
+    }
+
+    /** @return true if the status actually changed (false when it already had that status) */
+    public boolean changeStatus(String code, short status) {
+        Url url = readYourWrites.onPrimary(() -> repo.findById(code))
+                .orElseThrow(() -> new EntityNotFoundException("URL not found: " + code));
+        int changed = status == ACTIVE ? repo.updateStatus(code, status) : repo.retire(code, status);
+        if (changed == 0) return false;
+        String hash = status == ACTIVE ? null : url.getUrlHash();
+        try {
+            cache.deleteAll(List.of(code), hash != null ? List.of(hash) : List.of());
+        } catch (CacheException ex) {
+            log.warn("Could not evict {} from the cache after its status changed to {}", code, status, ex);
+        }
+        events.publishEvent(new LinkStatusChangedEvent(code, status));
+        return true;
+    }
+}
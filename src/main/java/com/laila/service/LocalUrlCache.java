@@ -0,0 +1,122 @@
+package com.laila.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * On-heap L1 tier (Caffeine / W-TinyLFU) sitting in front of the Redis-backed {@link UrlCache}.
+ * Bounded by entry count, or by approximate bytes when {@code max-bytes} is set.
+ */
+@Component
+public class LocalUrlCache {
+
+    // rough per-entry overhead: node + key/value headers + entry record
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<String, Entry> cache; // null when the tier is disabled
+    private final Duration maxTtl;
+
+    public LocalUrlCache(
+            @Value("${shortener.cache.local.enabled:true}") boolean enabled,
+            @Value("${shortener.cache.local.max-entries:10000}") long maxEntries,
+            @Value("${shortener.cache.local.max-bytes:0}") long maxBytes,
+            @Value("${shortener.cache.local.ttl:10m}") Duration maxTtl
+    ) {
+        this.maxTtl = maxTtl;
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (maxBytes > 0) {
+            builder.maximumWeight(maxBytes)
+                    .weigher((String code, Entry e) -> weigh(code, e));
+        } else {
+            builder.maximumSize(maxEntries);
+        }
+        this.cache = builder.expireAfter(new EntryExpiry()).build();
+    }
+
+    public String get(String code) {
+        if (cache == null) return null;
+        Entry e = cache.getIfPresent(code);
+        return e != null ? e.url() : null;
+    }
+
+    /** Like {@link #get}, plus how long the answer stays valid; null on a miss. */
+    public ResolvedUrl lookup(String code) {
+        if (cache == null) return null;
+        Entry e = cache.getIfPresent(code);
+        if (e == null) return null;
+        return e.permanent() ? ResolvedUrl.permanent(e.url()) : ResolvedUrl.until(e.url(), Instant.ofEpochMilli(e.deadlineMillis()));
+    }
+
+    /** Caches url for at most ttl (already clamped to expiresAt by the caller) and the L1 max TTL. */
+    public void put(String code, String url, Duration ttl) {
+        put(code, url, ttl, false);
+    }
+
+    /** permanent: the link itself never expires (only known when the caller saw the DB row). */
+    public void put(String code, String url, Duration ttl, boolean permanent) {
+        if (cache == null || ttl == null || ttl.isNegative() || ttl.isZero()) return;
+        Duration effective = ttl.compareTo(maxTtl) < 0 ? ttl : maxTtl;
+        long deadline = System.currentTimeMillis() + effective.toMillis();
+        cache.put(code, new Entry(url, effective.toNanos(), deadline, permanent));
+    }
+
+    /** Up to n codes, most frequently used first (W-TinyLFU frequency sketch); empty when the tier is disabled. */
+    public List<String> hottest(int n) {
+        if (cache == null) return List.of();
+        return cache.policy().eviction()
+                .map(e -> List.copyOf(e.hottest(n).keySet()))
+                .orElse(List.of());
+    }
+
+    public void invalidate(String code) {
+        if (cache != null) cache.invalidate(code);
+    }
+
+    public long hitCount() {
+        return cache != null ? cache.stats().hitCount() : 0;
+    }
+
+    public long missCount() {
+        return cache != null ? cache.stats().missCount() : 0;
+    }
+
+    public long size() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    private static int weigh(String code, Entry e) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * (code.length() + e.url().length());
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private record Entry(String url, long ttlNanos, long deadlineMillis, boolean permanent) {}
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String code, Entry e, long currentTime) {
+            return e.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String code, Entry e, long currentTime, long currentDuration) {
+            return e.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String code, Entry e, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
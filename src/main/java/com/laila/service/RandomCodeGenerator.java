@@ -0,0 +1,22 @@
+package com.laila.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Default strategy: SecureRandom Base62, no coordination between instances. */
+@Component
+@ConditionalOnProperty(name = "shortener.codegen.strategy", havingValue = "random", matchIfMissing = true)
+public class RandomCodeGenerator implements CodeGenerator {
+
+    private final int length; // 7 is OK; 8 = virtually zero retries
+
+    public RandomCodeGenerator(@Value("${shortener.codegen.random.length:8}") int length) {
+        this.length = length;
+    }
+
+    @Override
+    public String nextCode() {
+        return Base62Generator.randomCode(length);
+    }
+}
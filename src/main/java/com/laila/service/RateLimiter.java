@@ -0,0 +1,245 @@
+package com.laila.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.laila.dto.UrlDto;
+import com.laila.exception.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Token buckets per client IP (redirect, create, batch create) and per userId (create), enforced from local state only: each bucket
+ * is one CAS on its theoretical arrival time (GCRA), so admitting a request never waits on Redis.
+ * With redis-sync on, {@link #sync} INCRBYs what every dirty bucket admitted since the last sync into a shared
+ * counter in one pipelined round trip, and charges each of those buckets with what the other instances admitted since
+ * its previous sync, so the limit holds across instances to within about one sync interval of traffic. A failed sync
+ * leaves the limit instance-local until the next one.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    public enum Scope {
+        REDIRECT_IP("redirect-ip"), CREATE_IP("create-ip"), CREATE_BATCH_IP("create-batch-ip"), CREATE_USER("create-user");
+
+        final String id;
+
+        Scope(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+    }
+
+    /** rate ≤ 0 = unlimited; burst = requests a full bucket admits at once. */
+    public record Limit(double ratePerSecond, long burst) {
+
+        long intervalNanos() {
+            return (long) (1_000_000_000L / ratePerSecond);
+        }
+
+        boolean unlimited() {
+            return ratePerSecond <= 0;
+        }
+    }
+
+    private final StringRedisTemplate redis;
+    private final boolean enabled;
+    private final boolean redisSync;
+    private final long keyTtlMillis;
+    private final LongSupplier nanoClock;
+    private final Map<Scope, Limit> limits;
+    private final Cache<String, Bucket> buckets;
+    private final Map<Scope, LongAdder> rejected = new EnumMap<>(Scope.class);
+
+    @Autowired
+    public RateLimiter(StringRedisTemplate redis,
+                       @Value("${shortener.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${shortener.rate-limit.redis-sync:true}") boolean redisSync,
+                       @Value("${shortener.rate-limit.sync-interval:PT0.5S}") Duration syncInterval,
+                       @Value("${shortener.rate-limit.max-keys:100000}") long maxKeys,
+                       @Value("${shortener.rate-limit.redirect-per-ip.rate:100}") double redirectRate,
+                       @Value("${shortener.rate-limit.redirect-per-ip.burst:200}") long redirectBurst,
+                       @Value("${shortener.rate-limit.create-per-ip.rate:5}") double createIpRate,
+                       @Value("${shortener.rate-limit.create-per-ip.burst:20}") long createIpBurst,
+                       @Value("${shortener.rate-limit.create-batch-per-ip.rate:100}") double createBatchIpRate,
+                       @Value("${shortener.rate-limit.create-batch-per-ip.burst:10000}") long createBatchIpBurst,
+                       @Value("${shortener.rate-limit.create-per-user.rate:10}") double createUserRate,
+                       @Value("${shortener.rate-limit.create-per-user.burst:50}") long createUserBurst) {
+        this(redis, enabled, redisSync, syncInterval, maxKeys, Map.of(
+                Scope.REDIRECT_IP, new Limit(redirectRate, redirectBurst),
+                Scope.CREATE_IP, new Limit(createIpRate, createIpBurst),
+                Scope.CREATE_BATCH_IP, new Limit(createBatchIpRate, createBatchIpBurst),
+                Scope.CREATE_USER, new Limit(createUserRate, createUserBurst)), System::nanoTime);
+    }
+
+    RateLimiter(StringRedisTemplate redis, boolean enabled, boolean redisSync, Duration syncInterval, long maxKeys,
+                Map<Scope, Limit> limits, LongSupplier nanoClock) {
+        this.redis = redis;
+        this.enabled = enabled;
+        this.redisSync = redisSync && redis != null;
+        // counters are only compared between syncs, so the key just has to outlive a few missed ones
+        this.keyTtlMillis = Math.max(60_000, 10 * syncInterval.toMillis());
+        this.nanoClock = nanoClock;
+        this.limits = new EnumMap<>(limits);
+        // an idle bucket is full again after burst × interval; evicting it then loses nothing
+        long idleNanos = limits.values().stream().filter(l -> !l.unlimited())
+                .mapToLong(l -> l.burst() * l.intervalNanos()).max().orElse(0);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(idleNanos).plus(syncInterval.multipliedBy(2)))
+                .build();
+        for (Scope s : Scope.values()) rejected.put(s, new LongAdder());
+    }
+
+    /** Unlimited; for tests and benchmarks. */
+    public static RateLimiter disabled() {
+        return new RateLimiter(null, false, false, Duration.ofSeconds(1), 1, Map.of(), System::nanoTime);
+    }
+
+    /**
+     * Takes {@code permits} from the key's bucket. Returns 0 when admitted, otherwise how long (nanos) until they would
+     * be; a rejected request takes nothing.
+     */
+    public long tryAcquire(Scope scope, String key, int permits) {
+        Limit limit = limits.get(scope);
+        if (!enabled || limit == null || limit.unlimited() || key == null) return 0;
+        Bucket b = buckets.get(scope.id + ':' + key, k -> new Bucket());
+        long wait = b.tryAcquire(nanoClock.getAsLong(), limit, permits);
+        if (wait > 0) rejected.get(scope).increment();
+        return wait;
+    }
+
+    /** {@link #tryAcquire}, throwing {@link RateLimitExceededException} when over the limit. */
+    public void check(Scope scope, String key, int permits) {
+        long wait = tryAcquire(scope, key, permits);
+        if (wait > 0) throw new RateLimitExceededException(scope.id, Duration.ofNanos(wait));
+    }
+
+    /**
+     * Per-IP batch create limit, in items: a batch pays one permit per item, so its size (not the request count) is what
+     * the limit bounds. Checked once the body is read, which the filter in front cannot do.
+     */
+    public void checkBatch(String ip, Collection<UrlDto> items) {
+        check(Scope.CREATE_BATCH_IP, ip, items.size());
+    }
+
+    /** Per-user create limit: each userId in the request pays one permit per item it owns. */
+    public void checkUsers(Collection<UrlDto> items) {
+        if (!enabled) return;
+        Map<Long, Long> perUser = items.stream()
+                .filter(Objects::nonNull)
+                .map(UrlDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        perUser.forEach((user, n) -> check(Scope.CREATE_USER, user.toString(), n.intValue()));
+    }
+
+    public long rejected(Scope scope) {
+        return rejected.get(scope).sum();
+    }
+
+    /** Publishes local admissions and applies the other instances' since the last sync. */
+    @Scheduled(fixedDelayString = "${shortener.rate-limit.sync-interval:PT0.5S}")
+    public void sync() {
+        if (!enabled || !redisSync) return;
+        List<String> keys = new ArrayList<>();
+        List<Bucket> dirty = new ArrayList<>();
+        List<Long> admitted = new ArrayList<>();
+        buckets.asMap().forEach((key, b) -> {
+            long n = b.unsynced.getAndSet(0);
+            if (n > 0) {
+                keys.add(key);
+                dirty.add(b);
+                admitted.add(n);
+            }
+        });
+        if (keys.isEmpty()) return;
+
+        List<Object> totals;
+        try {
+            totals = redis.executePipelined((RedisCallback<Object>) c -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[] k = (KEY_PREFIX + keys.get(i)).getBytes(StandardCharsets.UTF_8);
+                    c.stringCommands().incrBy(k, admitted.get(i));
+                    c.keyCommands().pExpire(k, keyTtlMillis);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.debug("Rate limit sync of {} buckets failed; limiting per instance until the next one", keys.size(), ex);
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < keys.size(); i++) {
+            Limit limit = limits.get(scopeOf(keys.get(i)));
+            if (limit != null) dirty.get(i).reconcile((Long) totals.get(2 * i), admitted.get(i), now, limit);
+        }
+    }
+
+    private static Scope scopeOf(String key) {
+        String id = key.substring(0, key.indexOf(':'));
+        for (Scope s : Scope.values()) {
+            if (s.id.equals(id)) return s;
+        }
+        throw new IllegalStateException("Unknown rate limit scope " + id);
+    }
+
+    static final class Bucket {
+        // theoretical arrival time of the next request (GCRA): the bucket is full while tat <= now
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong unsynced = new AtomicLong();
+        private long lastTotal = -1; // shared counter at the last sync; sync thread only
+
+        long tryAcquire(long now, Limit limit, int permits) {
+            long interval = limit.intervalNanos();
+            long tolerance = limit.burst() * interval;
+            long cost = Math.min(permits, limit.burst()) * interval; // more than a burst needs a full bucket, not never
+            for (;;) {
+                long t = tat.get();
+                long next = Math.max(t, now) + cost;
+                long wait = next - now - tolerance;
+                if (wait > 0) return wait;
+                if (tat.compareAndSet(t, next)) {
+                    unsynced.addAndGet(permits);
+                    return 0;
+                }
+            }
+        }
+
+        // total = shared counter after adding our `admitted`; the rest of the growth came from other instances
+        void reconcile(long total, long admitted, long now, Limit limit) {
+            long remote = lastTotal < 0 ? 0 : total - lastTotal - admitted;
+            lastTotal = total;
+            if (remote <= 0) return; // first sync, or the counter expired and restarted
+            long interval = limit.intervalNanos();
+            long ceiling = now + limit.burst() * interval; // at most an empty bucket, never a debt
+            tat.accumulateAndGet(now, (t, n) -> Math.min(ceiling, Math.max(t, n) + remote * interval));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.exception.CacheException;
+import com.laila.repository.ReactiveUrlRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Non-blocking twin of {@link UrlService#getOriginalUrl}: same filter, L1, Redis key layout and TTL rules,
+ * but Redis goes through the reactive Lettuce API and the DB fallback through R2DBC, so a resolve never
+ * parks an event-loop thread. Empty means not found or expired. Redis calls run under {@link RedisGuard}; a failed,
+ * slow or short-circuited Redis read falls through to the DB.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlService {
+
+    private final ReactiveStringRedisTemplate redis;
+    private final LocalUrlCache local;
+    private final UrlCache cache;
+    private final ShortCodeFilter codeFilter;
+    private final ReactiveUrlRepository repo;
+    private final RedisGuard guard;
+
+    // per-code coalescing of concurrent misses, like SingleFlight on the blocking path
+    private final ConcurrentHashMap<String, Mono<Url>> inflight = new ConcurrentHashMap<>();
+
+    public ReactiveUrlService(@Qualifier("cacheReactiveRedisTemplate") ReactiveStringRedisTemplate redis,
+                              LocalUrlCache local,
+                              UrlCache cache,
+                              ShortCodeFilter codeFilter,
+                              ReactiveUrlRepository repo,
+                              RedisGuard guard) {
+        this.redis = redis;
+        this.local = local;
+        this.cache = cache;
+        this.codeFilter = codeFilter;
+        this.repo = repo;
+        this.guard = guard;
+    }
+
+    public Mono<String> getOriginalUrl(String code) {
+        return resolve(code).map(ResolvedUrl::url);
+    }
+
+    /** See {@link UrlService#resolve}. */
+    public Mono<ResolvedUrl> resolve(String code) {
+        if (codeFilter.isDefinitelyAbsentLocally(code)) return Mono.empty();
+        ResolvedUrl hit = local.lookup(code);
+        if (hit != null) return Mono.just(hit);
+
+        return fromRedis(code)
+                .switchIfEmpty(Mono.defer(() -> load(code)).map(e -> e.getExpiresAt() == null
+                        ? ResolvedUrl.permanent(e.getLongUrl())
+                        : ResolvedUrl.until(e.getLongUrl(), e.getExpiresAt())));
+    }
+
+    // GET + PTTL written back-to-back on the shared connection: one round trip, L1 never outlives Redis.
+    // Bucketed: HGET only (the reactive API has no HPTTL); the compact value's own expiry bounds L1 instead.
+    private Mono<ResolvedUrl> fromRedis(String code) {
+        Mono<ResolvedUrl> read;
+        if (cache.bucketed()) {
+            ByteBuffer k = StandardCharsets.UTF_8.encode(cache.bucketKey(code));
+            ByteBuffer f = StandardCharsets.UTF_8.encode(code);
+            read = redis.execute(c -> c.hashCommands().hGet(k, f))
+                    .next()
+                    .mapNotNull(buf -> cache.fromRedis(code, bytes(buf), null));
+        } else {
+            ByteBuffer k = StandardCharsets.UTF_8.encode(UrlCache.key(code));
+            read = redis.execute(c -> Mono.zip(c.stringCommands().get(k.duplicate()), c.keyCommands().pTtl(k.duplicate())))
+                    .next()
+                    .mapNotNull(res -> cache.fromRedis(code, bytes(res.getT1()), res.getT2()));
+        }
+        Mono<ResolvedUrl> guarded = guard.mono(() -> read);
+        return guarded
+                .doOnNext(url -> cache.recordL2(true))
+                .switchIfEmpty(Mono.fromRunnable(() -> cache.recordL2(false)))
+                .onErrorResume(CacheException.class, ex -> Mono.empty());
+    }
+
+    private static byte[] bytes(ByteBuffer buf) {
+        byte[] value = new byte[buf.remaining()];
+        buf.get(value);
+        return value;
+    }
+
+    private Mono<Url> load(String code) {
+        return inflight.computeIfAbsent(code, k -> {
+            AtomicReference<Mono<Url>> self = new AtomicReference<>();
+            Mono<Url> shared = repo.findById(k)
+                    .filter(UrlService::isResolvable)
+                    .flatMap(this::warm)
+                    .switchIfEmpty(Mono.fromRunnable(() -> codeFilter.rememberMiss(k)))
+                    .doFinally(signal -> inflight.remove(k, self.get()))
+                    .cache();
+            self.set(shared);
+            return shared;
+        });
+    }
+
+    private Mono<Url> warm(Url e) {
+        Duration ttl = UrlCache.ttlFor(e.getExpiresAt());
+        if (ttl == null) return Mono.empty();
+        local.put(e.getCode(), e.getLongUrl(), ttl, e.getExpiresAt() == null);
+        if (cache.bucketed()) { // HSET + HPEXPIRE: the reactive API has no field TTLs, UrlCache#warm sends them async
+            cache.warm(e.getCode(), e.getLongUrl(), e.getExpiresAt());
+            return Mono.just(e);
+        }
+        ByteBuffer k = StandardCharsets.UTF_8.encode(UrlCache.key(e.getCode()));
+        ByteBuffer v = ByteBuffer.wrap(cache.encode(e.getLongUrl(), e.getExpiresAt()));
+        return guard.mono(() -> redis.execute(c -> c.stringCommands().set(k, v, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()))
+                        .next())
+                .onErrorReturn(false) // a failed warm-up must not fail the redirect
+                .thenReturn(e);
+    }
+}
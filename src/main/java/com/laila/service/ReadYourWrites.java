@@ -0,0 +1,82 @@
+package com.laila.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+
+/**
+ * Read-your-writes for replica routing: codes created on this instance within the last window are read inside a
+ * read-write transaction, which routes to the primary, so replication lag cannot turn a fresh code into a 404.
+ * Codes created on other instances are not tracked here; {@link #readConfirmingMiss} covers them where a miss would be
+ * remembered. A no-op unless replicas are configured.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recent; // null → no window
+    private final TransactionTemplate primaryTx; // null → no replicas
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReadYourWrites(PlatformTransactionManager txManager,
+                          @Value("${shortener.datasource.replica-urls:}") String replicaUrls,
+                          @Value("${shortener.datasource.read-your-writes-window:10s}") Duration window,
+                          @Value("${shortener.datasource.read-your-writes-max-entries:100000}") long maxEntries) {
+        boolean replicas = StringUtils.hasText(replicaUrls);
+        this.recent = replicas && !window.isZero()
+                ? Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(window).build()
+                : null;
+        this.primaryTx = replicas ? new TransactionTemplate(txManager) : null;
+    }
+
+    /** Pass-through instance, for tests and benchmarks. */
+    public static ReadYourWrites disabled() {
+        return new ReadYourWrites(null, "", Duration.ZERO, 0);
+    }
+
+    public void wrote(String code) {
+        if (recent != null) recent.put(code, Boolean.TRUE);
+    }
+
+    /** Runs the query on the primary if code was written within the window, else wherever it would route. */
+    public <T> T read(String code, Supplier<T> query) {
+        if (recent == null || recent.getIfPresent(code) == null) return query.get();
+        primaryReads.increment();
+        return onPrimary(query);
+    }
+
+    /**
+     * {@link #read}, re-running an empty replica answer on the primary. For lookups whose miss is remembered (the
+     * negative code cache): a code created on another instance may not have replicated yet, and remembering it as
+     * absent would outlast the lag. Misses that get this far are few, since the code filter turns most away first.
+     */
+    public <T> Optional<T> readConfirmingMiss(String code, Supplier<Optional<T>> query) {
+        if (primaryTx == null) return query.get();
+        if (recent != null && recent.getIfPresent(code) != null) {
+            primaryReads.increment();
+            return onPrimary(query);
+        }
+        Optional<T> found = query.get();
+        if (found.isPresent()) return found;
+        primaryReads.increment();
+        return onPrimary(query);
+    }
+
+    /** Always on the primary, for reads on the write path (idempotency and collision checks). */
+    public <T> T onPrimary(Supplier<T> query) {
+        return primaryTx == null ? query.get() : primaryTx.execute(status -> query.get());
+    }
+
+    public long primaryReads() {
+        return primaryReads.sum();
+    }
+}
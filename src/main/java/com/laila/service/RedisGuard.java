@@ -0,0 +1,285 @@
+package com.laila.service;
+
+import com.laila.exception.CacheException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+
+/**
+ * Fault isolation for the Redis tier. Every {@link UrlCache} call runs inside a latency budget
+ * (shortener.cache.timeout, also the cache connection's command timeout) and a {@link CircuitBreaker}; failures,
+ * timeouts and an open breaker surface as {@link CacheException}, never as a Redis client exception.
+ * {@link #firstOf} adds hedging on the resolve path: once Redis is slower than its own recent p99, the DB load starts
+ * in parallel and the first answer wins. That p99 is re-sorted on the scheduler, never on the thread completing the
+ * call (a Lettuce I/O thread for async calls).
+ */
+@Component
+public class RedisGuard {
+
+    private final CircuitBreaker breaker;
+    private final Duration timeout;
+    private final long minHedgeNanos;
+    private final long maxHedgeNanos;
+    private final ThreadPoolExecutor hedgePool; // null → no hedging
+    private final RollingPercentile latency = new RollingPercentile(1024, 0.99);
+    private final LongAdder hedges = new LongAdder();
+
+    @Autowired
+    public RedisGuard(@Value("${shortener.cache.timeout:50ms}") Duration timeout,
+                      @Value("${shortener.cache.breaker.window:100}") int window,
+                      @Value("${shortener.cache.breaker.failure-rate:0.5}") double failureRate,
+                      @Value("${shortener.cache.breaker.min-calls:20}") int minCalls,
+                      @Value("${shortener.cache.breaker.open-for:5s}") Duration openFor,
+                      @Value("${shortener.cache.hedge.enabled:true}") boolean hedging,
+                      @Value("${shortener.cache.hedge.min-delay:2ms}") Duration minHedgeDelay,
+                      @Value("${shortener.cache.hedge.max-delay:20ms}") Duration maxHedgeDelay,
+                      @Value("${shortener.cache.hedge.max-concurrent:32}") int maxConcurrentHedges) {
+        this(new CircuitBreaker(window, failureRate, minCalls, openFor), timeout,
+                hedging ? hedgePool(maxConcurrentHedges) : null, minHedgeDelay, maxHedgeDelay);
+    }
+
+    RedisGuard(CircuitBreaker breaker, Duration timeout, ThreadPoolExecutor hedgePool,
+               Duration minHedgeDelay, Duration maxHedgeDelay) {
+        this.breaker = breaker;
+        this.timeout = timeout;
+        this.hedgePool = hedgePool;
+        this.minHedgeNanos = minHedgeDelay.toNanos();
+        this.maxHedgeNanos = Math.max(minHedgeNanos, maxHedgeDelay.toNanos());
+    }
+
+    /** Breaker that never opens, no hedging; for tests and benchmarks. */
+    public static RedisGuard passThrough() {
+        return new RedisGuard(new CircuitBreaker(1, 1.0, Integer.MAX_VALUE, Duration.ZERO), Duration.ofSeconds(2),
+                null, Duration.ZERO, Duration.ZERO);
+    }
+
+    /** Runs a blocking Redis call (already bounded by the connection's command timeout). */
+    public <T> T call(Supplier<T> op) {
+        if (!breaker.allowRequest()) throw new CacheException("Redis circuit open");
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = op.get();
+        } catch (RuntimeException ex) {
+            breaker.onFailure();
+            throw new CacheException("Redis call failed", ex);
+        }
+        succeeded(started);
+        return result;
+    }
+
+    public void run(Runnable op) {
+        call(() -> {
+            op.run();
+            return null;
+        });
+    }
+
+    /**
+     * {@link #run} for pipelines of many commands (batch warm-up, eviction, layout migration), which run on the primary
+     * connection's timeout rather than the cache budget. They still respect and feed the breaker, but their latency is
+     * not sampled: it says nothing about how fast a single lookup is.
+     */
+    public void runBulk(Runnable op) {
+        if (!breaker.allowRequest()) throw new CacheException("Redis circuit open");
+        try {
+            op.run();
+        } catch (RuntimeException ex) {
+            breaker.onFailure();
+            throw new CacheException("Redis call failed", ex);
+        }
+        breaker.onSuccess();
+    }
+
+    /** Async variant of {@link #call}: fails with CacheException when open, failed or past the budget. */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> op) {
+        if (!breaker.allowRequest()) return CompletableFuture.failedFuture(new CacheException("Redis circuit open"));
+        long started = System.nanoTime();
+        CompletableFuture<T> f;
+        try {
+            f = op.get();
+        } catch (RuntimeException ex) {
+            breaker.onFailure();
+            return CompletableFuture.failedFuture(new CacheException("Redis call failed", ex));
+        }
+        return f.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).handle((v, ex) -> {
+            if (ex == null) {
+                succeeded(started);
+                return v;
+            }
+            breaker.onFailure();
+            throw new CacheException("Redis call failed", unwrap(ex));
+        });
+    }
+
+    /** Reactive variant of {@link #call}, for {@link ReactiveUrlService}. */
+    public <T> Mono<T> mono(Supplier<Mono<T>> op) {
+        return Mono.defer(() -> {
+            if (!breaker.allowRequest()) return Mono.error(new CacheException("Redis circuit open"));
+            long started = System.nanoTime();
+            return op.get()
+                    .timeout(timeout)
+                    .doOnSuccess(v -> succeeded(started))
+                    .onErrorMap(ex -> !(ex instanceof CacheException), ex -> {
+                        breaker.onFailure();
+                        return new CacheException("Redis call failed", ex);
+                    });
+        });
+    }
+
+    /**
+     * The cached answer if it is a hit, else the loader's. The loader runs on this thread after a miss or cache failure;
+     * if the cache has not answered within {@link #hedgeDelayNanos()}, it starts on the hedge pool right away and the
+     * first usable answer wins (a cache hit, or whatever the loader returns). A full hedge pool means no hedge.
+     */
+    public <T> T firstOf(CompletableFuture<T> cached, Supplier<T> loader) {
+        T hit;
+        try {
+            hit = cached.get(hedgePool == null ? timeout.toNanos() : hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException slow) {
+            if (hedgePool == null) return loader.get();
+            return hedge(cached, loader);
+        } catch (ExecutionException | CancellationException failed) {
+            return loader.get(); // Redis failed or the circuit is open: straight to the DB
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted waiting for Redis", ex);
+        }
+        return hit != null ? hit : loader.get();
+    }
+
+    private <T> T hedge(CompletableFuture<T> cached, Supplier<T> loader) {
+        CompletableFuture<T> loaded;
+        try {
+            loaded = CompletableFuture.supplyAsync(loader, hedgePool);
+        } catch (RejectedExecutionException full) {
+            T hit = cached.handle((v, ex) -> v).join();
+            return hit != null ? hit : loader.get();
+        }
+        hedges.increment();
+        CompletableFuture<T> hit = cached.handle((v, ex) -> v);
+        CompletableFuture.anyOf(hit, loaded.handle((v, ex) -> null)).join();
+        T v = hit.getNow(null);
+        if (v != null) return v;
+        try {
+            return loaded.join(); // cache missed or failed, or the DB answered first
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw ex;
+        }
+    }
+
+    /** Recent p99 of successful Redis calls, clamped to [min-delay, max-delay]; max-delay until enough samples. */
+    public long hedgeDelayNanos() {
+        long p99 = latency.value();
+        if (p99 < 0) return maxHedgeNanos;
+        return Math.min(maxHedgeNanos, Math.max(minHedgeNanos, p99));
+    }
+
+    /** Re-sorts the latency samples behind {@link #hedgeDelayNanos} when new ones came in. */
+    @Scheduled(fixedDelayString = "${shortener.cache.hedge.refresh-interval:PT0.1S}")
+    public void refreshHedgeDelay() {
+        latency.refresh();
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    public long shortCircuited() {
+        return breaker.shortCircuited();
+    }
+
+    public long trips() {
+        return breaker.trips();
+    }
+
+    /** DB loads started because Redis was slower than the hedge delay. */
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hedgePool != null) hedgePool.shutdownNow();
+    }
+
+    private void succeeded(long startedNanos) {
+        breaker.onSuccess();
+        latency.record(System.nanoTime() - startedNanos);
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    // no queue: a hedge that cannot start at once is skipped rather than queued behind other hedges
+    private static ThreadPoolExecutor hedgePool(int maxThreads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(0, Math.max(1, maxThreads), 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "redis-hedge");
+            t.setDaemon(true);
+            return t;
+        });
+        pool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return pool;
+    }
+
+    /**
+     * Percentile over the last {@code size} samples: recording is one write into a lock-free ring, {@link #refresh}
+     * re-sorts it from a single background thread, so neither the recording thread nor the read pays for the sort.
+     */
+    static final class RollingPercentile {
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+        private final double quantile;
+        private final int minSamples;
+        private long refreshedAt; // count at the last refresh
+        private volatile long value = -1;
+
+        RollingPercentile(int size, double quantile) {
+            this.samples = new AtomicLongArray(size);
+            this.quantile = quantile;
+            this.minSamples = Math.max(1, size / 8);
+        }
+
+        void record(long sample) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % samples.length()), sample);
+        }
+
+        long value() {
+            return value;
+        }
+
+        synchronized void refresh() {
+            long n = count.get();
+            if (n < minSamples || n == refreshedAt) return;
+            refreshedAt = n;
+            long[] copy = new long[(int) Math.min(n, samples.length())];
+            for (int i = 0; i < copy.length; i++) copy[i] = samples.get(i);
+            Arrays.sort(copy);
+            value = copy[(int) Math.min(copy.length - 1, Math.ceil(quantile * copy.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.laila.service;
+
+import java.time.Instant;
+
+/**
+ * A resolved short code. {@code expiresAt} is the link's own expiry when known, otherwise the end of the cache
+ * entry that answered, which never outlives the link; null only for permanent links (no expiry at all).
+ * Caches that cannot tell a permanent link from an expiring one report it as expiring.
+ */
+public record ResolvedUrl(String url, Instant expiresAt, boolean permanent) {
+
+    public static ResolvedUrl permanent(String url) {
+        return new ResolvedUrl(url, null, true);
+    }
+
+    public static ResolvedUrl until(String url, Instant expiresAt) {
+        return new ResolvedUrl(url, expiresAt, false);
+    }
+}
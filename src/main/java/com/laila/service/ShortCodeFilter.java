@@ -0,0 +1,265 @@
+package com.laila.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.laila.exception.CacheException;
+import com.laila.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+
+/**
+ * Negative lookup filter for the redirect path: a Bloom filter over every code in short_urls,
+ * plus a short-TTL cache of codes that recently missed the DB. Fails open until the first rebuild completes.
+ * <p>
+ * The local filter only knows the codes of its rebuild and of this instance, so a local negative is a hint: it is
+ * confirmed against the shared Redis bitmap every writer publishes to (creates, batches, bulk imports). When that
+ * bitmap cannot answer (Redis slow or down, the breaker open, or the bitmap lost and not yet rebuilt from the DB) the
+ * code is let through. That read is a redirect-path call like any cache lookup: it runs on the cache connection, within
+ * its latency budget and behind {@link RedisGuard}.
+ * With redis-shared off only the miss cache rejects codes.
+ */
+@Component
+public class ShortCodeFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortCodeFilter.class);
+    // hash tag: BITOP needs the bitmap and its rebuild temp key in one cluster slot
+    private static final String REDIS_KEY = "{codefilter}:bits";
+    // set once a rebuild from the DB is merged in; gone after a flush or a failover that lost the bitmap
+    private static final String COMPLETE_KEY = "{codefilter}:complete";
+    private static final long REBUILD_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final UrlRepository repo;
+    private final StringRedisTemplate redis;       // primary: publishing and rebuild merges
+    private final StringRedisTemplate cacheRedis;  // cache budget: the per-redirect bitmap read
+    private final RedisGuard guard;
+    private final TransactionTemplate readOnlyTx;
+
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final boolean redisShared;
+    private final BloomFilter layout; // bit positions for the shared bitmap; they only depend on the size settings
+
+    private volatile BloomFilter current;   // null until the first rebuild finishes
+    private volatile BloomFilter building;  // non-null while a rebuild is streaming codes
+    private final Cache<String, Boolean> recentMisses;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile long lastRebuildStart = System.nanoTime() - REBUILD_BACKOFF_NANOS;
+
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder negativeCacheRejects = new LongAdder();
+
+    public ShortCodeFilter(
+            UrlRepository repo,
+            StringRedisTemplate redis,
+            @Qualifier("cacheRedisTemplate") StringRedisTemplate cacheRedis,
+            RedisGuard guard,
+            PlatformTransactionManager txManager,
+            @Value("${shortener.code-filter.enabled:true}") boolean enabled,
+            @Value("${shortener.code-filter.expected-insertions:10000000}") long expectedInsertions,
+            @Value("${shortener.code-filter.fpp:0.01}") double fpp,
+            @Value("${shortener.code-filter.redis-shared:true}") boolean redisShared,
+            @Value("${shortener.code-filter.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${shortener.code-filter.negative-max-entries:100000}") long negativeMaxEntries
+    ) {
+        this.repo = repo;
+        this.redis = redis;
+        this.cacheRedis = cacheRedis;
+        this.guard = guard;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.redisShared = redisShared;
+        this.layout = enabled && redisShared ? BloomFilter.layout(expectedInsertions, fpp) : null;
+        this.recentMisses = Caffeine.newBuilder()
+                .maximumSize(negativeMaxEntries)
+                .expireAfterWrite(negativeTtl)
+                .build();
+    }
+
+    /** True only when the code cannot exist; callers may then skip Redis and the DB entirely. */
+    public boolean isDefinitelyAbsent(String code) {
+        return check(code, true);
+    }
+
+    /**
+     * Same answer from in-memory state only, for callers that must not block (the reactive path):
+     * a local negative would need the shared Redis bitmap to confirm it, so only the miss cache rejects here.
+     */
+    public boolean isDefinitelyAbsentLocally(String code) {
+        return check(code, false);
+    }
+
+    private boolean check(String code, boolean mayAskRedis) {
+        if (!enabled) return false;
+        if (recentMisses.getIfPresent(code) != null) {
+            negativeCacheRejects.increment();
+            return true;
+        }
+        BloomFilter f = current;
+        if (f == null || f.mightContain(code)) return false;
+        // created elsewhere since our rebuild? one pipelined GETBIT round trip instead of cache + DB
+        if (!mayAskRedis) return false;
+        Boolean shared = presentInRedis(code);
+        if (shared == null) return false; // cannot tell → fail open
+        if (shared) {
+            f.put(code);
+            return false;
+        }
+        filterRejects.increment();
+        return true;
+    }
+
+    /** Record a newly persisted code. */
+    public void add(String code) {
+        addAll(List.of(code));
+    }
+
+    /** Record newly persisted codes, published to the shared bitmap in one pipeline. */
+    public void addAll(Collection<String> codes) {
+        if (!enabled || codes.isEmpty()) return;
+        BloomFilter b = building;
+        BloomFilter f = current;
+        for (String code : codes) {
+            recentMisses.invalidate(code);
+            if (b != null) b.put(code);
+            if (f != null) f.put(code);
+        }
+        if (redisShared) publish(codes);
+    }
+
+    /** Remember a DB miss for a short while (second layer behind the Bloom filter). */
+    public void rememberMiss(String code) {
+        if (enabled) recentMisses.put(code, Boolean.TRUE);
+    }
+
+    public long filterRejects() {
+        return filterRejects.sum();
+    }
+
+    public long negativeCacheRejects() {
+        return negativeCacheRejects.sum();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (enabled && redisShared) rebuildInBackground();
+    }
+
+    // at most one at a time, and not more than once per backoff while the DB or Redis keep failing it
+    private void rebuildInBackground() {
+        if (System.nanoTime() - lastRebuildStart < REBUILD_BACKOFF_NANOS || !rebuilding.compareAndSet(false, true)) return;
+        lastRebuildStart = System.nanoTime();
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "code-filter-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Streams every code from short_urls into a fresh filter, then swaps it in. */
+    public void rebuild() {
+        long started = System.nanoTime();
+        BloomFilter next = new BloomFilter(expectedInsertions, fpp);
+        building = next;
+        try {
+            Long count = readOnlyTx.execute(status -> {
+                long n = 0;
+                try (Stream<String> codes = repo.streamAllCodes()) {
+                    for (String code : (Iterable<String>) codes::iterator) {
+                        next.put(code);
+                        n++;
+                    }
+                }
+                return n;
+            });
+            mergeIntoRedis(next);
+            current = next;
+            log.info("Code filter rebuilt: {} codes, {} bits, k={} in {} ms",
+                    count, next.bitCount(), next.hashCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Code filter rebuild failed; redirect path stays unfiltered", ex);
+        } finally {
+            building = null;
+        }
+    }
+
+    /** Whether the shared bitmap has every bit of code set, or null when it cannot tell. */
+    private Boolean presentInRedis(String code) {
+        byte[] k = REDIS_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] complete = COMPLETE_KEY.getBytes(StandardCharsets.UTF_8);
+        long[] bits = layout.bitIndexes(code);
+        List<Object> res;
+        try {
+            res = guard.call(() -> cacheRedis.executePipelined((RedisCallback<Object>) c -> {
+                c.keyCommands().exists(complete);
+                for (long bit : bits) c.stringCommands().getBit(k, bit);
+                return null;
+            }));
+        } catch (CacheException ex) {
+            return null; // slow, failed or breaker open
+        }
+        if (!Boolean.TRUE.equals(res.get(0))) {
+            rebuildInBackground(); // the bitmap was lost: only a rebuild from the DB makes it whole again
+            return null;
+        }
+        for (Object r : res.subList(1, res.size())) {
+            if (!Boolean.TRUE.equals(r)) return false;
+        }
+        return true;
+    }
+
+    private void publish(Collection<String> codes) {
+        try {
+            byte[] k = REDIS_KEY.getBytes(StandardCharsets.UTF_8);
+            redis.executePipelined((RedisCallback<Object>) c -> {
+                for (String code : codes) {
+                    for (long bit : layout.bitIndexes(code)) c.stringCommands().setBit(k, bit, true);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.debug("Could not publish {} codes to shared filter", codes.size(), ex);
+        }
+    }
+
+    // OR our bits into the shared bitmap, so concurrent SETBITs from other instances are kept
+    private void mergeIntoRedis(BloomFilter f) {
+        byte[] dest = REDIS_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] tmp = (REDIS_KEY + ":rebuild:" + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        byte[] bitmap = f.toRedisBitmap();
+        redis.execute((RedisCallback<Object>) c -> {
+            c.stringCommands().set(tmp, bitmap);
+            c.stringCommands().bitOp(RedisStringCommands.BitOperation.OR, dest, dest, tmp);
+            c.keyCommands().del(tmp);
+            c.stringCommands().set(COMPLETE_KEY.getBytes(StandardCharsets.UTF_8), new byte[]{'1'});
+            return null;
+        });
+    }
+}
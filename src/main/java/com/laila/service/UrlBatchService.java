@@ -0,0 +1,173 @@
+package com.laila.service;
+
+import com.laila.dto.UrlBatchResultDto;
+import com.laila.dto.UrlDto;
+import com.laila.entities.Url;
+import com.laila.exception.CacheException;
+import com.laila.repository.UrlBatchRepository;
+import com.laila.repository.UrlRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class UrlBatchService {
+
+    private static final int MAX_CODE_LENGTH = 10; // short_urls.code is VARCHAR(10)
+
+    private final UrlBatchRepository batchRepo;
+    private final UrlRepository repo;
+    private final UrlCache cache;
+    private final ShortCodeFilter codeFilter;
+    private final CodeGenerator codeGenerator;
+    private final Validator validator;
+    private final UrlMetrics metrics;
+    private final ReadYourWrites readYourWrites;
+    private final int maxItems;
+    private final int jdbcBatchSize;
+
+    public UrlBatchService(UrlBatchRepository batchRepo,
+                           UrlRepository repo,
+                           UrlCache cache,
+                           ShortCodeFilter codeFilter,
+                           CodeGenerator codeGenerator,
+                           Validator validator,
+                           UrlMetrics metrics,
+                           ReadYourWrites readYourWrites,
+                           @Value("${shortener.batch.max-items:10000}") int maxItems,
+                           @Value("${shortener.batch.jdbc-batch-size:1000}") int jdbcBatchSize) {
+        this.batchRepo = batchRepo;
+        this.repo = repo;
+        this.cache = cache;
+        this.codeFilter = codeFilter;
+        this.codeGenerator = codeGenerator;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        this.maxItems = maxItems;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    /**
+     * Create many short codes at once: JDBC-batched inserts, re-generating only the codes that collided,
+     * then one pipelined cache warm-up. Items whose URL is already shortened get the existing code back.
+     * Returns one result per request item, in request order.
+     */
+    public List<UrlBatchResultDto> convertToShortUrls(List<UrlDto> reqs) {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new IllegalArgumentException("At least one url is required !");
+        }
+        if (reqs.size() > maxItems) {
+            throw new IllegalArgumentException("Batch too large: " + reqs.size() + " > " + maxItems);
+        }
+
+        UrlBatchResultDto[] results = new UrlBatchResultDto[reqs.size()];
+        List<Pending> pending = new ArrayList<>(reqs.size());
+        Instant now = Instant.now();
+        for (int i = 0; i < reqs.size(); i++) {
+            String error = validate(reqs.get(i));
+            if (error != null) {
+                results[i] = UrlBatchResultDto.failed(i, error);
+            } else {
+                pending.add(new Pending(i, toEntity(reqs.get(i), now)));
+            }
+        }
+
+        List<Url> created = new ArrayList<>(pending.size());
+        for (int attempt = 0; attempt < UrlService.MAX_RETRIES && !pending.isEmpty(); attempt++) {
+            for (Pending p : pending) {
+                if (!p.url.getCustom()) p.url.setCode(codeGenerator.nextCode());
+            }
+            boolean[] inserted = batchRepo.insertIgnoringConflicts(pending.stream().map(Pending::url).toList(), jdbcBatchSize);
+
+            List<Pending> collided = new ArrayList<>();
+            for (int j = 0; j < inserted.length; j++) {
+                Pending p = pending.get(j);
+                if (inserted[j]) {
+                    results[p.index] = UrlBatchResultDto.created(p.index, p.url.getCode());
+                    created.add(p.url);
+                } else if (p.url.getCustom()) {
+                    results[p.index] = UrlBatchResultDto.failed(p.index, "Alias already exists");
+                } else {
+                    collided.add(p); // code or url_hash taken — resolved below
+                }
+            }
+            pending = reuseExisting(collided, results);
+        }
+        for (Pending p : pending) {
+            results[p.index] = UrlBatchResultDto.failed(p.index, "Failed to create short code");
+        }
+
+        codeFilter.addAll(created.stream().map(Url::getCode).toList());
+        for (Url u : created) {
+            readYourWrites.wrote(u.getCode());
+        }
+        try {
+            cache.setAll(created);
+        } catch (CacheException ignored) {
+            // rows are committed and L1 is warm; Redis fills on first resolve
+        }
+        return List.of(results);
+    }
+
+    /** Rows that lost on url_hash get the live code back; the rest (code collisions) go round again. */
+    private List<Pending> reuseExisting(List<Pending> collided, UrlBatchResultDto[] results) {
+        if (collided.isEmpty()) return collided;
+        List<String> hashes = collided.stream().map(p -> p.url.getUrlHash()).distinct().toList();
+        Map<String, Url> byHash = readYourWrites.onPrimary(() -> repo.findByUrlHashIn(hashes))
+                .stream()
+                .collect(Collectors.toMap(Url::getUrlHash, Function.identity(), (a, b) -> a));
+
+        List<Pending> retry = new ArrayList<>();
+        for (Pending p : collided) {
+            Url existing = byHash.get(p.url.getUrlHash());
+            if (existing != null && UrlService.isResolvable(existing)) {
+                results[p.index] = UrlBatchResultDto.created(p.index, existing.getCode());
+                continue;
+            }
+            if (existing != null && byHash.remove(p.url.getUrlHash()) != null) {
+                repo.releaseUrlHash(existing.getCode()); // dead row still holds the hash
+            }
+            retry.add(p);
+        }
+        metrics.batchCollisions().increment(retry.size());
+        return retry;
+    }
+
+    private String validate(UrlDto req) {
+        if (req == null) return "Item is required";
+        Set<ConstraintViolation<UrlDto>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<UrlDto> v = violations.iterator().next();
+            return v.getPropertyPath() + ": " + v.getMessage();
+        }
+        if (StringUtils.hasText(req.getAlias()) && req.getAlias().trim().length() > MAX_CODE_LENGTH) {
+            return "alias: must be at most " + MAX_CODE_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static Url toEntity(UrlDto req, Instant now) {
+        Url e = new Url();
+        boolean custom = StringUtils.hasText(req.getAlias());
+        if (custom) e.setCode(req.getAlias().trim());
+        e.setLongUrl(UrlService.normalize(req.getLongUrl()));
+        if (!custom) e.setUrlHash(UrlService.urlHash(e.getLongUrl(), req.getExpirationDate()));
+        e.setCustom(custom);
+        e.setCreatedAt(now);
+        e.setExpiresAt(req.getExpirationDate());
+        return e;
+    }
+
+    private record Pending(int index, Url url) {}
+}
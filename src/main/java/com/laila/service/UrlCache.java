@@ -1,44 +1,496 @@
 package com.laila.service;
 
+import com.laila.entities.Url;
+import com.laila.exception.CacheException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.IntegerListOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DecoratedRedisConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 
+/**
+ * Two-tier code → URL cache: {@link LocalUrlCache} (L1) in front of Redis (L2). Every Redis call goes through
+ * {@link RedisGuard}, so a slow or failed Redis surfaces as {@link CacheException} within the latency budget.
+ * Pipelines of many commands ({@link #setAll}, {@link #deleteAll}, {@link #migrateKeys}) go over a separate template
+ * on the primary connection: a few thousand commands legitimately take longer than one lookup's budget.
+ */
 @Component
 public class UrlCache {
 
+    private static final Logger log = LoggerFactory.getLogger(UrlCache.class);
+
     private final StringRedisTemplate redis;
+    private final StringRedisTemplate bulk;
+    private final LocalUrlCache local;
+    private final RedisGuard guard;
+    private final boolean compact;
+    private final int compressMinBytes;
+    private final int buckets;             // 0 = one top-level key per code
+    private final boolean legacyFallback;  // bucketed, and code:* keys may still exist (migration running)
     private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    private static final byte[] FIELDS = "FIELDS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ONE = "1".getBytes(StandardCharsets.US_ASCII);
+
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Compact values, URLs of 80+ bytes compressed; for tests and benchmarks. */
+    public UrlCache(StringRedisTemplate redis, LocalUrlCache local) {
+        this(redis, local, RedisGuard.passThrough());
+    }
+
+    public UrlCache(StringRedisTemplate redis, LocalUrlCache local, RedisGuard guard) {
+        this(redis, local, guard, "compact", 80, "keys", 0, false);
+    }
 
-    public UrlCache(StringRedisTemplate redis) {
+    /** One template for lookups and bulk pipelines alike; for tests. */
+    UrlCache(StringRedisTemplate redis, LocalUrlCache local, RedisGuard guard, String valueFormat,
+             int compressMinBytes, String layout, int buckets, boolean legacyFallback) {
+        this(redis, redis, local, guard, valueFormat, compressMinBytes, layout, buckets, legacyFallback);
+    }
+
+    /**
+     * @param bulk           template for pipelines of many commands, on the primary connection and its timeout
+     * @param valueFormat    "compact" ({@link UrlValueCodec}) or "plain" (the bare URL string, readable by instances that
+     *                       predate the compact format; use it until every instance reads both). Reads accept either.
+     * @param layout         "keys" (one {@code code:{code}} string per code) or "buckets" (codes spread over
+     *                       {@code buckets} hashes, see {@link #bucketKey}; needs Redis 7.4+ for hash-field TTLs)
+     * @param legacyFallback with "buckets": a bucket miss also tries the old {@code code:{code}} key, while
+     *                       {@link CacheLayoutMigrator} is still moving them
+     */
+    @Autowired
+    public UrlCache(@Qualifier("cacheRedisTemplate") StringRedisTemplate redis,
+                    StringRedisTemplate bulk,
+                    LocalUrlCache local,
+                    RedisGuard guard,
+                    @Value("${shortener.cache.value-format:compact}") String valueFormat,
+                    @Value("${shortener.cache.compress-min-bytes:80}") int compressMinBytes,
+                    @Value("${shortener.cache.layout:keys}") String layout,
+                    @Value("${shortener.cache.buckets:65536}") int buckets,
+                    @Value("${shortener.cache.migrate-layout:false}") boolean legacyFallback) {
+        if (!valueFormat.equals("compact") && !valueFormat.equals("plain")) {
+            throw new IllegalArgumentException("shortener.cache.value-format must be compact or plain");
+        }
+        if (!layout.equals("keys") && !layout.equals("buckets")) {
+            throw new IllegalArgumentException("shortener.cache.layout must be keys or buckets");
+        }
+        boolean bucketed = layout.equals("buckets");
+        // plain values only exist for instances that predate the compact format, and those cannot read buckets either
+        if (bucketed && !valueFormat.equals("compact")) {
+            throw new IllegalArgumentException("shortener.cache.layout=buckets needs value-format=compact");
+        }
+        if (bucketed && buckets <= 0) throw new IllegalArgumentException("shortener.cache.buckets must be > 0");
         this.redis = redis;
+        this.bulk = bulk;
+        this.local = local;
+        this.guard = guard;
+        this.compact = valueFormat.equals("compact");
+        this.compressMinBytes = compressMinBytes;
+        this.buckets = bucketed ? buckets : 0;
+        this.legacyFallback = bucketed && legacyFallback;
     }
 
     public String get(String code) {
-        return redis.opsForValue().get(key(code));
+        ResolvedUrl hit = lookup(code);
+        return hit != null ? hit.url() : null;
+    }
+
+    /**
+     * L1 first; on L1 miss, GET + PTTL (HGET + HPTTL when bucketed) in one pipelined round trip so L1 never outlives
+     * the Redis entry. Compact values carry the link's expiry; a legacy plain value cannot tell a permanent link from
+     * an expiring one, so it is reported as valid until its TTL ends.
+     */
+    public ResolvedUrl lookup(String code) {
+        ResolvedUrl hit = local.lookup(code);
+        if (hit != null) return hit;
+
+        ResolvedUrl resolved = guard.call(() -> {
+            ResolvedUrl r = buckets > 0 ? lookupBucket(code) : lookupKey(code);
+            return r == null && legacyFallback ? lookupKey(code) : r;
+        });
+        recordL2(resolved != null);
+        return resolved;
+    }
+
+    /**
+     * Non-blocking {@link #lookup} for the hedged resolve path ({@link RedisGuard#firstOf}): an L1 hit completes at
+     * once; otherwise the commands go out on the shared native connection, and the future fails with
+     * {@link CacheException} when Redis errors, the circuit is open or the latency budget runs out.
+     */
+    public CompletableFuture<ResolvedUrl> lookupAsync(String code) {
+        ResolvedUrl hit = local.lookup(code);
+        if (hit != null) return CompletableFuture.completedFuture(hit);
+
+        return guard.callAsync(() -> async(cmds -> {
+            CompletableFuture<ResolvedUrl> f = buckets > 0 ? lookupBucketAsync(cmds, code) : lookupKeyAsync(cmds, code);
+            if (!legacyFallback) return f;
+            return f.thenCompose(r -> r != null ? CompletableFuture.completedFuture(r) : lookupKeyAsync(cmds, code));
+        })).whenComplete((r, ex) -> {
+            if (ex == null) recordL2(r != null);
+        });
+    }
+
+    private CompletableFuture<ResolvedUrl> lookupKeyAsync(RedisClusterAsyncCommands<byte[], byte[]> cmds, String code) {
+        byte[] k = key(code).getBytes(StandardCharsets.UTF_8);
+        RedisFuture<byte[]> value = cmds.get(k);
+        RedisFuture<Long> pttl = cmds.pttl(k);
+        return value.toCompletableFuture().thenCombine(pttl, (v, t) -> fromRedis(code, v, t));
+    }
+
+    private CompletableFuture<ResolvedUrl> lookupBucketAsync(RedisClusterAsyncCommands<byte[], byte[]> cmds, String code) {
+        byte[] k = bucketKey(code).getBytes(StandardCharsets.UTF_8);
+        byte[] f = code.getBytes(StandardCharsets.UTF_8);
+        RedisFuture<byte[]> value = cmds.hget(k, f);
+        RedisFuture<List<Long>> pttl = cmds.dispatch(FieldTtl.HPTTL, new IntegerListOutput<>(ByteArrayCodec.INSTANCE),
+                fieldArgs(k, f));
+        return value.toCompletableFuture().thenCombine(pttl,
+                (v, t) -> fromRedis(code, v, t == null || t.isEmpty() ? -2L : t.get(0)));
+    }
+
+    // the shared connection outlives the callback, so its futures stay valid after execute() returns
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> async(Function<RedisClusterAsyncCommands<byte[], byte[]>, CompletableFuture<T>> op) {
+        return redis.execute((RedisCallback<CompletableFuture<T>>) c ->
+                op.apply((RedisClusterAsyncCommands<byte[], byte[]>) c.getNativeConnection()));
     }
 
+    private ResolvedUrl lookupKey(String code) {
+        byte[] k = key(code).getBytes(StandardCharsets.UTF_8);
+        List<Object> res = redis.execute((RedisCallback<List<Object>>) c -> {
+            c.openPipeline();
+            c.stringCommands().get(k);
+            c.keyCommands().pTtl(k);
+            return c.closePipeline();
+        });
+        return res == null ? null : fromRedis(code, (byte[]) res.get(0), (Long) res.get(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResolvedUrl lookupBucket(String code) {
+        byte[] k = bucketKey(code).getBytes(StandardCharsets.UTF_8);
+        byte[] f = code.getBytes(StandardCharsets.UTF_8);
+        List<Object> res = redis.execute((RedisCallback<List<Object>>) c -> {
+            c.openPipeline();
+            c.hashCommands().hGet(k, f);
+            fieldTtlCommand(c, "HPTTL", k, FIELDS, ONE, f);
+            return c.closePipeline();
+        });
+        if (res == null) return null;
+        List<Long> pttl = (List<Long>) res.get(1);
+        return fromRedis(code, (byte[]) res.get(0), pttl == null || pttl.isEmpty() ? -2L : pttl.get(0));
+    }
+
+    /**
+     * Decodes a Redis value (either format) and fills L1; null for a missing or inactive entry.
+     * A null pttl means the TTL was not read (reactive bucket reads): a compact value then stays in L1 for the TTL it
+     * was written with, {@link #ttlFor} its expiry.
+     */
+    ResolvedUrl fromRedis(String code, byte[] value, Long pttl) {
+        if (value == null) return null;
+        if (pttl == null && UrlValueCodec.isEncoded(value)) {
+            Duration ttl = ttlFor(UrlValueCodec.decode(value).expiresAt());
+            if (ttl == null) return null; // link expired, field TTL not yet run out
+            pttl = ttl.toMillis();
+        }
+        boolean noTtl = pttl == null || pttl <= 0;
+        if (!UrlValueCodec.isEncoded(value)) {
+            String url = new String(value, StandardCharsets.UTF_8);
+            if (noTtl) return ResolvedUrl.until(url, Instant.now()); // no usable TTL: do not let anyone cache it
+            local.put(code, url, Duration.ofMillis(pttl));
+            return ResolvedUrl.until(url, Instant.now().plusMillis(pttl));
+        }
+        UrlValueCodec.Decoded d = UrlValueCodec.decode(value);
+        if (!d.active()) return null;
+        if (noTtl) return ResolvedUrl.until(d.url(), Instant.now());
+        local.put(code, d.url(), Duration.ofMillis(pttl), d.expiresAt() == null);
+        return d.toResolved();
+    }
+
+    /** L1 is filled before the Redis write, so this instance serves the link even if Redis is down. */
     public void set(String code, String url, Instant expiresAt) {
-        Duration ttl = DEFAULT_TTL;
-        if (expiresAt != null) {
-            long secs = Duration.between(Instant.now(), expiresAt).getSeconds();
-            if (secs <= 0) { // already expired → ensure no cache
-                redis.delete(key(code));
-                return;
+        Duration ttl = ttlFor(expiresAt);
+        if (ttl == null) { // already expired → ensure no cache
+            delete(code);
+            return;
+        }
+        local.put(code, url, ttl, expiresAt == null);
+        byte[] v = encode(url, expiresAt);
+        guard.run(() -> {
+            if (buckets > 0) {
+                redis.execute((RedisCallback<List<Object>>) c -> {
+                    c.openPipeline();
+                    writeBucket(c, code, v, ttl);
+                    return c.closePipeline();
+                });
+            } else {
+                byte[] k = key(code).getBytes(StandardCharsets.UTF_8);
+                redis.execute((RedisCallback<Object>) c ->
+                        c.stringCommands().set(k, v, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
             }
-            ttl = Duration.ofSeconds(Math.min(secs, DEFAULT_TTL.getSeconds()));
+        });
+    }
+
+    /**
+     * Fire-and-forget {@link #set} for the miss path: fills L1 and sends the Redis write without waiting for it, so a
+     * slow Redis never delays the answer the DB already gave. A failed write only counts against the circuit breaker.
+     */
+    public void warm(String code, String url, Instant expiresAt) {
+        Duration ttl = ttlFor(expiresAt);
+        if (ttl == null) return;
+        local.put(code, url, ttl, expiresAt == null);
+        byte[] v = encode(url, expiresAt);
+        guard.<Object>callAsync(() -> async(cmds -> {
+            if (buckets == 0) {
+                return cmds.set(key(code).getBytes(StandardCharsets.UTF_8), v, SetArgs.Builder.px(ttl.toMillis()))
+                        .toCompletableFuture().thenApply(ok -> ok);
+            }
+            byte[] k = bucketKey(code).getBytes(StandardCharsets.UTF_8);
+            byte[] f = code.getBytes(StandardCharsets.UTF_8);
+            cmds.hset(k, f, v);
+            return cmds.dispatch(FieldTtl.HPEXPIRE, new IntegerListOutput<>(ByteArrayCodec.INSTANCE),
+                    fieldArgs(k, ttl.toMillis(), f)).toCompletableFuture().thenApply(n -> n);
+        })).whenComplete((r, ex) -> {
+            if (ex != null) log.debug("Cache warm for {} failed", code, ex);
+        });
+    }
+
+    /** Warm many entries with a single pipelined Redis round trip. */
+    public void setAll(Collection<Url> urls) {
+        if (urls.isEmpty()) return;
+        for (Url u : urls) {
+            Duration ttl = ttlFor(u.getExpiresAt());
+            if (ttl != null) local.put(u.getCode(), u.getLongUrl(), ttl, u.getExpiresAt() == null);
         }
-        redis.opsForValue().set(key(code), url, ttl);
+        guard.runBulk(() -> bulk.executePipelined((RedisCallback<Object>) c -> {
+            for (Url u : urls) {
+                Duration ttl = ttlFor(u.getExpiresAt());
+                if (ttl == null) {
+                    evict(c, u.getCode());
+                } else if (buckets > 0) {
+                    writeBucket(c, u.getCode(), encode(u.getLongUrl(), u.getExpiresAt()), ttl);
+                } else {
+                    byte[] k = key(u.getCode()).getBytes(StandardCharsets.UTF_8);
+                    c.stringCommands().setEx(k, ttl.getSeconds(), encode(u.getLongUrl(), u.getExpiresAt()));
+                }
+            }
+            return null;
+        }));
+    }
+
+    /** Redis value for an active link in the configured format. */
+    byte[] encode(String url, Instant expiresAt) {
+        return compact
+                ? UrlValueCodec.encode(url, expiresAt, UrlValueCodec.ACTIVE, compressMinBytes)
+                : url.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Idempotency index: url_hash → code, with the same TTL clamping as the code entry. */
+    public String getCodeByHash(String urlHash) {
+        return guard.call(() -> redis.opsForValue().get(hashKey(urlHash)));
+    }
+
+    public void setCodeByHash(String urlHash, String code, Instant expiresAt) {
+        Duration ttl = ttlFor(expiresAt);
+        if (ttl == null) return;
+        guard.run(() -> redis.opsForValue().set(hashKey(urlHash), code, ttl));
     }
 
     public void delete(String code) {
-        redis.delete(key(code));
+        local.invalidate(code);
+        guard.run(() -> {
+            if (buckets > 0) {
+                redis.execute((RedisCallback<List<Object>>) c -> {
+                    c.openPipeline();
+                    evict(c, code);
+                    return c.closePipeline();
+                });
+            } else {
+                redis.delete(key(code));
+            }
+        });
+    }
+
+    /** Evicts many codes (and their hash→code entries) in one pipelined round trip. */
+    public void deleteAll(Collection<String> codes, Collection<String> urlHashes) {
+        codes.forEach(local::invalidate);
+        guard.runBulk(() -> bulk.executePipelined((RedisCallback<Object>) c -> {
+            for (String code : codes) evict(c, code);
+            for (String h : urlHashes) c.keyCommands().del(hashKey(h).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }));
+    }
+
+    /**
+     * Moves the given {@code code:{code}} keys into their buckets, keeping value and remaining TTL, and deletes them:
+     * one pipelined read and one pipelined write per call. Returns how many were moved (the rest had expired).
+     */
+    int migrateKeys(List<String> codes) {
+        if (buckets == 0) throw new IllegalStateException("shortener.cache.layout is not buckets");
+        if (codes.isEmpty()) return 0;
+        List<Object> read = bulk.execute((RedisCallback<List<Object>>) c -> {
+            c.openPipeline();
+            for (String code : codes) {
+                byte[] k = key(code).getBytes(StandardCharsets.UTF_8);
+                c.stringCommands().get(k);
+                c.keyCommands().pTtl(k);
+            }
+            return c.closePipeline();
+        });
+        List<String> moved = new ArrayList<>();
+        bulk.execute((RedisCallback<List<Object>>) c -> {
+            c.openPipeline();
+            for (int i = 0; i < codes.size(); i++) {
+                byte[] value = (byte[]) read.get(2 * i);
+                Long pttl = (Long) read.get(2 * i + 1);
+                if (value == null) continue;
+                // a key without TTL was not written by this class; give it the default rather than none
+                Duration ttl = pttl == null || pttl < 0 ? DEFAULT_TTL : Duration.ofMillis(pttl);
+                if (ttl.isZero()) continue;
+                writeBucket(c, codes.get(i), value, ttl);
+                c.keyCommands().del(key(codes.get(i)).getBytes(StandardCharsets.UTF_8));
+                moved.add(codes.get(i));
+            }
+            return c.closePipeline();
+        });
+        return moved.size();
+    }
+
+    public boolean bucketed() {
+        return buckets > 0;
     }
 
-    private String key(String code) {
+    // HSET resets the field's TTL, so the value and its HPEXPIRE always go out together
+    private void writeBucket(RedisConnection c, String code, byte[] value, Duration ttl) {
+        byte[] k = bucketKey(code).getBytes(StandardCharsets.UTF_8);
+        byte[] f = code.getBytes(StandardCharsets.UTF_8);
+        c.hashCommands().hSet(k, f, value);
+        fieldTtlCommand(c, "HPEXPIRE", k, Long.toString(ttl.toMillis()).getBytes(StandardCharsets.US_ASCII), FIELDS, ONE, f);
+    }
+
+    private void evict(RedisConnection c, String code) {
+        if (buckets > 0) {
+            c.hashCommands().hDel(bucketKey(code).getBytes(StandardCharsets.UTF_8), code.getBytes(StandardCharsets.UTF_8));
+        }
+        if (buckets == 0 || legacyFallback) c.keyCommands().del(key(code).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Spring Data 3.1 has no API for hash-field TTLs (Redis 7.4), and its generic execute() cannot parse their
+    // array-of-integers reply; Lettuce's own execute() takes the output type and still queues when pipelined
+    @SuppressWarnings("unchecked")
+    private static List<Long> fieldTtlCommand(RedisConnection c, String command, byte[]... args) {
+        RedisConnection raw = c instanceof DecoratedRedisConnection d ? d.getDelegate() : c;
+        return (List<Long>) ((LettuceConnection) raw).execute(command, new IntegerListOutput<>(ByteArrayCodec.INSTANCE), args);
+    }
+
+    // [key, (ttl ms,) FIELDS, 1, field] for HPTTL / HPEXPIRE sent through the async dispatch
+    private static CommandArgs<byte[], byte[]> fieldArgs(byte[] key, long ttlMillis, byte[] field) {
+        return new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(key).add(ttlMillis).add("FIELDS").add(1).add(field);
+    }
+
+    private static CommandArgs<byte[], byte[]> fieldArgs(byte[] key, byte[] field) {
+        return new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(key).add("FIELDS").add(1).add(field);
+    }
+
+    private enum FieldTtl implements ProtocolKeyword {
+        HPTTL, HPEXPIRE;
+
+        private final byte[] bytes = name().getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(local.hitCount(), l2Hits.sum(), misses.sum());
+    }
+
+    /** Same counters as {@link #get}, for the reactive resolve path ({@link ReactiveUrlService}). */
+    void recordL2(boolean hit) {
+        if (hit) l2Hits.increment();
+        else misses.increment();
+    }
+
+    /** TTL clamped to expiresAt, or null when the link is already expired. */
+    static Duration ttlFor(Instant expiresAt) {
+        if (expiresAt == null) return DEFAULT_TTL;
+        long secs = Duration.between(Instant.now(), expiresAt).getSeconds();
+        if (secs <= 0) return null;
+        return Duration.ofSeconds(Math.min(secs, DEFAULT_TTL.getSeconds()));
+    }
+
+    static String key(String code) {
         return "code:" + code;
     }
-}
\ No newline at end of file
+
+    /**
+     * Bucketed layout: {@code codes:{hex bucket}}, field = code. With roughly 100 codes per bucket, each hash stays
+     * within hash-max-listpack-entries (128) and is stored as one listpack instead of a dictEntry, key object and
+     * expiry entry per code.
+     */
+    String bucketKey(String code) {
+        return "codes:" + Integer.toHexString(bucketOf(code, buckets));
+    }
+
+    // murmur3 finalizer over String.hashCode: sequential (leased) codes must not land in neighbouring buckets only
+    static int bucketOf(String code, int buckets) {
+        int h = code.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, buckets);
+    }
+
+    private String hashKey(String urlHash) {
+        return "hash:" + urlHash;
+    }
+
+    /** Lookup counters per tier; a lookup is served by L1, by L2 (Redis), or misses both. */
+    public record Stats(long l1Hits, long l2Hits, long misses) {
+
+        public long lookups() {
+            return l1Hits + l2Hits + misses;
+        }
+
+        /** Share of all lookups answered in-process. */
+        public double l1HitRatio() {
+            long total = lookups();
+            return total == 0 ? 0.0 : (double) l1Hits / total;
+        }
+
+        /** Share of L1 misses answered by Redis. */
+        public double l2HitRatio() {
+            long total = l2Hits + misses;
+            return total == 0 ? 0.0 : (double) l2Hits / total;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.laila.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+
+/**
+ * Per-layer timers for the resolve and create paths (percentile histograms, so p99 can be aggregated
+ * across instances in Prometheus), plus expired-link and code-collision counters. Comparing
+ * shortener.layer.latency with shortener.resolve.latency and http.server.requests splits a slow
+ * redirect into cache, Postgres and framework time.
+ */
+@Component
+public class UrlMetrics {
+
+    private final Timer resolve;
+    private final Timer create;
+    private final Timer cacheGet;
+    private final Timer cacheSet;
+    private final Timer dbFind;
+    private final Timer dbSave;
+    private final Counter expired;
+    private final Counter collisions;
+    private final Counter batchCollisions;
+
+    public UrlMetrics(MeterRegistry registry) {
+        this.resolve = timer(registry, "shortener.resolve.latency", null, null);
+        this.create = timer(registry, "shortener.create.latency", null, null);
+        this.cacheGet = timer(registry, "shortener.layer.latency", "cache", "get");
+        this.cacheSet = timer(registry, "shortener.layer.latency", "cache", "set");
+        this.dbFind = timer(registry, "shortener.layer.latency", "db", "find");
+        this.dbSave = timer(registry, "shortener.layer.latency", "db", "save");
+        this.expired = Counter.builder("shortener.resolve.expired")
+                .description("Codes found in the DB but past expires_at")
+                .register(registry);
+        this.collisions = Counter.builder("shortener.create.collisions")
+                .description("Generated codes that were already taken and had to be re-generated")
+                .tag("path", "single").register(registry);
+        this.batchCollisions = Counter.builder("shortener.create.collisions")
+                .description("Generated codes that were already taken and had to be re-generated")
+                .tag("path", "batch").register(registry);
+    }
+
+    /** Metrics kept in memory only, for tests and benchmarks. */
+    public static UrlMetrics inMemory() {
+        return new UrlMetrics(new SimpleMeterRegistry());
+    }
+
+    public Timer resolve() {
+        return resolve;
+    }
+
+    public Timer create() {
+        return create;
+    }
+
+    public Timer cacheGet() {
+        return cacheGet;
+    }
+
+    public Timer cacheSet() {
+        return cacheSet;
+    }
+
+    public Timer dbFind() {
+        return dbFind;
+    }
+
+    public Timer dbSave() {
+        return dbSave;
+    }
+
+    public Counter expired() {
+        return expired;
+    }
+
+    public Counter collisions() {
+        return collisions;
+    }
+
+    public Counter batchCollisions() {
+        return batchCollisions;
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String layer, String op) {
+        Timer.Builder b = Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))   // L1 hits are ~1 µs
+                .maximumExpectedValue(Duration.ofSeconds(10));
+        if (layer != null) b.tag("layer", layer).tag("op", op);
+        return b.register(registry);
+    }
+}
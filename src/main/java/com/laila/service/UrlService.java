@@ -2,87 +2,254 @@ package com.laila.service;
 
 import com.laila.dto.UrlDto;
 import com.laila.entities.Url;
+import com.laila.exception.AliasTakenException;
+import com.laila.exception.CacheException;
 import com.laila.exception.EntityNotFoundException;
-
-
+import com.laila.repository.ResolveTarget;
 import com.laila.repository.UrlRepository;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UrlService {
 
-    private static final int CODE_LENGTH = 8;   // 7 is OK; 8 = virtually zero retries
-    private static final int MAX_RETRIES = 5;
+    static final int MAX_RETRIES = 5;
+    static final int MAX_CODE_LENGTH = 10; // short_urls.code is VARCHAR(10)
+    private static final String UNIQUE_VIOLATION = "23505";
 
     private final UrlRepository repo;
     private final UrlCache cache;
+    private final ShortCodeFilter codeFilter;
+    private final CodeGenerator codeGenerator;
+    private final DbGate db;
+    private final UrlMetrics metrics;
+    private final ReadYourWrites readYourWrites;
+    private final RedisGuard guard;
+    private final AliasReservations aliases;
+    private final SingleFlight<String, ResolvedUrl> missLoads = new SingleFlight<>();
 
-    public UrlService(UrlRepository repo, UrlCache cache) {
+    public UrlService(UrlRepository repo, UrlCache cache, ShortCodeFilter codeFilter, CodeGenerator codeGenerator,
+                      DbGate db, UrlMetrics metrics, ReadYourWrites readYourWrites, RedisGuard guard,
+                      AliasReservations aliases) {
         this.repo = repo;
         this.cache = cache;
+        this.codeFilter = codeFilter;
+        this.codeGenerator = codeGenerator;
+        this.db = db;
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        this.guard = guard;
+        this.aliases = aliases;
     }
 
-    /** Create a short code (random Base62).  */
+    /**
+     * Create a short code (random Base62 or leased counter, see {@link CodeGenerator}).
+     * Re-submitting the same URL without an alias returns the existing code instead of inserting again.
+     */
     public String convertToShortUrl(UrlDto req) {
+        return metrics.create().record(() -> create(req));
+    }
+
+    private String create(UrlDto req) {
         if (req == null || !StringUtils.hasText(req.getLongUrl())) {
             throw new IllegalArgumentException("Url is required !");
         }
 
-        // 1) Custom alias path: DB enforces uniqueness on code
+        // 1) Custom alias path: a Redis reservation turns away taken aliases; the DB primary key stays the authority
         if (StringUtils.hasText(req.getAlias())) {
+            String alias = req.getAlias().trim();
+            if (alias.length() > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("alias: must be at most " + MAX_CODE_LENGTH + " characters");
+            }
             Url e = new Url();
-            e.setCode(req.getAlias().trim());
+            e.setCode(alias);
             e.setLongUrl(normalize(req.getLongUrl()));
             e.setCustom(true);
             e.setCreatedAt(Instant.now());
             e.setExpiresAt(req.getExpirationDate());
 
-            Url saved = repo.save(e);
-            cache.set(saved.getCode(), saved.getLongUrl(), saved.getExpiresAt());
+            String reservation = aliases.reserve(alias);
+            Url saved;
+            try {
+                saved = db.call(() -> metrics.dbSave().record(() -> repo.save(e)));
+            } catch (DataIntegrityViolationException ex) {
+                // the row has no url_hash, so the only unique key it can hit is the code
+                if (!isUniqueViolation(ex)) {
+                    aliases.release(alias, reservation);
+                    throw ex;
+                }
+                aliases.markTaken(alias); // known to Redis from now on
+                throw new AliasTakenException(alias);
+            } catch (RuntimeException ex) {
+                aliases.release(alias, reservation);
+                throw ex;
+            }
+            aliases.markTaken(alias);
+            codeFilter.add(saved.getCode());
+            readYourWrites.wrote(saved.getCode());
+            warm(saved);
             return saved.getCode();
         }
 
-        // 2) Auto-generate random code and retry on very-rare duplicate
+        // 2) Idempotent path: the same normalized URL (and expiry) maps to the same code
+        String longUrl = normalize(req.getLongUrl());
+        String hash = urlHash(longUrl, req.getExpirationDate());
+        String existing = findCodeByHash(hash);
+        if (existing != null) return existing;
+
+        // 3) Auto-generate code and retry on very-rare duplicate
         DataIntegrityViolationException last = null;
         for (int i = 0; i < MAX_RETRIES; i++) {
-            String code = Base62Generator.randomCode(CODE_LENGTH);
+            String code = codeGenerator.nextCode();
             try {
                 Url e = new Url();
                 e.setCode(code);
-                e.setLongUrl(normalize(req.getLongUrl()));
+                e.setLongUrl(longUrl);
+                e.setUrlHash(hash);
                 e.setCustom(false);
                 e.setCreatedAt(Instant.now());
                 e.setExpiresAt(req.getExpirationDate());
 
-                Url saved = repo.save(e);
-                cache.set(saved.getCode(), saved.getLongUrl(), saved.getExpiresAt());
+                Url saved = db.call(() -> metrics.dbSave().record(() -> repo.save(e)));
+                codeFilter.add(saved.getCode());
+                readYourWrites.wrote(saved.getCode());
+                warm(saved);
+                setCodeByHash(hash, saved.getCode(), saved.getExpiresAt());
                 return saved.getCode();
             } catch (DataIntegrityViolationException dup) {
-                last = dup; // collision on code (extremely rare) — try again
+                last = dup; // collision on code (extremely rare), or a concurrent create of the same URL
+                String winner = findCodeByHash(hash);
+                if (winner != null) return winner;
+                metrics.collisions().increment();
             }
         }
         throw last != null ? last : new IllegalStateException("Failed to create short code");
     }
 
-    /** Resolve a short code → original URL. Uses Redis cache first, DB on miss, then warms cache. */
+    /**
+     * Resolve a short code → original URL. Codes the negative filter knows are absent are rejected up front;
+     * otherwise uses the cache first, DB on miss, then warms cache. Concurrent misses for one code share a single DB load.
+     * A slow or failing Redis never fails the call: see {@link RedisGuard#firstOf}.
+     */
     public String getOriginalUrl(String code) {
-        String cached = cache.get(code);
+        return resolve(code).url();
+    }
+
+    /** Like {@link #getOriginalUrl}, plus how long the answer may be cached (for redirect caching headers). */
+    public ResolvedUrl resolve(String code) {
+        return metrics.resolve().record(() -> lookup(code));
+    }
+
+    private ResolvedUrl lookup(String code) {
+        if (codeFilter.isDefinitelyAbsent(code)) {
+            throw new EntityNotFoundException("URL not found or expired: " + code);
+        }
+        long started = System.nanoTime();
+        CompletableFuture<ResolvedUrl> cached = cache.lookupAsync(code)
+                .whenComplete((r, ex) -> metrics.cacheGet().record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        ResolvedUrl resolved = guard.firstOf(cached, () -> missLoads.execute(code, () -> loadAndWarm(code)));
+        if (resolved == null) throw new EntityNotFoundException("URL not found or expired: " + code);
+        return resolved;
+    }
+
+    /** Number of cache-miss DB loads executed, and how many concurrent misses were folded into them. */
+    public SingleFlight<String, ResolvedUrl> missLoads() {
+        return missLoads;
+    }
+
+    // runs once per code per burst of concurrent misses; null = not found, deleted or expired
+    private ResolvedUrl loadAndWarm(String code) {
+        ResolveTarget t = db.call(() -> metrics.dbFind().record(
+                () -> readYourWrites.readConfirmingMiss(code, () -> repo.findResolveTarget(code)))).orElse(null);
+        if (t != null && t.expiresAt() != null && !Instant.now().isBefore(t.expiresAt())) {
+            metrics.expired().increment();
+            t = null;
+        }
+        if (t == null) {
+            codeFilter.rememberMiss(code);
+            return null;
+        }
+        String longUrl = t.longUrl();
+        Instant expiresAt = t.expiresAt();
+        metrics.cacheSet().record(() -> cache.warm(code, longUrl, expiresAt));
+        return expiresAt == null ? ResolvedUrl.permanent(longUrl) : ResolvedUrl.until(longUrl, expiresAt);
+    }
+
+    // the row is committed: a Redis failure here only costs the first resolve a DB load
+    private void warm(Url e) {
+        try {
+            metrics.cacheSet().record(() -> cache.set(e.getCode(), e.getLongUrl(), e.getExpiresAt()));
+        } catch (CacheException ignored) {
+        }
+    }
+
+    private void setCodeByHash(String hash, String code, Instant expiresAt) {
+        try {
+            cache.setCodeByHash(hash, code, expiresAt);
+        } catch (CacheException ignored) {
+        }
+    }
+
+    /** Existing live code for this URL hash: Redis hash→code cache first, then the url_hash index. */
+    private String findCodeByHash(String hash) {
+        String cached;
+        try {
+            cached = cache.getCodeByHash(hash);
+        } catch (CacheException ex) {
+            cached = null; // the url_hash index answers the same question
+        }
         if (cached != null) return cached;
 
-        Url e = repo.findById(code)
-                .filter(it -> it.getExpiresAt() == null || Instant.now().isBefore(it.getExpiresAt()))
-                .orElseThrow(() -> new EntityNotFoundException("URL not found or expired: " + code));
+        Url e = db.call(() -> readYourWrites.onPrimary(() -> repo.findByUrlHash(hash))).orElse(null);
+        if (e == null) return null;
+        if (!isResolvable(e)) {
+            db.call(() -> repo.releaseUrlHash(e.getCode())); // dead row keeps its hash → free it for a new link
+            return null;
+        }
+        setCodeByHash(hash, e.getCode(), e.getExpiresAt());
+        return e.getCode();
+    }
 
-        cache.set(e.getCode(), e.getLongUrl(), e.getExpiresAt());
-        return e.getLongUrl();
+    static boolean isResolvable(Url e) {
+        return (e.getStatus() == null || e.getStatus() == 1)
+                && (e.getExpiresAt() == null || Instant.now().isBefore(e.getExpiresAt()));
+    }
+
+    /** A unique-constraint violation (SQLState 23505), as opposed to e.g. a too-long value or a missing user. */
+    static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
+
+    /** SHA-256 (hex) of the normalized URL, plus the expiry so links with different lifetimes stay distinct. */
+    static String urlHash(String normalizedUrl, Instant expiresAt) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+            if (expiresAt != null) {
+                md.update((byte) '|');
+                md.update(expiresAt.toString().getBytes(StandardCharsets.US_ASCII));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
     }
 
     // add http:// when scheme is missing
-    private String normalize(String u) {
+    static String normalize(String u) {
         String s = u.trim();
         String lower = s.toLowerCase();
         if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
@@ -0,0 +1,232 @@
+package com.laila.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * Compact Redis value for {@code code:{code}} entries. Layout (version 1):
+ * <pre>
+ *   byte 0     0x01 format version (a legacy value is a plain URL, which always starts with "http")
+ *   byte 1     flags: bit 0 = has expiry, bits 1-2 = dictionary id (0 = stored as is), bits 4-6 = URL prefix id
+ *   byte 2     status (short_urls.status)
+ *   varint     expiry, epoch seconds rounded down (only with bit 0)
+ *   varint     tail length in bytes before compression (only with a dictionary)
+ *   rest       URL after the prefix, UTF-8, or raw deflate against the preset dictionary
+ * </pre>
+ * Decoding writes prefix and tail into one per-thread scratch buffer, so a hit costs a single String allocation.
+ */
+final class UrlValueCodec {
+
+    static final byte VERSION = 0x01;
+    static final short ACTIVE = 1;
+
+    private static final int HAS_EXPIRY = 1;
+    private static final int DICT_SHIFT = 1;
+    private static final int DICT_MASK = 0b11;
+    private static final int PREFIX_SHIFT = 4;
+    private static final int PREFIX_MASK = 0b111;
+    private static final int MAX_URL_BYTES = 64 * 1024;
+
+    // index = prefix id; longest first so encode() strips the longest match
+    private static final byte[][] PREFIXES = {
+            new byte[0],
+            "https://www.".getBytes(StandardCharsets.US_ASCII),
+            "http://www.".getBytes(StandardCharsets.US_ASCII),
+            "https://".getBytes(StandardCharsets.US_ASCII),
+            "http://".getBytes(StandardCharsets.US_ASCII),
+    };
+
+    // dictionary 1: common URL fragments, most frequent last (deflate reaches the end with the shortest distances).
+    // Never edit in place: values in Redis reference it by id. Ship a retrained dictionary as id 2.
+    private static final byte[] DICTIONARY_1 = (
+            "index.htmlarticle/2024/2025/products/category/search?q=id=page=ref=source=lang=en&sort=" +
+            "docs.google.com/document/d/drive.google.com/file/d/amazon.com/dp/linkedin.com/in/github.com/" +
+            "instagram.com/p/facebook.com/twitter.com/x.com/status/medium.com/@youtu.be/youtube.com/watch?v=" +
+            "&utm_content=&utm_term=&fbclid=&gclid=&utm_campaign=&utm_medium=email&utm_medium=social" +
+            "&utm_medium=cpc?utm_source=newsletter?utm_source=google?utm_source=.html.php.aspx" +
+            ".co.uk/.org/.net/.io/.com/"
+    ).getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private UrlValueCodec() {
+    }
+
+    /** True for a version-1 value; anything else is a legacy plain-string URL. */
+    static boolean isEncoded(byte[] value) {
+        return value != null && value.length >= 3 && value[0] == VERSION;
+    }
+
+    /** @param compressMinBytes URL tails at least this long are deflated (kept only if smaller); <= 0 disables */
+    static byte[] encode(String url, Instant expiresAt, short status, int compressMinBytes) {
+        byte[] utf8 = url.getBytes(StandardCharsets.UTF_8);
+        int prefix = prefixOf(utf8);
+        int tailOff = PREFIXES[prefix].length;
+        int tailLen = utf8.length - tailOff;
+
+        byte[] packed = null;
+        int packedLen = 0;
+        if (compressMinBytes > 0 && tailLen >= compressMinBytes) {
+            Scratch s = SCRATCH.get();
+            Deflater d = s.deflater();
+            d.reset();
+            d.setDictionary(DICTIONARY_1);
+            d.setInput(utf8, tailOff, tailLen);
+            d.finish();
+            byte[] out = s.buffer(tailLen + 64);
+            int n = 0;
+            while (!d.finished() && n < out.length) n += d.deflate(out, n, out.length - n);
+            if (d.finished() && n + varintSize(tailLen) < tailLen) {
+                packed = out;
+                packedLen = n;
+            }
+        }
+
+        int flags = prefix << PREFIX_SHIFT;
+        if (expiresAt != null) flags |= HAS_EXPIRY;
+        if (packed != null) flags |= 1 << DICT_SHIFT;
+
+        int size = 3 + (expiresAt != null ? varintSize(expiresAt.getEpochSecond()) : 0)
+                + (packed != null ? varintSize(tailLen) + packedLen : tailLen);
+        byte[] v = new byte[size];
+        v[0] = VERSION;
+        v[1] = (byte) flags;
+        v[2] = (byte) status;
+        int pos = 3;
+        if (expiresAt != null) pos = writeVarint(v, pos, expiresAt.getEpochSecond());
+        if (packed != null) {
+            pos = writeVarint(v, pos, tailLen);
+            System.arraycopy(packed, 0, v, pos, packedLen);
+        } else {
+            System.arraycopy(utf8, tailOff, v, pos, tailLen);
+        }
+        return v;
+    }
+
+    /** Decodes a version-1 value (see {@link #isEncoded}). */
+    static Decoded decode(byte[] v) {
+        int flags = v[1] & 0xFF;
+        short status = v[2];
+        int prefix = (flags >>> PREFIX_SHIFT) & PREFIX_MASK;
+        int dict = (flags >>> DICT_SHIFT) & DICT_MASK;
+        if (prefix >= PREFIXES.length) throw new IllegalArgumentException("Unknown URL prefix id " + prefix);
+
+        int[] pos = {3};
+        Instant expiresAt = (flags & HAS_EXPIRY) != 0 ? Instant.ofEpochSecond(readVarint(v, pos)) : null;
+        byte[] p = PREFIXES[prefix];
+
+        String url;
+        if (dict == 0) {
+            int tailLen = v.length - pos[0];
+            if (p.length == 0) {
+                url = new String(v, pos[0], tailLen, StandardCharsets.UTF_8);
+            } else {
+                byte[] buf = SCRATCH.get().buffer(p.length + tailLen);
+                System.arraycopy(p, 0, buf, 0, p.length);
+                System.arraycopy(v, pos[0], buf, p.length, tailLen);
+                url = new String(buf, 0, p.length + tailLen, StandardCharsets.UTF_8);
+            }
+        } else {
+            if (dict != 1) throw new IllegalArgumentException("Unknown dictionary id " + dict);
+            long tailLen = readVarint(v, pos);
+            if (tailLen > MAX_URL_BYTES) throw new IllegalArgumentException("Cached URL too long: " + tailLen);
+            url = inflate(v, pos[0], p, (int) tailLen);
+        }
+        return new Decoded(url, expiresAt, status);
+    }
+
+    private static String inflate(byte[] v, int off, byte[] prefix, int tailLen) {
+        Scratch s = SCRATCH.get();
+        Inflater inf = s.inflater();
+        inf.reset();
+        inf.setDictionary(DICTIONARY_1);
+        inf.setInput(v, off, v.length - off);
+        byte[] buf = s.buffer(prefix.length + tailLen);
+        System.arraycopy(prefix, 0, buf, 0, prefix.length);
+        try {
+            int n = 0;
+            while (n < tailLen) {
+                int r = inf.inflate(buf, prefix.length + n, tailLen - n);
+                if (r == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary())) break;
+                n += r;
+            }
+            if (n != tailLen) throw new IllegalArgumentException("Truncated cached URL");
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("Corrupt cached URL", ex);
+        }
+        return new String(buf, 0, prefix.length + tailLen, StandardCharsets.UTF_8);
+    }
+
+    private static int prefixOf(byte[] url) {
+        for (int i = 1; i < PREFIXES.length; i++) {
+            byte[] p = PREFIXES[i];
+            if (url.length >= p.length && Arrays.equals(url, 0, p.length, p, 0, p.length)) return i;
+        }
+        return 0;
+    }
+
+    private static int varintSize(long v) {
+        int n = 1;
+        while ((v >>>= 7) != 0) n++;
+        return n;
+    }
+
+    private static int writeVarint(byte[] out, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        return pos;
+    }
+
+    private static long readVarint(byte[] in, int[] pos) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in[pos[0]++];
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /** A decoded value; {@code expiresAt} null = permanent link. */
+    record Decoded(String url, Instant expiresAt, short status) {
+
+        boolean active() {
+            return status == ACTIVE;
+        }
+
+        ResolvedUrl toResolved() {
+            return expiresAt == null ? ResolvedUrl.permanent(url) : ResolvedUrl.until(url, expiresAt);
+        }
+    }
+
+    // Deflater/Inflater hold native zlib state: one pair per thread instead of one per call,
+    // created on first use so threads that only see uncompressed values never pay for them
+    private static final class Scratch {
+        private Deflater deflater;
+        private Inflater inflater;
+        byte[] buf = new byte[512];
+
+        Deflater deflater() {
+            if (deflater == null) deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+            return deflater;
+        }
+
+        Inflater inflater() {
+            if (inflater == null) inflater = new Inflater(true);
+            return inflater;
+        }
+
+        byte[] buffer(int min) {
+            if (buf.length < min) buf = new byte[Math.max(min, buf.length * 2)];
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- Click counts, folded in memory and flushed in batches (see ClickCounter)
+CREATE TABLE IF NOT EXISTS link_clicks (
+  code        VARCHAR(10) PRIMARY KEY REFERENCES short_urls(code) ON DELETE CASCADE,
+  clicks      BIGINT NOT NULL DEFAULT 0,
+  updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
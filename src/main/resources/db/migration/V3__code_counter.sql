@@ -0,0 +1,6 @@
+-- High-water marks of the Redis code counters (see LeasedBlockCodeGenerator): if the Redis key is lost,
+-- the counter is raised back above every id already handed out instead of restarting at 0
+CREATE TABLE IF NOT EXISTS code_counter (
+  name        VARCHAR(64) PRIMARY KEY,
+  high        BIGINT NOT NULL
+);
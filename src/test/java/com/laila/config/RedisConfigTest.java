@@ -0,0 +1,91 @@
+package com.laila.config;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RedisConfigTest {
+
+    @Test
+    void standalone_isTheDefault() {
+        MockEnvironment env = new MockEnvironment().withProperty("spring.data.redis.host", "cache-1");
+
+        RedisStandaloneConfiguration conf = assertInstanceOf(RedisStandaloneConfiguration.class, RedisConfig.topology(env));
+
+        assertEquals("cache-1", conf.getHostName());
+        assertEquals(6379, conf.getPort());
+        assertFalse(RedisConfig.client(env, null).getReadFrom().isPresent());
+    }
+
+    @Test
+    void sentinel_readsFromReplicas() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("shortener.redis.mode", "sentinel")
+                .withProperty("spring.data.redis.sentinel.master", "shortener")
+                .withProperty("spring.data.redis.sentinel.nodes", "s1:26379, s2:26379")
+                .withProperty("spring.data.redis.timeout", "500ms");
+
+        RedisSentinelConfiguration conf = assertInstanceOf(RedisSentinelConfiguration.class, RedisConfig.topology(env));
+        LettuceClientConfiguration client = RedisConfig.client(env, ReadFrom.REPLICA_PREFERRED);
+
+        assertEquals("shortener", conf.getMaster().getName());
+        assertEquals(2, conf.getSentinels().size());
+        assertEquals(ReadFrom.REPLICA_PREFERRED, client.getReadFrom().orElseThrow());
+        assertEquals(Duration.ofMillis(500), client.getCommandTimeout());
+    }
+
+    @Test
+    void cluster_refreshesTopology() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("shortener.redis.mode", "cluster")
+                .withProperty("spring.data.redis.cluster.nodes", "n1:6379,n2:6379,n3:6379")
+                .withProperty("shortener.redis.cluster.refresh-period", "10s");
+
+        RedisClusterConfiguration conf = assertInstanceOf(RedisClusterConfiguration.class, RedisConfig.topology(env));
+        ClusterClientOptions options = assertInstanceOf(ClusterClientOptions.class,
+                RedisConfig.client(env, null).getClientOptions().orElseThrow());
+
+        assertTrue(conf.getClusterNodes().contains(new RedisNode("n2", 6379)));
+        assertTrue(options.getTopologyRefreshOptions().isPeriodicRefreshEnabled());
+        assertEquals(Duration.ofSeconds(10), options.getTopologyRefreshOptions().getRefreshPeriod());
+        assertFalse(options.getTopologyRefreshOptions().getAdaptiveRefreshTriggers().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> RedisConfig.topology(new MockEnvironment().withProperty("shortener.redis.mode", "replicated")));
+    }
+
+    @Test
+    void cacheClient_usesTheCacheBudget() {
+        MockEnvironment standalone = new MockEnvironment().withProperty("shortener.cache.timeout", "30ms");
+        MockEnvironment sentinel = new MockEnvironment()
+                .withProperty("shortener.redis.mode", "sentinel")
+                .withProperty("shortener.redis.read-from", "replica");
+
+        assertEquals(Duration.ofMillis(30), RedisConfig.cacheClient(standalone).getCommandTimeout());
+        assertFalse(RedisConfig.cacheClient(standalone).getReadFrom().isPresent());
+        assertEquals(Duration.ofMillis(50), RedisConfig.cacheClient(sentinel).getCommandTimeout());
+        assertEquals(ReadFrom.REPLICA, RedisConfig.cacheClient(sentinel).getReadFrom().orElseThrow());
+    }
+
+    @Test
+    void poolWait_isBounded_byTheCommandTimeout() {
+        MockEnvironment unset = new MockEnvironment();
+        MockEnvironment set = new MockEnvironment().withProperty("spring.data.redis.lettuce.pool.max-wait", "500ms");
+
+        assertEquals(Duration.ofMillis(50), RedisConfig.maxWait(unset, Duration.ofMillis(50)));
+        assertEquals(Duration.ofMillis(500), RedisConfig.maxWait(set, Duration.ofSeconds(2)));
+        assertEquals(Duration.ofMillis(50), RedisConfig.maxWait(set, Duration.ofMillis(50))); // cache budget wins
+        assertEquals(Duration.ofMillis(50), RedisConfig.maxWait(
+                new MockEnvironment().withProperty("spring.data.redis.lettuce.pool.max-wait", "-1"), Duration.ofMillis(50)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.laila.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock HikariDataSource primary;
+    @Mock HikariDataSource replica0;
+    @Mock HikariDataSource replica1;
+    @Mock Connection primaryConn;
+    @Mock Connection replicaConn0;
+    @Mock Connection replicaConn1;
+
+    ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        when(replica0.getPoolName()).thenReturn("replica-0");
+        when(replica1.getPoolName()).thenReturn("replica-1");
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1), 60_000);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writes_and_nonReadOnly_work_stayOnPrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConn);
+
+        assertSame(primaryConn, routing.getConnection());
+        verifyNoInteractions(replicaConn0, replicaConn1);
+    }
+
+    @Test
+    void readOnly_transactions_roundRobin_over_replicas() throws SQLException {
+        when(replica0.getConnection()).thenReturn(replicaConn0);
+        when(replica1.getConnection()).thenReturn(replicaConn1);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(Set.of(replicaConn0, replicaConn1), new HashSet<>(List.of(routing.getConnection(), routing.getConnection())));
+        assertEquals(2, routing.replicaReads());
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void failingReplica_failsOver_untilProbeSucceeds() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConn);
+        when(replica0.getConnection()).thenThrow(new SQLException("down"));
+        when(replica1.getConnection()).thenThrow(new SQLException("down"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConn, routing.getConnection());
+        assertSame(primaryConn, routing.getConnection()); // both out of rotation now
+        assertEquals(0, routing.healthyReplicas());
+        assertSame(primaryConn, routing.getConnection());
+
+        doReturn(replicaConn0).when(replica0).getConnection();
+        when(replicaConn0.isValid(anyInt())).thenReturn(true);
+        routing.probe();
+
+        assertEquals(1, routing.healthyReplicas());
+        assertSame(replicaConn0, routing.getConnection());
+        assertEquals(3, routing.primaryFallbacks());
+    }
+}
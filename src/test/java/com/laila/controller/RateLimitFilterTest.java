@@ -0,0 +1,58 @@
+package com.laila.controller;
+
+import com.laila.service.RateLimiter;
+import com.laila.service.RateLimiter.Scope;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock RateLimiter limiter;
+    @Mock FilterChain chain;
+
+    @Test
+    void overLimit_gets429_withRetryAfter_andSkipsTheChain() throws Exception {
+        when(limiter.tryAcquire(Scope.REDIRECT_IP, "127.0.0.1", 1)).thenReturn(Duration.ofMillis(1500).toNanos());
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        new RateLimitFilter(limiter).doFilter(new MockHttpServletRequest("GET", "/aB9x2Q7"), res, chain);
+
+        assertEquals(429, res.getStatus());
+        assertEquals("2", res.getHeader("Retry-After"));
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void admitted_continues() throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/create-short");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        new RateLimitFilter(limiter).doFilter(req, res, chain);
+
+        verify(limiter).tryAcquire(Scope.CREATE_IP, "127.0.0.1", 1);
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void scopes() {
+        assertEquals(Scope.CREATE_IP, RateLimitFilter.scopeOf(new MockHttpServletRequest("POST", "/create-short")));
+        assertNull(RateLimitFilter.scopeOf(new MockHttpServletRequest("POST", "/create-short/batch"))); // per item, in the controller
+        assertEquals(Scope.REDIRECT_IP, RateLimitFilter.scopeOf(new MockHttpServletRequest("HEAD", "/aB9x2Q7")));
+        assertNull(RateLimitFilter.scopeOf(new MockHttpServletRequest("GET", "/swagger-ui/index.html")));
+        assertNull(RateLimitFilter.scopeOf(new MockHttpServletRequest("POST", "/aB9x2Q7")));
+    }
+}
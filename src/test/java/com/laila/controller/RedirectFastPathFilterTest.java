@@ -0,0 +1,119 @@
+package com.laila.controller;
+
+import com.laila.exception.EntityNotFoundException;
+import com.laila.service.ClickCounter;
+import com.laila.service.ResolvedUrl;
+import com.laila.service.UrlService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class RedirectFastPathFilterTest {
+
+    @Mock UrlService urlService;
+    @Mock ClickCounter clickCounter;
+    @Mock FilterChain chain;
+
+    RedirectFastPathFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RedirectFastPathFilter(urlService, clickCounter, new RedirectSemantics(301, 302, Duration.ofHours(1), 100),
+                "/error", "/actuator");
+    }
+
+    @Test
+    void validCode_isAnswered_withoutMvc() throws Exception {
+        when(urlService.resolve("aB9x2Q7")).thenReturn(ResolvedUrl.permanent("https://example.com/café"));
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/aB9x2Q7"), res, chain);
+
+        assertEquals(301, res.getStatus());
+        assertEquals("https://example.com/caf%C3%A9", res.getHeader("Location"));
+        assertEquals("public, max-age=3600", res.getHeader("Cache-Control"));
+        verify(clickCounter).record("aB9x2Q7");
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void matchingETag_gets304_and_no_click() throws Exception {
+        when(urlService.resolve("aB9x2Q7")).thenReturn(ResolvedUrl.until("https://example.com/", Instant.now().plusSeconds(600)));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/aB9x2Q7"), first, chain);
+        assertEquals(302, first.getStatus());
+        verify(clickCounter).record("aB9x2Q7");
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/aB9x2Q7");
+        conditional.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(conditional, second, chain);
+
+        assertEquals(304, second.getStatus());
+        verifyNoMoreInteractions(clickCounter);
+    }
+
+    @Test
+    void notFound_isAnswered_withoutMvc() throws Exception {
+        when(urlService.resolve("nope123")).thenThrow(new EntityNotFoundException("nope"));
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/nope123"), res, chain);
+
+        assertEquals(404, res.getStatus());
+        assertEquals("nope", res.getContentAsString());
+        verifyNoInteractions(chain, clickCounter);
+    }
+
+    @Test
+    void failedLookup_isNotRetried_inMvc() throws Exception {
+        when(urlService.resolve("aB9x2Q7")).thenThrow(new IllegalStateException("redis down"));
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/aB9x2Q7"), res, chain);
+
+        assertEquals(500, res.getStatus());
+        verify(urlService, times(1)).resolve("aB9x2Q7");
+        verifyNoInteractions(chain, clickCounter);
+    }
+
+    @Test
+    void nonCodePaths_and_methods_fallThrough_without_lookup() throws Exception {
+        for (MockHttpServletRequest req : new MockHttpServletRequest[]{
+                new MockHttpServletRequest("GET", "/swagger-ui.html"),
+                new MockHttpServletRequest("GET", "/v3/api-docs"),
+                new MockHttpServletRequest("GET", "/waytoolongcode"),
+                new MockHttpServletRequest("GET", "/"),
+                new MockHttpServletRequest("GET", "/error"),
+                new MockHttpServletRequest("GET", "/actuator"),
+                new MockHttpServletRequest("POST", "/create-short")}) {
+            filter.doFilter(req, new MockHttpServletResponse(), chain);
+        }
+
+        verify(chain, times(7)).doFilter(any(), any());
+        verifyNoInteractions(urlService);
+    }
+
+    @Test
+    void codeOf_honours_contextPath() {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/app/docs123");
+        req.setContextPath("/app");
+        assertEquals("docs123", RedirectFastPathFilter.codeOf(req));
+        assertNull(RedirectFastPathFilter.codeOf(new MockHttpServletRequest("GET", "/a/b")));
+    }
+}
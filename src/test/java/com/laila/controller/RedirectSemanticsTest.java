@@ -0,0 +1,58 @@
+package com.laila.controller;
+
+import com.laila.service.ResolvedUrl;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RedirectSemanticsTest {
+
+    private final RedirectSemantics semantics = new RedirectSemantics(308, 307, Duration.ofHours(1), 100);
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void permanentLink_usesPermanentStatus_and_fullMaxAge() {
+        RedirectSemantics.Redirect r = semantics.of(ResolvedUrl.permanent("https://a.com/"), now);
+
+        assertEquals(HttpStatus.PERMANENT_REDIRECT, r.status());
+        assertEquals("public, max-age=3600", r.cacheControl());
+        assertEquals(now.plusSeconds(3600), r.expires());
+    }
+
+    @Test
+    void expiringLink_neverCachedPastItsExpiry() {
+        RedirectSemantics.Redirect r = semantics.of(ResolvedUrl.until("https://a.com/", now.plusSeconds(90)), now);
+
+        assertEquals(HttpStatus.TEMPORARY_REDIRECT, r.status());
+        assertEquals("public, max-age=90", r.cacheControl());
+        assertEquals(now.plusSeconds(90), r.expires());
+
+        RedirectSemantics.Redirect last = semantics.of(ResolvedUrl.until("https://a.com/", now.plusMillis(400)), now);
+        assertEquals("no-cache", last.cacheControl());
+    }
+
+    @Test
+    void ifNoneMatch_matchingETag_gives304() {
+        RedirectSemantics.Redirect r = semantics.of(ResolvedUrl.permanent("https://a.com/"), now);
+
+        ResponseEntity<Void> hit = semantics.toResponse(r, "\"other\", W/" + r.etag());
+        assertEquals(HttpStatus.NOT_MODIFIED, hit.getStatusCode());
+        assertEquals(r.etag(), hit.getHeaders().getETag());
+
+        ResponseEntity<Void> miss = semantics.toResponse(r, "\"other\"");
+        assertEquals(HttpStatus.PERMANENT_REDIRECT, miss.getStatusCode());
+        assertEquals("https://a.com/", miss.getHeaders().getFirst("Location"));
+    }
+
+    @Test
+    void rejects_non_redirect_statuses() {
+        assertThrows(IllegalArgumentException.class, () -> new RedirectSemantics(302, 302, Duration.ofHours(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> new RedirectSemantics(301, 301, Duration.ofHours(1), 10));
+    }
+}
@@ -0,0 +1,73 @@
+package com.laila.repository;
+
+import com.laila.entities.Url;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+// V1 needs Postgres (citext): the schema comes from the entities. Not transactional, so every save commits
+// on its own as it does in UrlService.
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UrlRepositoryTest {
+
+    @Autowired UrlRepository repo;
+
+    @AfterEach
+    void tearDown() {
+        repo.deleteAll();
+    }
+
+    @Test
+    void save_of_a_new_url_with_a_taken_code_fails_and_keeps_the_original_row() {
+        repo.save(url("docs123", "https://original.com/"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> repo.save(url("docs123", "https://intruder.com/")));
+
+        assertEquals("https://original.com/", repo.findById("docs123").orElseThrow().getLongUrl());
+    }
+
+    @Test
+    void save_of_a_loaded_url_updates_it() {
+        repo.save(url("docs123", "https://original.com/"));
+        Url loaded = repo.findById("docs123").orElseThrow();
+        loaded.setStatus((short) 3);
+
+        repo.save(loaded);
+
+        assertEquals((short) 3, repo.findById("docs123").orElseThrow().getStatus());
+    }
+
+    @Test
+    void retire_frees_the_url_hash_for_re_shortening() {
+        Url u = url("docs123", "https://original.com/");
+        u.setUrlHash("h1");
+        repo.save(u);
+
+        assertEquals(1, repo.retire("docs123", (short) 3));
+        assertEquals(0, repo.retire("docs123", (short) 3)); // already deleted
+
+        Url retired = repo.findById("docs123").orElseThrow();
+        assertEquals((short) 3, retired.getStatus());
+        assertNull(retired.getUrlHash());
+        assertTrue(repo.findByUrlHash("h1").isEmpty());
+    }
+
+    private static Url url(String code, String longUrl) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl(longUrl);
+        u.setCustom(true);
+        u.setCreatedAt(Instant.now());
+        return u;
+    }
+}
@@ -0,0 +1,99 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.exception.AliasTakenException;
+import com.laila.repository.UrlRepository;
+import com.laila.support.InProcessRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+class AliasReservationsTest {
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate redis;
+    UrlRepository repo = mock(UrlRepository.class);
+    final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    AliasReservations aliases;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+        aliases = new AliasReservations(redis, repo, ReadYourWrites.disabled(), true, Duration.ofMinutes(2),
+                Duration.ofSeconds(30), Duration.ofDays(7), 100, now::get);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    @Test
+    void reserve_isExclusive_untilReleased() {
+        String token = aliases.reserve("docs123");
+
+        assertNotNull(token);
+        assertThrows(AliasTakenException.class, () -> aliases.reserve("docs123"));
+        aliases.release("docs123", "someone-else");
+        assertThrows(AliasTakenException.class, () -> aliases.reserve("docs123"));
+
+        aliases.release("docs123", token);
+        assertNotNull(aliases.reserve("docs123"));
+        assertEquals(2, aliases.rejected());
+    }
+
+    @Test
+    void markTaken_keepsRejecting_withLongTtl() {
+        aliases.reserve("docs123");
+        aliases.markTaken("docs123");
+
+        assertThrows(AliasTakenException.class, () -> aliases.reserve("docs123"));
+        assertEquals(AliasReservations.TAKEN, redis.opsForValue().get("reserved:docs123"));
+        assertTrue(redis.getExpire("reserved:docs123") > Duration.ofDays(6).toSeconds());
+        assertEquals(0, redis.opsForZSet().size(AliasReservations.PENDING_KEY));
+    }
+
+    @Test
+    void reconcile_settlesOnlyStaleReservations_againstTheDb() {
+        aliases.reserve("made1");
+        aliases.reserve("lost1");
+        now.addAndGet(Duration.ofSeconds(31).toMillis());
+        aliases.reserve("fresh1");
+        Url made = new Url();
+        made.setCode("made1");
+        when(repo.findAllById(any())).thenReturn(List.of(made));
+
+        assertEquals(2, aliases.reconcile());
+
+        assertEquals(AliasReservations.TAKEN, redis.opsForValue().get("reserved:made1"));
+        assertNull(redis.opsForValue().get("reserved:lost1"));
+        assertNotNull(redis.opsForValue().get("reserved:fresh1"));
+        assertEquals(1, redis.opsForZSet().size(AliasReservations.PENDING_KEY));
+    }
+
+    @Test
+    void redisDown_failsOpen() throws IOException {
+        server.close();
+
+        assertNull(aliases.reserve("docs123"));
+        aliases.markTaken("docs123"); // logged, not thrown
+        assertEquals(0, aliases.reconcile());
+    }
+}
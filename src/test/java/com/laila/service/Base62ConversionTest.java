@@ -54,6 +54,14 @@ class Base62ConversionTest {
         assertEquals("0Az", s);
     }
 
+    @Test
+    void encode_matches_known_values() {
+        assertEquals("0", Base62Generator.encode(0));
+        assertEquals("z", Base62Generator.encode(61));
+        assertEquals("10", Base62Generator.encode(62));
+        assertEquals("15ftgG", Base62Generator.encode(1_000_000_000L)); // README example
+    }
+
     @Test
     void large_sample_has_no_duplicates() {
         // Probabilistic smoke test: with 10_000 codes of length 8,
@@ -0,0 +1,40 @@
+package com.laila.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void no_false_negatives() {
+        BloomFilter f = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) f.put("c" + i);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(f.mightContain("c" + i), "false negative for c" + i);
+        }
+    }
+
+    @Test
+    void false_positive_rate_is_near_target() {
+        BloomFilter f = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) f.put(Base62Generator.randomCode(8));
+
+        int fp = 0, probes = 20_000;
+        for (int i = 0; i < probes; i++) {
+            if (f.mightContain("x" + Base62Generator.randomCode(9))) fp++;
+        }
+        assertTrue(fp < probes * 0.03, "false positive rate too high: " + fp + "/" + probes);
+    }
+
+    @Test
+    void redis_bitmap_uses_msb_first_order() {
+        BloomFilter f = new BloomFilter(100, 0.01);
+        f.put("abc");
+        byte[] bitmap = f.toRedisBitmap();
+        for (long bit : f.bitIndexes("abc")) {
+            int b = bitmap[(int) (bit >>> 3)] & 0xff;
+            assertNotEquals(0, b & (0x80 >>> (bit & 7)), "bit " + bit + " not set in Redis order");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.laila.service;
+
+import com.laila.dto.BulkRecordDto;
+import com.laila.entities.Url;
+import com.laila.repository.UrlCopyRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+class BulkExporterTest {
+
+    @Test
+    void exported_files_read_back_as_the_same_records() throws Exception {
+        Url plain = url("abc123", "https://a.com/x", null, false);
+        Url alias = url("docs", "https://b.com/?q=1,2&s=\"x\"", Instant.parse("2030-01-01T00:00:00Z"), true);
+        UrlCopyRepository copyRepo = mock(UrlCopyRepository.class);
+        when(copyRepo.exportAll(any())).thenAnswer(inv -> {
+            Consumer<Url> sink = inv.getArgument(0);
+            sink.accept(plain);
+            sink.accept(alias);
+            return 2L;
+        });
+        BulkExporter exporter = new BulkExporter(copyRepo, BulkImporterTest.JSON, Duration.ofHours(1));
+
+        for (BulkFormat format : BulkFormat.values()) {
+            StringWriter out = new StringWriter();
+            BulkReport report = exporter.exportTo(out, format);
+            assertEquals(2, report.written());
+
+            BulkFormat.Records records = format.open(new BufferedReader(new StringReader(out.toString())), BulkImporterTest.JSON);
+            assertEquals(BulkRecordDto.from(plain), records.next().record(), format.name());
+            assertEquals(BulkRecordDto.from(alias), records.next().record(), format.name());
+            assertNull(records.next());
+        }
+    }
+
+    @Test
+    void format_follows_the_file_extension_unless_named() {
+        assertEquals(BulkFormat.CSV, BulkFormat.of("", Path.of("/tmp/links.csv.gz")));
+        assertEquals(BulkFormat.JSONL, BulkFormat.of(null, Path.of("links.jsonl")));
+        assertEquals(BulkFormat.CSV, BulkFormat.of("csv", Path.of("links.jsonl")));
+    }
+
+    private static Url url(String code, String longUrl, Instant expiresAt, boolean custom) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl(longUrl);
+        u.setCreatedAt(Instant.parse("2024-05-01T10:00:00Z"));
+        u.setExpiresAt(expiresAt);
+        u.setCustom(custom);
+        return u;
+    }
+}
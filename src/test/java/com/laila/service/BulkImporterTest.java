@@ -0,0 +1,151 @@
+package com.laila.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.laila.entities.Url;
+import com.laila.repository.UrlBatchRepository;
+import com.laila.repository.UrlCopyRepository;
+import com.laila.repository.UrlRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class BulkImporterTest {
+
+    static final ObjectMapper JSON = JsonMapper.builder().findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @Mock UrlCopyRepository copyRepo;
+    @Mock UrlCopyRepository.CopySession session;
+    @Mock UrlBatchRepository batchRepo;
+    @Mock UrlRepository repo;
+    @Mock CodeGenerator codeGenerator;
+    @Mock ShortCodeFilter codeFilter;
+
+    BulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        when(copyRepo.openImport()).thenReturn(session);
+        importer = new BulkImporter(copyRepo, batchRepo, repo, codeGenerator, codeFilter, ReadYourWrites.disabled(), JSON,
+                2, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    void copies_normalized_rows_in_chunks_and_rejects_bad_lines() throws Exception {
+        when(codeGenerator.nextCode()).thenReturn("g1", "g2");
+        when(session.insert(anyList())).thenAnswer(inv -> codes(inv.getArgument(0)));
+        String input = """
+                {"longUrl":"example.com/a"}
+                not json
+                {"code":"legacy1","longUrl":" https://b.com ","createdAt":"2020-01-01T00:00:00Z"}
+
+                {"alias":"docs","longUrl":"https://c.com","expirationDate":"2030-01-01T00:00:00Z"}
+                {"longUrl":"https://d.com","code":"x y"}
+                """;
+        StringWriter rejects = new StringWriter();
+
+        BulkReport r = importer.importFrom(new BufferedReader(new StringReader(input)), BulkFormat.JSONL, rejects);
+
+        assertEquals(5, r.read());
+        assertEquals(3, r.written());
+        assertEquals(2, r.rejected());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Url>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(session, times(2)).insert(chunks.capture());
+        List<Url> first = chunks.getAllValues().get(0);
+        assertEquals(List.of("g1", "legacy1"), first.stream().map(Url::getCode).toList());
+        assertEquals("http://example.com/a", first.get(0).getLongUrl());
+        assertEquals(UrlService.urlHash("http://example.com/a", null), first.get(0).getUrlHash());
+        assertEquals("https://b.com", first.get(1).getLongUrl());
+        assertEquals("2020-01-01T00:00:00Z", first.get(1).getCreatedAt().toString());
+        Url alias = chunks.getAllValues().get(1).get(0);
+        assertTrue(alias.getCustom());
+        assertNull(alias.getUrlHash());
+        assertTrue(rejects.toString().startsWith("2\t"));
+        assertTrue(rejects.toString().contains("6\tcode must be"));
+        verify(codeFilter).addAll(List.of("g1", "legacy1"));
+        verify(codeFilter).addAll(List.of("docs"));
+        verify(session).close();
+        verifyNoInteractions(batchRepo);
+    }
+
+    @Test
+    void redraws_collided_codes_and_settles_duplicates_and_taken_codes() throws Exception {
+        when(codeGenerator.nextCode()).thenReturn("taken", "g2", "fresh");
+        when(session.insert(anyList())).thenReturn(Set.of());
+        Url other = url("taken", "https://someone-else.com", null);
+        Url same = url("old", "https://dup.com", UrlService.urlHash("https://dup.com", null));
+        Url legacyHolder = url("legacy1", "https://not-mine.com", null);
+        when(repo.findAllById(anyList())).thenReturn(List.of(other, legacyHolder));
+        when(repo.findByUrlHashIn(anyList())).thenReturn(List.of(same));
+        when(batchRepo.insertIgnoringConflicts(anyList(), anyInt())).thenReturn(new boolean[]{true});
+        String input = """
+                {"longUrl":"https://new.com"}
+                {"longUrl":"https://dup.com"}
+                {"code":"legacy1","longUrl":"https://mine.com"}
+                """;
+        StringWriter rejects = new StringWriter();
+        importer = new BulkImporter(copyRepo, batchRepo, repo, codeGenerator, codeFilter, ReadYourWrites.disabled(), JSON,
+                10, 100, Duration.ofHours(1));
+
+        BulkReport r = importer.importFrom(new BufferedReader(new StringReader(input)), BulkFormat.JSONL, rejects);
+
+        assertEquals(1, r.written());
+        assertEquals(1, r.duplicates());
+        assertEquals(1, r.recoded());
+        assertEquals(1, r.rejected());
+        assertTrue(rejects.toString().startsWith("3\tCode legacy1 is taken"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Url>> retried = ArgumentCaptor.forClass(List.class);
+        verify(batchRepo).insertIgnoringConflicts(retried.capture(), eq(100));
+        assertEquals(List.of("fresh"), retried.getValue().stream().map(Url::getCode).toList());
+        verify(codeFilter).addAll(List.of("fresh"));
+    }
+
+    @Test
+    void reads_csv_with_header_and_quoted_fields() throws Exception {
+        when(session.insert(anyList())).thenAnswer(inv -> codes(inv.getArgument(0)));
+        String input = "status,longUrl,code\n1,\"https://e.com/?q=a,b&x=\"\"y\"\"\",keep1\n";
+
+        BulkReport r = importer.importFrom(new BufferedReader(new StringReader(input)), BulkFormat.CSV, null);
+
+        assertEquals(1, r.written());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Url>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(session).insert(chunk.capture());
+        assertEquals("https://e.com/?q=a,b&x=\"y\"", chunk.getValue().get(0).getLongUrl());
+        assertEquals("keep1", chunk.getValue().get(0).getCode());
+        assertFalse(chunk.getValue().get(0).getCustom());
+    }
+
+    private static Set<String> codes(List<Url> rows) {
+        return Set.copyOf(rows.stream().map(Url::getCode).toList());
+    }
+
+    private static Url url(String code, String longUrl, String hash) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl(longUrl);
+        u.setUrlHash(hash);
+        return u;
+    }
+}
@@ -0,0 +1,119 @@
+package com.laila.service;
+
+import com.laila.support.InProcessRedis;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.IntegerListOutput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DecoratedRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CacheLayoutMigratorTest {
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate redis;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    private UrlCache bucketed(boolean legacyFallback) {
+        return new UrlCache(redis, new LocalUrlCache(false, 0, 0, Duration.ZERO), RedisGuard.passThrough(), "compact", 80, "buckets", 4, legacyFallback);
+    }
+
+    @Test
+    void buckets_roundTrip_withFieldTtl_and_delete() {
+        UrlCache cache = bucketed(false);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        cache.set("abc", "https://a.com/", expiresAt);
+        cache.set("xyz", "https://x.com/", null);
+
+        assertEquals(ResolvedUrl.until("https://a.com/", expiresAt.truncatedTo(ChronoUnit.SECONDS)),
+                cache.lookup("abc"));
+        assertTrue(cache.lookup("xyz").permanent());
+        assertFalse(redis.hasKey("code:abc"));
+        assertNotNull(redis.opsForHash().get(cache.bucketKey("abc"), "abc"));
+
+        cache.delete("abc");
+        assertNull(cache.lookup("abc"));
+        assertEquals("https://x.com/", cache.get("xyz"));
+    }
+
+    @Test
+    void warm_and_lookupAsync_goThroughTheNativeAsyncConnection() throws Exception {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        UrlCache keys = new UrlCache(redis, new LocalUrlCache(false, 0, 0, Duration.ZERO));
+
+        for (UrlCache cache : List.of(bucketed(false), keys)) {
+            cache.warm("abc", "https://a.com/", expiresAt); // same shared connection: the lookup queues behind the write
+            assertEquals(ResolvedUrl.until("https://a.com/", expiresAt.truncatedTo(ChronoUnit.SECONDS)),
+                    cache.lookupAsync("abc").get());
+            assertNull(cache.lookupAsync("nope").get());
+        }
+        assertTrue(redis.getExpire("code:abc") > 500);
+    }
+
+    @Test
+    void bucketOf_spreadsSequentialCodes() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 64; i++) used.add(UrlCache.bucketOf(Base62Generator.encode(1_000_000 + i), 16));
+        assertEquals(16, used.size());
+    }
+
+    @Test
+    void migrate_movesKeys_keepingTtl_and_fallbackServesUnmovedKeys() {
+        UrlCache keys = new UrlCache(redis, new LocalUrlCache(false, 0, 0, Duration.ZERO));
+        keys.set("k1", "https://one.com/", null);
+        keys.set("k2", "https://two.com/", Instant.now().plusSeconds(120));
+        redis.opsForValue().set("code:k3", "https://legacy.com/", Duration.ofMinutes(5)); // plain value
+        UrlCache cache = bucketed(true);
+
+        assertEquals("https://legacy.com/", cache.get("k3")); // not moved yet: read from the old key
+
+        assertEquals(3, new CacheLayoutMigrator(redis, cache, 500).migrate());
+
+        assertTrue(redis.keys("code:*").isEmpty());
+        assertEquals("https://one.com/", cache.get("k1"));
+        assertTrue(cache.lookup("k1").permanent());
+        assertEquals("https://legacy.com/", cache.get("k3"));
+        List<Long> ttl = fieldTtl(cache, "k2");
+        assertTrue(ttl.get(0) > 0 && ttl.get(0) <= 120_000, "field TTL " + ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> fieldTtl(UrlCache cache, String code) {
+        return (List<Long>) redis.execute((RedisCallback<Object>) c ->
+                ((LettuceConnection) ((DecoratedRedisConnection) c).getDelegate()).execute("HPTTL",
+                        new IntegerListOutput<>(ByteArrayCodec.INSTANCE),
+                        cache.bucketKey(code).getBytes(StandardCharsets.UTF_8), "FIELDS".getBytes(), "1".getBytes(),
+                        code.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.laila.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 0.5, 4, Duration.ofSeconds(5), now::get);
+
+    @Test
+    void staysClosed_belowMinCalls_and_belowFailureRate() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure(); // 3 of 3 failed, but fewer than min-calls
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        for (int i = 0; i < 7; i++) breaker.onSuccess(); // 3 of 10
+        breaker.onFailure(); // the oldest failure drops out of the window: still 3 of 10
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void trips_thenShortCircuits_untilOpenForElapses() {
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, breaker.shortCircuited());
+        assertEquals(1, breaker.trips());
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest()); // a single trial call at a time
+    }
+
+    @Test
+    void trialSuccess_closes_trialFailure_reopens() {
+        for (int i = 0; i < 4; i++) breaker.onFailure();
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onFailure(); // fresh window: one failure is below min-calls
+        assertTrue(breaker.allowRequest());
+        assertEquals(1, breaker.trips());
+    }
+}
@@ -0,0 +1,95 @@
+package com.laila.service;
+
+import com.laila.repository.ClickRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ClickCounterTest {
+
+    @Mock ClickRepository repo;
+
+    @Test
+    void flush_folds_clicks_per_code_into_one_batch() {
+        ClickCounter counter = new ClickCounter(repo, true, 100, 50);
+        Map<String, Long> written = new HashMap<>();
+        doAnswer(inv -> { written.putAll(inv.getArgument(0)); return null; })
+                .when(repo).incrementAll(anyMap(), eq(50));
+
+        counter.record("a");
+        counter.record("b");
+        counter.record("a");
+        counter.flush();
+
+        assertEquals(Map.of("a", 2L, "b", 1L), written);
+        assertEquals(3, counter.flushed());
+        assertEquals(0, counter.buffered());
+
+        counter.flush(); // nothing buffered → no write
+        verify(repo, times(1)).incrementAll(anyMap(), anyInt());
+    }
+
+    @Test
+    void overflow_is_dropped_and_counted() {
+        ClickCounter counter = new ClickCounter(repo, true, 2, 50);
+
+        counter.record("a");
+        counter.record("a");
+        counter.record("a");
+
+        // capacity is split across thread stripes, so a single thread may see less than the total
+        assertEquals(3, counter.accepted() + counter.dropped());
+        assertTrue(counter.dropped() >= 1);
+        assertTrue(counter.buffered() <= 2);
+    }
+
+    @Test
+    void failed_flush_keeps_increments_for_the_next_tick() {
+        ClickCounter counter = new ClickCounter(repo, true, 100, 50);
+        Map<String, Long> written = new HashMap<>();
+        doThrow(new RuntimeException("db down"))
+                .doAnswer(inv -> { written.putAll(inv.getArgument(0)); return null; })
+                .when(repo).incrementAll(anyMap(), anyInt());
+
+        counter.record("a");
+        counter.flush();
+        counter.record("a");
+        counter.flush();
+
+        verify(repo, times(2)).incrementAll(anyMap(), anyInt());
+        assertEquals(Map.of("a", 2L), written);
+        assertEquals(2, counter.flushed());
+    }
+
+    @Test
+    void increments_held_through_failed_flushes_are_bounded() {
+        ClickCounter counter = new ClickCounter(repo, true, 2, 50);
+        Map<String, Long> written = new HashMap<>();
+        doThrow(new RuntimeException("db down"))
+                .doThrow(new RuntimeException("db down"))
+                .doAnswer(inv -> { written.putAll(inv.getArgument(0)); return null; })
+                .when(repo).incrementAll(anyMap(), anyInt());
+
+        counter.record("a");
+        counter.flush();
+        counter.record("b");
+        counter.flush();
+        counter.record("c"); // a third distinct code while two are still held
+        counter.flush();
+
+        assertEquals(Map.of("a", 1L, "b", 1L), written);
+        assertEquals(1, counter.dropped());
+    }
+}
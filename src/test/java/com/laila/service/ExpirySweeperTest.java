@@ -0,0 +1,135 @@
+package com.laila.service;
+
+import com.laila.exception.CacheException;
+import com.laila.repository.ExpiryRepository;
+import com.laila.repository.ExpiryRepository.ExpiredRow;
+import com.laila.support.InProcessRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ExpirySweeperTest {
+
+    @Mock ExpiryRepository repo;
+    @Mock ApplicationEventPublisher events;
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate redis;
+    ExpirySweeper sweeper;
+
+    private final Instant t1 = Instant.parse("2026-01-01T00:00:00Z");
+    private final Instant t2 = Instant.parse("2026-01-02T00:00:00Z");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+        UrlCache cache = new UrlCache(redis, new LocalUrlCache(true, 100, 0, Duration.ofMinutes(10)));
+        sweeper = new ExpirySweeper(repo, cache, redis, events, true, 2, 1000, 1.0, Duration.ofMinutes(1), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    @Test
+    void sweep_pagesByKeyset_marksRows_and_dropsRedisKeys() {
+        redis.opsForValue().set("code:a", "https://a.com/");
+        redis.opsForValue().set("code:c", "https://c.com/");
+        when(repo.findExpired(any(), eq(Instant.EPOCH), eq(""), eq(2)))
+                .thenReturn(List.of(new ExpiredRow("a", t1, "h1"), new ExpiredRow("b", t1, null)));
+        when(repo.findExpired(any(), eq(t1), eq("b"), eq(2)))
+                .thenReturn(List.of(new ExpiredRow("c", t2, null)));
+        when(repo.markExpired(anyList(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        assertEquals(3, sweeper.sweep());
+
+        verify(repo, times(2)).findExpired(any(), any(), any(), anyInt()); // short page ends the run
+        assertFalse(redis.hasKey("code:a"));
+        assertFalse(redis.hasKey("code:c"));
+        assertFalse(redis.hasKey(ExpirySweeper.LEASE_KEY));
+        assertTrue(redis.opsForValue().get(ExpirySweeper.CURSOR_KEY).startsWith(t2 + " c "));
+        for (String code : List.of("a", "b", "c")) {
+            verify(events).publishEvent(new LinkStatusChangedEvent(code, LinkStatusService.EXPIRED));
+        }
+    }
+
+    @Test
+    void cacheFailure_keepsSweeping_and_advancesTheCursor() {
+        UrlCache down = mock(UrlCache.class);
+        doThrow(new CacheException("Redis circuit open")).when(down).deleteAll(anyList(), anyList());
+        ExpirySweeper sweeper = new ExpirySweeper(repo, down, redis, events, true, 2, 1000, 1.0, Duration.ofMinutes(1), Duration.ofHours(1));
+        when(repo.findExpired(any(), eq(Instant.EPOCH), eq(""), eq(2)))
+                .thenReturn(List.of(new ExpiredRow("a", t1, "h1"), new ExpiredRow("b", t1, null)));
+        when(repo.findExpired(any(), eq(t1), eq("b"), eq(2)))
+                .thenReturn(List.of(new ExpiredRow("c", t2, null)));
+        when(repo.markExpired(anyList(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        assertEquals(3, sweeper.sweep());
+
+        verify(down, times(2)).deleteAll(anyList(), anyList());
+        assertTrue(redis.opsForValue().get(ExpirySweeper.CURSOR_KEY).startsWith(t2 + " c "));
+    }
+
+    @Test
+    void nextRun_resumesFromStoredCursor() {
+        redis.opsForValue().set(ExpirySweeper.CURSOR_KEY, t2 + " c " + Instant.now());
+        when(repo.findExpired(any(), eq(t2), eq("c"), eq(2))).thenReturn(List.of());
+
+        assertEquals(0, sweeper.sweep());
+
+        verify(repo, never()).markExpired(anyList(), any());
+    }
+
+    @Test
+    void rowInsertedBehindTheCursor_isSwept_byTheNextFullPass() {
+        when(repo.markExpired(anyList(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        // a pass at t2 is under way; then a row expiring at t1 (an import with a historical date) is inserted
+        redis.opsForValue().set(ExpirySweeper.CURSOR_KEY, t2 + " c " + Instant.now().minus(Duration.ofMinutes(5)));
+        when(repo.findExpired(any(), eq(t2), eq("c"), eq(2))).thenReturn(List.of());
+        assertEquals(0, sweeper.sweep()); // behind the cursor: this pass cannot see it
+
+        redis.opsForValue().set(ExpirySweeper.CURSOR_KEY, t2 + " c " + Instant.now().minus(Duration.ofHours(2)));
+        when(repo.findExpired(any(), eq(Instant.EPOCH), eq(""), eq(2))).thenReturn(List.of(new ExpiredRow("old", t1, null)));
+
+        assertEquals(1, sweeper.sweep()); // the pass is over cursor-ttl (1h) old: it starts over
+
+        verify(repo).markExpired(eq(List.of(new ExpiredRow("old", t1, null))), any());
+        assertTrue(redis.opsForValue().get(ExpirySweeper.CURSOR_KEY).startsWith(t1 + " old "));
+    }
+
+    @Test
+    void leaseHeldElsewhere_skipsRun() {
+        redis.opsForValue().set(ExpirySweeper.LEASE_KEY, "other-instance", Duration.ofMinutes(1));
+
+        assertEquals(-1, sweeper.sweep());
+
+        verifyNoInteractions(repo);
+        assertEquals("other-instance", redis.opsForValue().get(ExpirySweeper.LEASE_KEY));
+    }
+}
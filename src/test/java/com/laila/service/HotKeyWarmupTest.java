@@ -0,0 +1,92 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.repository.UrlRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class HotKeyWarmupTest {
+
+    @Mock UrlRepository repo;
+    @Mock UrlCache cache;
+
+    @TempDir Path dir;
+
+    @Test
+    void snapshot_writes_hottest_l1_codes() throws IOException {
+        LocalUrlCache local = new LocalUrlCache(true, 100, 0, Duration.ofMinutes(10));
+        local.put("hot1", "https://a.com", Duration.ofMinutes(1));
+        local.put("hot2", "https://b.com", Duration.ofMinutes(1));
+        Path file = dir.resolve("hot.txt");
+
+        new HotKeyWarmup(repo, cache, local, true, file, 10, 100).snapshot();
+
+        assertEquals(List.of("hot1", "hot2"), Files.readAllLines(file).stream().sorted().toList());
+    }
+
+    @Test
+    void snapshot_with_empty_l1_keeps_previous_file() throws IOException {
+        Path file = dir.resolve("hot.txt");
+        Files.write(file, List.of("old1"));
+
+        new HotKeyWarmup(repo, cache, new LocalUrlCache(true, 100, 0, Duration.ofMinutes(10)), true, file, 10, 100)
+                .snapshot();
+
+        assertEquals(List.of("old1"), Files.readAllLines(file));
+    }
+
+    @Test
+    void warmUp_reads_in_batches_and_skips_expired_rows() throws IOException {
+        Path file = dir.resolve("hot.txt");
+        Files.write(file, List.of("a", "b", "c", "", "d", "e"));
+        when(repo.findAllById(anyList())).thenAnswer(inv -> {
+            List<String> ids = inv.getArgument(0);
+            return ids.stream().map(HotKeyWarmupTest::url).toList();
+        });
+
+        int warmed = new HotKeyWarmup(repo, cache, mock(LocalUrlCache.class), true, file, 10, 2).warmUp();
+
+        assertEquals(4, warmed); // "c" is expired
+        verify(repo, times(3)).findAllById(anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Url>> warmedRows = ArgumentCaptor.forClass(Collection.class);
+        verify(cache, times(3)).setAll(warmedRows.capture());
+        assertFalse(warmedRows.getAllValues().stream().flatMap(Collection::stream).anyMatch(u -> u.getCode().equals("c")));
+    }
+
+    @Test
+    void warmUp_without_snapshot_is_a_noop() {
+        int warmed = new HotKeyWarmup(repo, cache, mock(LocalUrlCache.class), true, dir.resolve("missing.txt"), 10, 2)
+                .warmUp();
+
+        assertEquals(0, warmed);
+        verifyNoInteractions(repo, cache);
+    }
+
+    private static Url url(String code) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl("https://" + code + ".com");
+        if (code.equals("c")) u.setExpiresAt(Instant.now().minusSeconds(1));
+        return u;
+    }
+}
@@ -0,0 +1,107 @@
+package com.laila.service;
+
+import com.laila.repository.CodeCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class LeasedBlockCodeGeneratorTest {
+
+    @Mock StringRedisTemplate redis;
+    @Mock ValueOperations<String, String> ops;
+    @Mock CodeCounterRepository counters;
+
+    private final AtomicLong counter = new AtomicLong(); // stands in for the Redis key
+
+    private LeasedBlockCodeGenerator generator(long blockSize, int minLength) {
+        when(redis.opsForValue()).thenReturn(ops);
+        when(ops.increment(eq(LeasedBlockCodeGenerator.COUNTER_KEY), anyLong()))
+                .thenAnswer(inv -> counter.addAndGet(inv.getArgument(1)));
+        return new LeasedBlockCodeGenerator(redis, counters, blockSize, 0.2, minLength);
+    }
+
+    @Test
+    void codes_are_sequential_and_padded_to_min_length() {
+        LeasedBlockCodeGenerator gen = generator(10, 7);
+
+        assertEquals("1000000", gen.nextCode());
+        assertEquals("1000001", gen.nextCode());
+    }
+
+    @Test
+    void lost_counter_is_raised_past_the_high_water_mark() {
+        when(counters.highWater(LeasedBlockCodeGenerator.COUNTER_KEY)).thenReturn(500L); // counter is back at 0
+        when(redis.execute(anyScript(), anyList(), any())).thenAnswer(inv -> {
+            long floor = Long.parseLong(inv.getArgument(2));
+            return counter.accumulateAndGet(floor, Math::max) == floor ? 1L : 0L;
+        });
+        LeasedBlockCodeGenerator gen = generator(10, 1);
+
+        assertEquals(Base62Generator.encode(500), gen.nextCode());
+        verify(counters).raise(LeasedBlockCodeGenerator.COUNTER_KEY, 510L);
+    }
+
+    @Test
+    void every_lease_is_recorded_before_use() {
+        LeasedBlockCodeGenerator gen = generator(10, 7);
+
+        gen.nextCode();
+
+        verify(counters).raise(LeasedBlockCodeGenerator.COUNTER_KEY, 10L);
+        verify(redis, never()).execute(anyScript(), anyList(), any());
+    }
+
+    @Test
+    void one_redis_call_per_block() throws Exception {
+        LeasedBlockCodeGenerator gen = generator(100, 7);
+
+        for (int i = 0; i < 250; i++) gen.nextCode();
+        // 3 blocks are needed; the 4th lease may already be prefetching in the background
+        Thread.sleep(100);
+        verify(ops, atLeast(3)).increment(eq(LeasedBlockCodeGenerator.COUNTER_KEY), eq(100L));
+        verify(ops, atMost(4)).increment(eq(LeasedBlockCodeGenerator.COUNTER_KEY), eq(100L));
+    }
+
+    @Test
+    void concurrent_callers_never_get_duplicates() throws Exception {
+        LeasedBlockCodeGenerator gen = generator(64, 7);
+        int threads = 8, perThread = 2_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        var futures = new java.util.ArrayList<Future<?>>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String code = gen.nextCode();
+                    assertTrue(seen.add(code), "duplicate code " + code);
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(threads * perThread, seen.size());
+    }
+
+    private static <T> RedisScript<T> anyScript() {
+        return any();
+    }
+}
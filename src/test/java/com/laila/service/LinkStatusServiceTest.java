@@ -0,0 +1,80 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.exception.EntityNotFoundException;
+import com.laila.repository.UrlRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class LinkStatusServiceTest {
+
+    @Mock UrlRepository repo;
+    @Mock UrlCache cache;
+    @Mock ApplicationEventPublisher events;
+    @Spy ReadYourWrites readYourWrites = ReadYourWrites.disabled();
+    @InjectMocks LinkStatusService service;
+
+    @Test
+    void delete_releasesUrlHash_evictsCode_and_hash_and_publishesEvent() {
+        when(repo.findById("abc")).thenReturn(Optional.of(url("abc", "h1")));
+        when(repo.retire("abc", LinkStatusService.DELETED)).thenReturn(1);
+
+        assertTrue(service.changeStatus("abc", LinkStatusService.DELETED));
+
+        verify(repo, never()).updateStatus(any(), anyShort());
+        verify(cache).deleteAll(List.of("abc"), List.of("h1"));
+        verify(events).publishEvent(new LinkStatusChangedEvent("abc", LinkStatusService.DELETED));
+    }
+
+    @Test
+    void restore_keepsTheHashIndex() {
+        when(repo.findById("abc")).thenReturn(Optional.of(url("abc", null)));
+        when(repo.updateStatus("abc", LinkStatusService.ACTIVE)).thenReturn(1);
+
+        assertTrue(service.changeStatus("abc", LinkStatusService.ACTIVE));
+
+        verify(cache).deleteAll(List.of("abc"), List.of());
+        verify(events).publishEvent(new LinkStatusChangedEvent("abc", LinkStatusService.ACTIVE));
+    }
+
+    @Test
+    void unchangedStatus_purgesNothing() {
+        when(repo.findById("abc")).thenReturn(Optional.of(url("abc", null)));
+        when(repo.updateStatus("abc", LinkStatusService.ACTIVE)).thenReturn(0);
+
+        assertFalse(service.changeStatus("abc", LinkStatusService.ACTIVE));
+
+        verifyNoInteractions(cache, events);
+    }
+
+    @Test
+    void unknownCode_throws() {
+        when(repo.findById("nope")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> service.changeStatus("nope", LinkStatusService.DELETED));
+        verify(repo, never()).retire(any(), anyShort());
+    }
+
+    private static Url url(String code, String hash) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl("https://example.com/");
+        u.setUrlHash(hash);
+        return u;
+    }
+}
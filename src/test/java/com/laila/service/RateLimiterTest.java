@@ -0,0 +1,121 @@
+package com.laila.service;
+
+import com.laila.dto.UrlDto;
+import com.laila.exception.RateLimitExceededException;
+import com.laila.service.RateLimiter.Limit;
+import com.laila.service.RateLimiter.Scope;
+import com.laila.support.InProcessRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RateLimiterTest {
+
+    private static final Map<Scope, Limit> LIMITS = Map.of(
+            Scope.REDIRECT_IP, new Limit(10, 5),   // one token per 100 ms, bursts of 5
+            Scope.CREATE_BATCH_IP, new Limit(100, 1000),
+            Scope.CREATE_USER, new Limit(1, 3));
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate redis;
+    final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    private RateLimiter limiter(StringRedisTemplate template) {
+        return new RateLimiter(template, true, true, Duration.ofMillis(500), 1000, LIMITS, now::get);
+    }
+
+    @Test
+    void burst_thenRejects_withTimeUntilNextToken() {
+        RateLimiter limiter = limiter(null);
+
+        for (int i = 0; i < 5; i++) assertEquals(0, limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        assertEquals(Duration.ofMillis(100).toNanos(), limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        assertEquals(0, limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.2", 1)); // separate bucket
+        assertEquals(1, limiter.rejected(Scope.REDIRECT_IP));
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertEquals(0, limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        assertEquals(0, limiter.tryAcquire(Scope.CREATE_IP, "10.0.0.1", 1)); // no limit configured
+    }
+
+    @Test
+    void checkUsers_chargesEachUserPerItem() {
+        RateLimiter limiter = limiter(null);
+        UrlDto a = new UrlDto();
+        a.setUserId(7L);
+
+        limiter.checkUsers(List.of(a, a)); // 2 of 3
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class, () -> limiter.checkUsers(List.of(a, a)));
+        assertEquals(1, ex.retryAfterSeconds());
+        limiter.checkUsers(List.of(a, new UrlDto())); // items without a user are not charged to anyone
+    }
+
+    @Test
+    void checkBatch_chargesTheIpPerItem() {
+        RateLimiter limiter = limiter(null);
+        List<UrlDto> items = Collections.nCopies(600, new UrlDto());
+
+        limiter.checkBatch("10.0.0.1", items); // 600 of 1000
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkBatch("10.0.0.1", items));
+        assertEquals(2, ex.retryAfterSeconds()); // 200 items short at 100/s
+        limiter.checkBatch("10.0.0.2", items);
+    }
+
+    @Test
+    void sync_chargesWhatOtherInstancesAdmitted() {
+        RateLimiter a = limiter(redis);
+        RateLimiter b = limiter(redis);
+
+        for (int i = 0; i < 2; i++) assertEquals(0, a.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        assertEquals(0, b.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        a.sync();
+        b.sync(); // baselines: first sync charges nothing
+
+        for (int i = 0; i < 3; i++) assertEquals(0, a.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        a.sync();
+        assertEquals(0, b.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1)); // b has not heard of a's 3 yet
+        b.sync(); // now it has: 2 own + 3 remote
+
+        assertEquals("7", redis.opsForValue().get("ratelimit:redirect-ip:10.0.0.1"));
+        assertTrue(b.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1) > 0);
+    }
+
+    @Test
+    void sync_failure_keepsLimitingLocally() throws IOException {
+        RateLimiter limiter = limiter(redis);
+        assertEquals(0, limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        server.close();
+
+        limiter.sync();
+        for (int i = 0; i < 4; i++) assertEquals(0, limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1));
+        assertTrue(limiter.tryAcquire(Scope.REDIRECT_IP, "10.0.0.1", 1) > 0);
+    }
+}
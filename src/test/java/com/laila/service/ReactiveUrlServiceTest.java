@@ -0,0 +1,119 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import com.laila.repository.ReactiveUrlRepository;
+import com.laila.support.InProcessRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUrlServiceTest {
+
+    @Mock ReactiveUrlRepository repo;
+    @Mock ShortCodeFilter codeFilter;
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate blocking;
+    LocalUrlCache local;
+    UrlCache cache;
+    ReactiveUrlService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        blocking = new StringRedisTemplate(factory);
+        blocking.afterPropertiesSet();
+        local = new LocalUrlCache(true, 100, 0, Duration.ofMinutes(10));
+        cache = new UrlCache(blocking, local);
+        service = new ReactiveUrlService(new ReactiveStringRedisTemplate(factory), local, cache, codeFilter, repo,
+                RedisGuard.passThrough());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    @Test
+    void redisHit_populatesL1_withRemainingTtl() {
+        blocking.opsForValue().set("code:abc", "https://target.com/", Duration.ofMinutes(5));
+
+        StepVerifier.create(service.getOriginalUrl("abc")).expectNext("https://target.com/").verifyComplete();
+
+        assertEquals("https://target.com/", local.get("abc"));
+        assertEquals(1, cache.stats().l2Hits());
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void miss_loadsFromDb_and_warmsRedis() {
+        when(repo.findById("abc")).thenReturn(Mono.just(url("abc")));
+
+        StepVerifier.create(service.getOriginalUrl("abc")).expectNext("https://target.com/").verifyComplete();
+
+        byte[] stored = blocking.execute((RedisCallback<byte[]>) c -> c.stringCommands().get("code:abc".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("https://target.com/", UrlValueCodec.decode(stored).url());
+        assertTrue(blocking.getExpire("code:abc") > 0);
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void notFound_isEmpty_and_remembersMiss() {
+        when(repo.findById("nope")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getOriginalUrl("nope")).verifyComplete();
+
+        verify(codeFilter).rememberMiss("nope");
+    }
+
+    @Test
+    void definitelyAbsent_skipsRedisAndDb() {
+        when(codeFilter.isDefinitelyAbsentLocally("nope")).thenReturn(true);
+
+        StepVerifier.create(service.getOriginalUrl("nope")).verifyComplete();
+
+        verifyNoInteractions(repo);
+        assertEquals(0, cache.stats().lookups());
+    }
+
+    @Test
+    void concurrentMisses_shareOneDbLoad() {
+        when(repo.findById(anyString()))
+                .thenReturn(Mono.just(url("abc")).delayElement(Duration.ofMillis(200)));
+
+        Mono<String> both = Mono.zip(service.getOriginalUrl("abc"), service.getOriginalUrl("abc"), (a, b) -> a + b);
+
+        StepVerifier.create(both).expectNext("https://target.com/https://target.com/").verifyComplete();
+        verify(repo, times(1)).findById("abc");
+    }
+
+    private static Url url(String code) {
+        Url u = new Url();
+        u.setCode(code);
+        u.setLongUrl("https://target.com/");
+        return u;
+    }
+}
@@ -0,0 +1,62 @@
+package com.laila.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+class ReadYourWritesTest {
+
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+
+    @Test
+    void recentlyWrittenCode_isRead_inReadWriteTransaction() {
+        when(tx.getTransaction(any(TransactionDefinition.class))).thenReturn(new SimpleTransactionStatus());
+        ReadYourWrites rw = new ReadYourWrites(tx, "jdbc:postgresql://replica/db", Duration.ofSeconds(10), 100);
+
+        rw.wrote("fresh01");
+        assertEquals("a", rw.read("fresh01", () -> "a"));
+        assertEquals("b", rw.read("old0001", () -> "b"));
+
+        verify(tx, times(1)).getTransaction(argThat(d -> !d.isReadOnly()));
+        assertEquals(1, rw.primaryReads());
+    }
+
+    @Test
+    void replicaMiss_isConfirmedOnPrimary_beforeItCounts() {
+        when(tx.getTransaction(any(TransactionDefinition.class))).thenReturn(new SimpleTransactionStatus());
+        ReadYourWrites rw = new ReadYourWrites(tx, "jdbc:postgresql://replica/db", Duration.ofSeconds(10), 100);
+        AtomicInteger reads = new AtomicInteger();
+
+        // created on another instance: the replica has not seen it yet, the primary has
+        Optional<String> found = rw.readConfirmingMiss("other01",
+                () -> reads.getAndIncrement() == 0 ? Optional.empty() : Optional.of("a"));
+
+        assertEquals(Optional.of("a"), found);
+        assertEquals(2, reads.get());
+        verify(tx, times(1)).getTransaction(argThat(d -> !d.isReadOnly()));
+        assertEquals(Optional.of("b"), rw.readConfirmingMiss("hit0001", () -> Optional.of("b"))); // replica hit: once
+        verify(tx, times(1)).getTransaction(any(TransactionDefinition.class));
+    }
+
+    @Test
+    void withoutReplicas_neverOpensTransactions() {
+        ReadYourWrites rw = new ReadYourWrites(tx, "", Duration.ofSeconds(10), 100);
+
+        rw.wrote("fresh01");
+        assertEquals("a", rw.read("fresh01", () -> "a"));
+        assertEquals("b", rw.onPrimary(() -> "b"));
+        assertEquals(Optional.empty(), rw.readConfirmingMiss("gone001", Optional::empty));
+
+        verifyNoInteractions(tx);
+    }
+}
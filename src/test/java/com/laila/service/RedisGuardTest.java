@@ -0,0 +1,89 @@
+package com.laila.service;
+
+import com.laila.exception.CacheException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RedisGuardTest {
+
+    private final ThreadPoolExecutor hedgePool = new ThreadPoolExecutor(0, 2, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+    private final RedisGuard guard = new RedisGuard(new CircuitBreaker(10, 0.5, 4, Duration.ofMinutes(1)),
+            Duration.ofMillis(200), hedgePool, Duration.ofMillis(1), Duration.ofMillis(5));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        guard.shutdown();
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "db";
+    }
+
+    @Test
+    void firstOf_hit_skipsLoader() {
+        assertEquals("cache", guard.firstOf(CompletableFuture.completedFuture("cache"), this::load));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void firstOf_missOrFailure_loads() {
+        assertEquals("db", guard.firstOf(CompletableFuture.completedFuture(null), this::load));
+        assertEquals("db", guard.firstOf(CompletableFuture.failedFuture(new CacheException("down")), this::load));
+        assertEquals(2, loads.get());
+        assertEquals(0, guard.hedges());
+    }
+
+    @Test
+    void firstOf_slowCache_hedgesToLoader() {
+        CompletableFuture<String> neverAnswers = new CompletableFuture<>();
+
+        assertEquals("db", guard.firstOf(neverAnswers, this::load));
+        assertEquals(1, guard.hedges());
+    }
+
+    @Test
+    void call_failures_openTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CacheException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("connection reset");
+            }));
+        }
+        AtomicInteger reached = new AtomicInteger();
+
+        CacheException open = assertThrows(CacheException.class, () -> guard.run(reached::incrementAndGet));
+        assertEquals("Redis circuit open", open.getMessage());
+        assertEquals(0, reached.get());
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertEquals(1, guard.shortCircuited());
+    }
+
+    @Test
+    void callAsync_pastTheBudget_failsWithCacheException() {
+        CompletableFuture<String> f = guard.callAsync(CompletableFuture::new);
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> f.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(CacheException.class, ex.getCause());
+    }
+
+    @Test
+    void hedgeDelay_followsObservedLatency_withinBounds() {
+        assertEquals(Duration.ofMillis(5).toNanos(), guard.hedgeDelayNanos()); // no samples yet
+        for (int i = 0; i < 256; i++) guard.call(() -> "ok");
+        assertEquals(Duration.ofMillis(5).toNanos(), guard.hedgeDelayNanos()); // recording never sorts
+        guard.refreshHedgeDelay();
+        assertEquals(Duration.ofMillis(1).toNanos(), guard.hedgeDelayNanos()); // in-memory calls: clamped to min-delay
+    }
+}
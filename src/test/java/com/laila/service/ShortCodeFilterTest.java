@@ -0,0 +1,109 @@
+package com.laila.service;
+
+import com.laila.exception.CacheException;
+import com.laila.repository.UrlRepository;
+import com.laila.support.InProcessRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+class ShortCodeFilterTest {
+
+    InProcessRedis server;
+    LettuceConnectionFactory factory;
+    StringRedisTemplate redis;
+    UrlRepository repo = mock(UrlRepository.class);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = InProcessRedis.start();
+        factory = server.connectionFactory();
+        redis = new StringRedisTemplate(factory);
+        redis.afterPropertiesSet();
+        when(repo.streamAllCodes()).thenAnswer(inv -> Stream.of("seed001", "seed002"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        factory.destroy();
+        server.close();
+    }
+
+    @Test
+    void codes_created_on_another_instance_are_not_rejected() {
+        ShortCodeFilter a = filter(true);
+        ShortCodeFilter b = filter(true);
+        a.rebuild();
+        b.rebuild();
+
+        b.add("fresh01");
+
+        assertFalse(a.isDefinitelyAbsent("seed001"));
+        assertFalse(a.isDefinitelyAbsent("fresh01"));
+        assertTrue(a.isDefinitelyAbsent("nope123"));
+        assertEquals(1, a.filterRejects());
+    }
+
+    @Test
+    void lost_shared_bitmap_fails_open_until_rebuilt() throws InterruptedException {
+        ShortCodeFilter a = filter(true);
+        a.rebuild();
+        redis.execute(c -> {
+            c.serverCommands().flushAll();
+            return null;
+        }, true);
+
+        assertFalse(a.isDefinitelyAbsent("nope123"));
+        assertEquals(0, a.filterRejects());
+        // ... and rebuilt from the DB in the background, after which negatives are trusted again
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!a.isDefinitelyAbsent("nope123") && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(1, a.filterRejects());
+    }
+
+    @Test
+    void shared_check_failing_in_the_guard_fails_open() {
+        RedisGuard open = mock(RedisGuard.class);
+        when(open.call(any())).thenThrow(new CacheException("Redis circuit open"));
+        ShortCodeFilter a = filter(true, open);
+        a.rebuild();
+
+        assertFalse(a.isDefinitelyAbsent("nope123"));
+        assertEquals(0, a.filterRejects());
+    }
+
+    @Test
+    void local_negative_alone_never_rejects() {
+        ShortCodeFilter a = filter(true);
+        a.rebuild();
+        assertFalse(a.isDefinitelyAbsentLocally("nope123"));
+
+        ShortCodeFilter unshared = filter(false);
+        unshared.rebuildOnStartup();
+        assertFalse(unshared.isDefinitelyAbsent("nope123"));
+        unshared.rememberMiss("nope123");
+        assertTrue(unshared.isDefinitelyAbsent("nope123"));
+        verify(repo, times(1)).streamAllCodes(); // only the shared filter was built
+    }
+
+    private ShortCodeFilter filter(boolean shared) {
+        return filter(shared, RedisGuard.passThrough());
+    }
+
+    private ShortCodeFilter filter(boolean shared, RedisGuard guard) {
+        return new ShortCodeFilter(repo, redis, redis, guard, mock(PlatformTransactionManager.class), true, 1000, 0.01,
+                shared, Duration.ofSeconds(30), 1000);
+    }
+}
@@ -0,0 +1,84 @@
+package com.laila.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrent_callers_for_same_key_share_one_load() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> flight.execute("hot", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "https://target.com/";
+            })));
+        }
+        // wait until every caller is either loading or parked on the leader
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (flight.loads() + flight.deduplicated() < threads && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> f : futures) assertEquals("https://target.com/", f.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.loads());
+        assertEquals(threads - 1, flight.deduplicated());
+    }
+
+    @Test
+    void loader_failure_reaches_waiters_and_next_call_reloads() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<String> leader = pool.submit(() -> flight.execute("k", () -> {
+            await(release);
+            throw new IllegalStateException("db down");
+        }));
+        while (flight.loads() == 0) Thread.sleep(1);
+        Future<String> waiter = pool.submit(() -> flight.execute("k", () -> "unused"));
+        while (flight.deduplicated() == 0) Thread.sleep(1);
+        release.countDown();
+
+        ExecutionException a = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException b = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, a.getCause());
+        assertInstanceOf(IllegalStateException.class, b.getCause());
+        pool.shutdown();
+
+        assertEquals("fresh", flight.execute("k", () -> "fresh"));
+    }
+
+    @Test
+    void different_keys_do_not_wait_on_each_other() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        String outer = flight.execute("a", () -> flight.execute("b", () -> "b-value") + "+a");
+        assertEquals("b-value+a", outer);
+        assertEquals(0, flight.deduplicated());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.laila.service;
+
+import com.laila.dto.UrlBatchResultDto;
+import com.laila.dto.UrlDto;
+import com.laila.entities.Url;
+import com.laila.repository.UrlBatchRepository;
+import com.laila.repository.UrlRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class UrlBatchServiceTest {
+
+    @Mock UrlBatchRepository batchRepo;
+    @Mock UrlRepository repo;
+    @Mock UrlCache cache;
+    @Mock ShortCodeFilter codeFilter;
+
+    UrlBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UrlBatchService(batchRepo, repo, cache, codeFilter, new RandomCodeGenerator(8),
+                Validation.buildDefaultValidatorFactory().getValidator(), UrlMetrics.inMemory(), ReadYourWrites.disabled(), 100, 50);
+    }
+
+    @Test
+    void retries_only_collided_rows_and_warms_cache_once() {
+        // round 1: second row collides; round 2: only that row is re-inserted
+        when(batchRepo.insertIgnoringConflicts(anyList(), anyInt()))
+                .thenReturn(new boolean[]{true, false, true})
+                .thenReturn(new boolean[]{true});
+
+        try (var mocked = Mockito.mockStatic(Base62Generator.class)) {
+            mocked.when(() -> Base62Generator.randomCode(anyInt())).thenReturn("c1", "dup", "c3", "c2");
+
+            List<UrlBatchResultDto> out = service.convertToShortUrls(List.of(
+                    dto("https://a.com"), dto("https://b.com"), dto("https://c.com")));
+
+            assertEquals(List.of("c1", "c2", "c3"), out.stream().map(UrlBatchResultDto::getCode).toList());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Url>> rounds = ArgumentCaptor.forClass(List.class);
+        verify(batchRepo, times(2)).insertIgnoringConflicts(rounds.capture(), eq(50));
+        assertEquals(3, rounds.getAllValues().get(0).size());
+        assertEquals(1, rounds.getAllValues().get(1).size());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Url>> warmed = ArgumentCaptor.forClass(Collection.class);
+        verify(cache, times(1)).setAll(warmed.capture());
+        assertEquals(3, warmed.getValue().size());
+    }
+
+    @Test
+    void taken_alias_and_invalid_items_fail_individually() {
+        UrlDto alias = dto("https://a.com");
+        alias.setAlias("docs123");
+        UrlDto bad = dto("not a url");
+
+        when(batchRepo.insertIgnoringConflicts(anyList(), anyInt())).thenReturn(new boolean[]{false});
+
+        List<UrlBatchResultDto> out = service.convertToShortUrls(List.of(alias, bad));
+
+        assertEquals("Alias already exists", out.get(0).getError());
+        assertNotNull(out.get(1).getError());
+        assertNull(out.get(1).getCode());
+        verify(batchRepo, times(1)).insertIgnoringConflicts(anyList(), anyInt());
+        verify(codeFilter).addAll(List.of());
+    }
+
+    @Test
+    void already_shortened_url_returns_existing_code() {
+        Url existing = new Url();
+        existing.setCode("old1234");
+        existing.setUrlHash(UrlService.urlHash("https://a.com", null));
+        existing.setStatus((short) 1);
+
+        when(batchRepo.insertIgnoringConflicts(anyList(), anyInt())).thenReturn(new boolean[]{false, true});
+        when(repo.findByUrlHashIn(anyList())).thenReturn(List.of(existing));
+
+        List<UrlBatchResultDto> out = service.convertToShortUrls(List.of(dto("https://a.com"), dto("https://b.com")));
+
+        assertEquals("old1234", out.get(0).getCode());
+        assertNull(out.get(0).getError());
+        verify(batchRepo, times(1)).insertIgnoringConflicts(anyList(), anyInt()); // no retry round
+        verify(repo, never()).releaseUrlHash(any());
+    }
+
+    @Test
+    void oversized_batch_is_rejected() {
+        List<UrlDto> many = java.util.Collections.nCopies(101, dto("https://a.com"));
+        assertThrows(IllegalArgumentException.class, () -> service.convertToShortUrls(many));
+        verifyNoInteractions(batchRepo);
+    }
+
+    private static UrlDto dto(String url) {
+        UrlDto d = new UrlDto();
+        d.setLongUrl(url);
+        return d;
+    }
+}
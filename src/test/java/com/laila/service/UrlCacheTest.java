@@ -0,0 +1,137 @@
+package com.laila.service;
+
+import com.laila.entities.Url;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class UrlCacheTest {
+
+    @Mock StringRedisTemplate redis;
+
+    LocalUrlCache local;
+    UrlCache cache;
+
+    @BeforeEach
+    void setUp() {
+        local = new LocalUrlCache(true, 100, 0, Duration.ofMinutes(10));
+        cache = new UrlCache(redis, local);
+    }
+
+    @Test
+    void set_then_get_isServedFromL1_withoutRedis() {
+        cache.set("abc", "https://target.com/", null);
+        String url = cache.get("abc");
+
+        assertEquals("https://target.com/", url);
+        verify(redis, times(1)).execute(anyCallback()); // the SET; the GET never reaches Redis
+        assertEquals(1, cache.stats().l1Hits());
+    }
+
+    @Test
+    void l1Miss_redisHit_populatesL1() {
+        when(redis.execute(anyCallback()))
+                .thenReturn(Arrays.asList(cache.encode("https://target.com/", null), 60_000L));
+
+        assertEquals("https://target.com/", cache.get("xyz"));
+        assertEquals("https://target.com/", cache.get("xyz"));
+
+        verify(redis, times(1)).execute(anyCallback());
+        UrlCache.Stats stats = cache.stats();
+        assertEquals(1, stats.l1Hits());
+        assertEquals(1, stats.l2Hits());
+        assertEquals(0, stats.misses());
+    }
+
+    @Test
+    void miss_in_both_tiers_isCounted() {
+        when(redis.execute(anyCallback())).thenReturn(Arrays.asList(null, -2L));
+
+        assertNull(cache.get("nope"));
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.0, cache.stats().l2HitRatio());
+    }
+
+    @Test
+    void set_alreadyExpired_deletes_and_skipsL1() {
+        cache.set("old", "https://target.com/", Instant.now().minusSeconds(5));
+
+        verify(redis).delete("code:old");
+        assertNull(local.get("old"));
+    }
+
+    @Test
+    void l1Ttl_isClampedToExpiresAt() throws Exception {
+        cache.set("soon", "https://target.com/", Instant.now().plusMillis(1500));
+        assertEquals("https://target.com/", local.get("soon"));
+
+        Thread.sleep(1600);
+        assertNull(local.get("soon"));
+    }
+
+    @Test
+    void compactValue_carriesExpiry_legacyValue_onlyItsTtl() {
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        when(redis.execute(anyCallback()))
+                .thenReturn(Arrays.asList(cache.encode("https://target.com/", null), 60_000L))
+                .thenReturn(Arrays.asList(cache.encode("https://target.com/", expiresAt), 60_000L))
+                .thenReturn(Arrays.asList("https://target.com/".getBytes(StandardCharsets.UTF_8), 60_000L));
+
+        assertTrue(cache.lookup("perm").permanent());
+        assertEquals(ResolvedUrl.until("https://target.com/", expiresAt), cache.lookup("until"));
+
+        ResolvedUrl legacy = cache.lookup("legacy"); // written by an instance that predates the compact format
+        assertEquals("https://target.com/", legacy.url());
+        assertFalse(legacy.permanent());
+        assertTrue(legacy.expiresAt().isBefore(Instant.now().plusSeconds(61)));
+    }
+
+    @Test
+    void plainFormat_writes_bareUrl() {
+        UrlCache plain = new UrlCache(redis, local, RedisGuard.passThrough(), "plain", 80, "keys", 0, false);
+
+        assertArrayEquals("https://target.com/".getBytes(StandardCharsets.UTF_8), plain.encode("https://target.com/", null));
+        assertThrows(IllegalArgumentException.class, () -> new UrlCache(redis, local, RedisGuard.passThrough(), "gzip", 80, "keys", 0, false));
+        assertThrows(IllegalArgumentException.class, () -> new UrlCache(redis, local, RedisGuard.passThrough(), "plain", 80, "buckets", 16, false));
+    }
+
+    @Test
+    void bulkWrites_useTheBulkTemplate_notTheCacheBudget() {
+        StringRedisTemplate bulk = mock(StringRedisTemplate.class);
+        UrlCache split = new UrlCache(redis, bulk, local, RedisGuard.passThrough(), "compact", 80, "keys", 0, false);
+        Url url = new Url();
+        url.setCode("abc");
+        url.setLongUrl("https://target.com/");
+
+        split.setAll(List.of(url));
+        split.deleteAll(List.of("abc"), List.of("hash"));
+
+        verify(bulk, times(2)).executePipelined(anyCallback());
+        verifyNoInteractions(redis);
+    }
+
+    private static <T> RedisCallback<T> anyCallback() {
+        return any();
+    }
+}
@@ -1,8 +1,11 @@
 package com.laila.service;
 
 import com.laila.entities.Url;
+import com.laila.exception.AliasTakenException;
+import com.laila.exception.CacheException;
 import com.laila.exception.EntityNotFoundException;
 import com.laila.dto.UrlDto;
+import com.laila.repository.ResolveTarget;
 import com.laila.repository.UrlRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,14 +13,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +36,13 @@ class UrlServiceTest {
 
     @Mock UrlRepository repo;
     @Mock UrlCache cache;
+    @Mock ShortCodeFilter codeFilter;
+    @Spy RandomCodeGenerator codeGenerator = new RandomCodeGenerator(8);
+    @Spy DbGate db = DbGate.unbounded();
+    @Spy UrlMetrics metrics = UrlMetrics.inMemory();
+    @Spy ReadYourWrites readYourWrites = ReadYourWrites.disabled();
+    @Spy RedisGuard guard = RedisGuard.passThrough();
+    @Mock AliasReservations aliases;
 
     @InjectMocks UrlService service;
 
@@ -54,6 +68,67 @@ class UrlServiceTest {
 
         // cache warmed with expiresAt
         verify(cache).set("docs123", "https://www.wikipedia.org/", dto.getExpirationDate());
+        verify(aliases).markTaken("docs123");
+    }
+
+    @Test
+    void create_withReservedAlias_isRejected_withoutDb() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("docs123");
+        when(aliases.reserve("docs123")).thenThrow(new AliasTakenException("docs123"));
+
+        assertThrows(AliasTakenException.class, () -> service.convertToShortUrl(dto));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void create_withAlias_takenInDb_marksTaken_and_conflicts() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("docs123");
+        when(aliases.reserve("docs123")).thenReturn("token");
+        when(repo.save(any())).thenThrow(violation("23505"));
+
+        assertThrows(AliasTakenException.class, () -> service.convertToShortUrl(dto));
+        verify(aliases).markTaken("docs123");
+        verify(aliases, never()).release(any(), any());
+    }
+
+    @Test
+    void create_withAlias_otherIntegrityViolation_isNotTaken() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("docs123");
+        when(aliases.reserve("docs123")).thenReturn("token");
+        when(repo.save(any())).thenThrow(violation("23503")); // foreign key, e.g. an unknown user
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.convertToShortUrl(dto));
+        verify(aliases).release("docs123", "token");
+        verify(aliases, never()).markTaken(any());
+    }
+
+    @Test
+    void create_withAlias_longerThanCodeColumn_isRejected_beforeReserving() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("much-too-long-alias");
+
+        assertThrows(IllegalArgumentException.class, () -> service.convertToShortUrl(dto));
+        verifyNoInteractions(aliases, repo);
+    }
+
+    @Test
+    void create_withAlias_otherFailure_releasesReservation() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("docs123");
+        when(aliases.reserve("docs123")).thenReturn("token");
+        when(repo.save(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThrows(IllegalStateException.class, () -> service.convertToShortUrl(dto));
+        verify(aliases).release("docs123", "token");
+        verify(aliases, never()).markTaken(any());
     }
 
     @Test
@@ -106,7 +181,7 @@ class UrlServiceTest {
 
     @Test
     void resolve_cacheHit_returnsImmediately() {
-        when(cache.get("abc")).thenReturn("https://target.com/");
+        when(cache.lookupAsync("abc")).thenReturn(CompletableFuture.completedFuture(ResolvedUrl.permanent("https://target.com/")));
 
         String url = service.getOriginalUrl("abc");
 
@@ -116,26 +191,165 @@ class UrlServiceTest {
 
     @Test
     void resolve_cacheMiss_dbHit_then_warmCache_and_return() {
-        when(cache.get("xyz")).thenReturn(null);
+        when(cache.lookupAsync("xyz")).thenReturn(CompletableFuture.completedFuture(null));
 
-        Url e = new Url();
-        e.setCode("xyz");
-        e.setLongUrl("https://target.com/");
-        e.setExpiresAt(Instant.parse("2030-01-01T00:00:00Z"));
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        when(repo.findResolveTarget("xyz")).thenReturn(Optional.of(new ResolveTarget("https://target.com/", expiresAt)));
 
-        when(repo.findById("xyz")).thenReturn(Optional.of(e));
+        ResolvedUrl resolved = service.resolve("xyz");
 
-        String url = service.getOriginalUrl("xyz");
+        assertEquals(ResolvedUrl.until("https://target.com/", expiresAt), resolved);
+        verify(cache).warm("xyz", "https://target.com/", expiresAt);
+        verify(repo, never()).findById(any());
+    }
 
-        assertEquals("https://target.com/", url);
-        verify(cache).set("xyz", "https://target.com/", e.getExpiresAt());
+    @Test
+    void resolve_cacheFailure_fallsBackToDb() {
+        when(cache.lookupAsync("xyz")).thenReturn(CompletableFuture.failedFuture(new CacheException("Redis circuit open")));
+        when(repo.findResolveTarget("xyz")).thenReturn(Optional.of(new ResolveTarget("https://target.com/", null)));
+
+        assertEquals(ResolvedUrl.permanent("https://target.com/"), service.resolve("xyz"));
+    }
+
+    @Test
+    void create_survivesCacheFailure() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        when(cache.getCodeByHash(any())).thenThrow(new CacheException("Redis circuit open"));
+        doThrow(new CacheException("Redis circuit open")).when(cache).set(any(), any(), any());
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals(8, service.convertToShortUrl(dto).length());
     }
 
     @Test
     void resolve_notFound_or_expired_throws() {
-        when(cache.get("gone")).thenReturn(null);
-        when(repo.findById("gone")).thenReturn(Optional.empty());
+        when(cache.lookupAsync("gone")).thenReturn(CompletableFuture.completedFuture(null));
+        when(repo.findResolveTarget("gone")).thenReturn(Optional.empty()); // absent, or status <> 1
 
         assertThrows(EntityNotFoundException.class, () -> service.getOriginalUrl("gone"));
+        verify(codeFilter).rememberMiss("gone");
+    }
+
+    @Test
+    void resolve_definitelyAbsent_skipsCacheAndDb() {
+        when(codeFilter.isDefinitelyAbsent("bot1234")).thenReturn(true);
+
+        assertThrows(EntityNotFoundException.class, () -> service.getOriginalUrl("bot1234"));
+        verifyNoInteractions(cache, repo);
+    }
+
+    @Test
+    void create_registersCode_inFilter() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/");
+        dto.setAlias("mine1");
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.convertToShortUrl(dto);
+
+        verify(codeFilter).add("mine1");
+    }
+
+    @Test
+    void create_sameUrl_reusesCode_fromHashCache() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("wikipedia.org");
+        when(cache.getCodeByHash(UrlService.urlHash("http://wikipedia.org", null))).thenReturn("aB9x2Q7");
+
+        assertEquals("aB9x2Q7", service.convertToShortUrl(dto));
+        verify(repo, never()).save(any());
+        verify(codeGenerator, never()).nextCode();
+    }
+
+    @Test
+    void create_sameUrl_reusesCode_fromDb_and_fillsHashCache() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/a");
+        String hash = UrlService.urlHash("https://example.com/a", null);
+
+        Url existing = new Url();
+        existing.setCode("Zz12345");
+        existing.setUrlHash(hash);
+        when(repo.findByUrlHash(hash)).thenReturn(Optional.of(existing));
+
+        assertEquals("Zz12345", service.convertToShortUrl(dto));
+        verify(repo, never()).save(any());
+        verify(cache).setCodeByHash(hash, "Zz12345", null);
+    }
+
+    @Test
+    void create_sameUrl_expiredRow_releasesHash_and_createsNew() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/a");
+        String hash = UrlService.urlHash("https://example.com/a", null);
+
+        Url expired = new Url();
+        expired.setCode("old0001");
+        expired.setUrlHash(hash);
+        expired.setExpiresAt(Instant.now().minusSeconds(60));
+        when(repo.findByUrlHash(hash)).thenReturn(Optional.of(expired));
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        String code = service.convertToShortUrl(dto);
+
+        verify(repo).releaseUrlHash("old0001");
+        ArgumentCaptor<Url> cap = ArgumentCaptor.forClass(Url.class);
+        verify(repo).save(cap.capture());
+        assertEquals(hash, cap.getValue().getUrlHash());
+        assertEquals(code, cap.getValue().getCode());
+    }
+
+    @Test
+    void create_concurrentSameUrl_returnsWinnersCode() {
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/race");
+        String hash = UrlService.urlHash("https://example.com/race", null);
+
+        Url winner = new Url();
+        winner.setCode("Win1234");
+        winner.setUrlHash(hash);
+        when(repo.findByUrlHash(hash)).thenReturn(Optional.empty()).thenReturn(Optional.of(winner));
+        when(repo.save(any())).thenThrow(new DataIntegrityViolationException("uq_short_urls_url_hash"));
+
+        assertEquals("Win1234", service.convertToShortUrl(dto));
+        verify(repo, times(1)).save(any());
+    }
+
+    @Test
+    void urlHash_distinguishesExpiry() {
+        Instant exp = Instant.parse("2027-01-01T00:00:00Z");
+        assertEquals(UrlService.urlHash("https://a.com", exp), UrlService.urlHash("https://a.com", exp));
+        assertNotEquals(UrlService.urlHash("https://a.com", null), UrlService.urlHash("https://a.com", exp));
+        assertEquals(64, UrlService.urlHash("https://a.com", null).length());
+    }
+
+    @Test
+    void metrics_time_each_layer_and_count_expired_and_collisions() {
+        when(cache.lookupAsync("old0001")).thenReturn(CompletableFuture.completedFuture(null));
+        when(repo.findResolveTarget("old0001"))
+                .thenReturn(Optional.of(new ResolveTarget("https://example.com", Instant.now().minusSeconds(5))));
+
+        assertThrows(EntityNotFoundException.class, () -> service.getOriginalUrl("old0001"));
+        assertEquals(1, metrics.resolve().count());
+        assertEquals(1, metrics.cacheGet().count());
+        assertEquals(1, metrics.dbFind().count());
+        assertEquals(1.0, metrics.expired().count());
+
+        UrlDto dto = new UrlDto();
+        dto.setLongUrl("https://example.com/new");
+        when(repo.save(any()))
+                .thenThrow(new DataIntegrityViolationException("dup"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        service.convertToShortUrl(dto);
+        assertEquals(1.0, metrics.collisions().count());
+        assertEquals(2, metrics.dbSave().count());
+        assertEquals(1, metrics.cacheSet().count());
+        assertEquals(1, metrics.create().count());
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState) {
+        return new DataIntegrityViolationException("insert into short_urls", new SQLException("violation", sqlState));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.laila.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlValueCodecTest {
+
+    @Test
+    void shortUrl_roundTrips_withPrefixStripped() {
+        String url = "https://www.example.com/a";
+        byte[] v = UrlValueCodec.encode(url, null, UrlValueCodec.ACTIVE, 80);
+
+        assertTrue(UrlValueCodec.isEncoded(v));
+        assertEquals(3 + url.length() - "https://www.".length(), v.length);
+        UrlValueCodec.Decoded d = UrlValueCodec.decode(v);
+        assertEquals(url, d.url());
+        assertNull(d.expiresAt());
+        assertTrue(d.active());
+        assertTrue(d.toResolved().permanent());
+    }
+
+    @Test
+    void longTrackingUrl_isCompressed_andRoundTrips() {
+        String url = "https://shop.example.com/products/category/shoes?id=48213&utm_source=newsletter"
+                + "&utm_medium=email&utm_campaign=spring_sale_2025&utm_content=hero_banner&fbclid=IwAR0abc";
+        Instant expiresAt = Instant.parse("2030-06-01T12:00:00Z");
+        byte[] v = UrlValueCodec.encode(url, expiresAt, UrlValueCodec.ACTIVE, 80);
+
+        assertTrue(v.length < url.length() * 3 / 4, "encoded " + v.length + " bytes for " + url.length());
+        UrlValueCodec.Decoded d = UrlValueCodec.decode(v);
+        assertEquals(url, d.url());
+        assertEquals(expiresAt, d.expiresAt());
+    }
+
+    @Test
+    void incompressibleTail_isStoredAsIs() {
+        StringBuilder sb = new StringBuilder("http://x.io/");
+        for (int i = 0; i < 200; i++) sb.append((char) ('!' + ThreadLocalRandom.current().nextInt(94)));
+        String url = sb.toString();
+
+        byte[] v = UrlValueCodec.encode(url, null, UrlValueCodec.ACTIVE, 80);
+
+        assertTrue(v.length <= 3 + url.length());
+        assertEquals(url, UrlValueCodec.decode(v).url());
+    }
+
+    @Test
+    void unicode_status_and_subSecondExpiry() {
+        String url = "https://例え.jp/パス?q=ü";
+        UrlValueCodec.Decoded d = UrlValueCodec.decode(
+                UrlValueCodec.encode(url, Instant.parse("2030-01-01T00:00:00.900Z"), (short) 2, 1));
+
+        assertEquals(url, d.url());
+        assertEquals(Instant.parse("2030-01-01T00:00:00Z"), d.expiresAt());
+        assertFalse(d.active());
+    }
+
+    @Test
+    void legacyPlainValue_isNotMistakenForEncoded() {
+        assertFalse(UrlValueCodec.isEncoded("https://target.com/".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(UrlValueCodec.isEncoded(null));
+    }
+}
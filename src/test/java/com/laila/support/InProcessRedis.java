@@ -0,0 +1,581 @@
+package com.laila.support;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+
+/**
+ * Minimal in-process Redis stand-in (RESP2 over loopback TCP) for benchmarks and the load harness.
+ * Covers the commands this service issues: strings, TTLs, counters, bitmaps, hashes (with field TTLs),
+ * sorted sets and SCAN. Replies to pipelined commands are flushed together and TCP_NODELAY is set,
+ * so latency is dominated by the real client stack rather than by the stand-in.
+ */
+public final class InProcessRedis implements Closeable {
+
+    private final ServerSocket server;
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "in-process-redis");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final Map<String, Entry> data = new HashMap<>(); // guarded by this (Redis is single-threaded too)
+
+    private InProcessRedis(ServerSocket server) {
+        this.server = server;
+    }
+
+    public static InProcessRedis start() throws IOException {
+        InProcessRedis r = new InProcessRedis(new ServerSocket(0, 128, InetAddress.getLoopbackAddress()));
+        r.pool.execute(r::acceptLoop);
+        return r;
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Pooled Lettuce factory pointed at this server, like RedisConfig (RESP2: no HELLO handshake). */
+    public LettuceConnectionFactory connectionFactory() {
+        LettuceClientConfiguration client = LettucePoolingClientConfiguration.builder()
+                .poolConfig(new GenericObjectPoolConfig<>())
+                .clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+                .build();
+        LettuceConnectionFactory f = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", port()), client);
+        f.afterPropertiesSet();
+        return f;
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket s : clients) s.close();
+        pool.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket s = server.accept();
+                s.setTcpNoDelay(true);
+                clients.add(s);
+                pool.execute(() -> serve(s));
+            } catch (IOException closed) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket s) {
+        try (s; InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            while (true) {
+                List<byte[]> cmd = readCommand(in);
+                if (cmd == null) return;
+                Reply reply;
+                try {
+                    reply = execute(cmd);
+                } catch (RuntimeException ex) {
+                    reply = Reply.error("ERR " + ex.getMessage());
+                }
+                reply.write(out);
+                if (in.available() == 0) out.flush(); // coalesce replies of a pipeline
+            }
+        } catch (SocketException closed) {
+            // client went away
+        } catch (IOException ex) {
+            // ignore: stand-in only
+        } finally {
+            clients.remove(s);
+        }
+    }
+
+    // ---------------------------------------------------------------- protocol
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) return null;
+        if (first != '*') throw new IOException("inline commands not supported");
+        int n = (int) readLong(in);
+        List<byte[]> args = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (in.read() != '$') throw new IOException("bulk string expected");
+            int len = (int) readLong(in);
+            byte[] b = in.readNBytes(len);
+            in.read();
+            in.read(); // CRLF
+            args.add(b);
+        }
+        return args;
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        long v = 0;
+        boolean neg = false;
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) throw new EOFException();
+            if (c == '-') neg = true;
+            else v = v * 10 + (c - '0');
+        }
+        in.read(); // \n
+        return neg ? -v : v;
+    }
+
+    private interface Reply {
+        void write(OutputStream out) throws IOException;
+
+        Reply OK = simple("OK");
+        Reply NIL = out -> out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+
+        static Reply simple(String s) {
+            byte[] b = ("+" + s + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            return out -> out.write(b);
+        }
+
+        static Reply error(String s) {
+            byte[] b = ("-" + s.replace('\r', ' ').replace('\n', ' ') + "\r\n").getBytes(StandardCharsets.UTF_8);
+            return out -> out.write(b);
+        }
+
+        static Reply integer(long v) {
+            byte[] b = (":" + v + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            return out -> out.write(b);
+        }
+
+        static Reply bulk(byte[] v) {
+            if (v == null) return NIL;
+            return out -> {
+                out.write(("$" + v.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(v);
+                out.write('\r');
+                out.write('\n');
+            };
+        }
+
+        static Reply array(List<Reply> items) {
+            return out -> {
+                out.write(("*" + items.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (Reply r : items) r.write(out);
+            };
+        }
+
+        static Reply bulks(List<byte[]> items) {
+            List<Reply> r = new ArrayList<>(items.size());
+            for (byte[] b : items) r.add(bulk(b));
+            return array(r);
+        }
+    }
+
+    // ---------------------------------------------------------------- data
+
+    private static final class Entry {
+        Object value;          // byte[] | Map<String, Field> (hash) | TreeMap<String, Double> (zset)
+        long expireAt = -1;    // epoch millis, -1 = persistent
+
+        Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Field {
+        byte[] value;
+        long expireAt = -1;
+
+        Field(byte[] value) {
+            this.value = value;
+        }
+    }
+
+    private Entry live(String key) {
+        Entry e = data.get(key);
+        if (e != null && e.expireAt >= 0 && e.expireAt <= System.currentTimeMillis()) {
+            data.remove(key);
+            return null;
+        }
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Field> hash(String key, boolean create) {
+        Entry e = live(key);
+        if (e == null) {
+            if (!create) return null;
+            e = new Entry(new HashMap<String, Field>());
+            data.put(key, e);
+        }
+        if (!(e.value instanceof Map)) throw new IllegalStateException("WRONGTYPE");
+        Map<String, Field> h = (Map<String, Field>) e.value;
+        long now = System.currentTimeMillis();
+        h.values().removeIf(f -> f.expireAt >= 0 && f.expireAt <= now);
+        return h;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TreeMap<String, Double> zset(String key, boolean create) {
+        Entry e = live(key);
+        if (e == null) {
+            if (!create) return null;
+            e = new Entry(new TreeMap<String, Double>());
+            data.put(key, e);
+        }
+        if (!(e.value instanceof TreeMap)) throw new IllegalStateException("WRONGTYPE");
+        return (TreeMap<String, Double>) e.value;
+    }
+
+    private byte[] string(String key) {
+        Entry e = live(key);
+        if (e == null) return null;
+        if (!(e.value instanceof byte[] b)) throw new IllegalStateException("WRONGTYPE");
+        return b;
+    }
+
+    private static String s(byte[] b) {
+        return new String(b, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] b(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static long l(byte[] b) {
+        return Long.parseLong(s(b));
+    }
+
+    // ---------------------------------------------------------------- commands
+
+    private synchronized Reply execute(List<byte[]> a) {
+        String cmd = s(a.get(0)).toUpperCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        switch (cmd) {
+            case "PING":
+                return a.size() > 1 ? Reply.bulk(a.get(1)) : Reply.simple("PONG");
+            case "SELECT":
+            case "AUTH":
+            case "CLIENT":
+            case "READONLY":
+                return Reply.OK;
+            case "HELLO":
+                // what Redis 5 answers: Lettuce then falls back to RESP2 (it does not for NOPROTO)
+                return Reply.error("ERR unknown command 'HELLO'");
+            case "FLUSHALL":
+            case "FLUSHDB":
+                data.clear();
+                return Reply.OK;
+            case "DBSIZE":
+                return Reply.integer(data.size());
+
+            case "GET":
+                return Reply.bulk(string(s(a.get(1))));
+            case "MGET": {
+                List<byte[]> out = new ArrayList<>();
+                for (int i = 1; i < a.size(); i++) out.add(string(s(a.get(i))));
+                return Reply.bulks(out);
+            }
+            case "SET": {
+                String key = s(a.get(1));
+                long expireAt = -1;
+                boolean nx = false, xx = false, keepTtl = false;
+                for (int i = 3; i < a.size(); i++) {
+                    String opt = s(a.get(i)).toUpperCase(Locale.ROOT);
+                    switch (opt) {
+                        case "EX" -> expireAt = now + l(a.get(++i)) * 1000;
+                        case "PX" -> expireAt = now + l(a.get(++i));
+                        case "NX" -> nx = true;
+                        case "XX" -> xx = true;
+                        case "KEEPTTL" -> keepTtl = true;
+                        default -> throw new IllegalArgumentException("syntax error");
+                    }
+                }
+                Entry old = live(key);
+                if ((nx && old != null) || (xx && old == null)) return Reply.NIL;
+                Entry e = new Entry(a.get(2));
+                e.expireAt = keepTtl && old != null ? old.expireAt : expireAt;
+                data.put(key, e);
+                return Reply.OK;
+            }
+            case "SETNX": {
+                String key = s(a.get(1));
+                if (live(key) != null) return Reply.integer(0);
+                data.put(key, new Entry(a.get(2)));
+                return Reply.integer(1);
+            }
+            case "SETEX":
+            case "PSETEX": {
+                Entry e = new Entry(a.get(3));
+                long ttl = l(a.get(2));
+                e.expireAt = now + (cmd.equals("SETEX") ? ttl * 1000 : ttl);
+                data.put(s(a.get(1)), e);
+                return Reply.OK;
+            }
+            case "DEL":
+            case "UNLINK": {
+                int n = 0;
+                for (int i = 1; i < a.size(); i++) if (live(s(a.get(i))) != null && data.remove(s(a.get(i))) != null) n++;
+                return Reply.integer(n);
+            }
+            case "EXISTS": {
+                int n = 0;
+                for (int i = 1; i < a.size(); i++) if (live(s(a.get(i))) != null) n++;
+                return Reply.integer(n);
+            }
+            case "EXPIRE":
+            case "PEXPIRE": {
+                Entry e = live(s(a.get(1)));
+                if (e == null) return Reply.integer(0);
+                long ttl = l(a.get(2));
+                e.expireAt = now + (cmd.equals("EXPIRE") ? ttl * 1000 : ttl);
+                return Reply.integer(1);
+            }
+            case "PERSIST": {
+                Entry e = live(s(a.get(1)));
+                if (e == null || e.expireAt < 0) return Reply.integer(0);
+                e.expireAt = -1;
+                return Reply.integer(1);
+            }
+            case "TTL":
+            case "PTTL": {
+                Entry e = live(s(a.get(1)));
+                if (e == null) return Reply.integer(-2);
+                if (e.expireAt < 0) return Reply.integer(-1);
+                long ms = e.expireAt - now;
+                return Reply.integer(cmd.equals("TTL") ? (ms + 999) / 1000 : ms);
+            }
+            case "INCR":
+            case "INCRBY":
+            case "DECRBY": {
+                String key = s(a.get(1));
+                long by = cmd.equals("INCR") ? 1 : l(a.get(2));
+                if (cmd.equals("DECRBY")) by = -by;
+                byte[] cur = string(key);
+                long v = (cur == null ? 0 : l(cur)) + by;
+                Entry old = live(key);
+                Entry e = new Entry(b(Long.toString(v)));
+                if (old != null) e.expireAt = old.expireAt;
+                data.put(key, e);
+                return Reply.integer(v);
+            }
+
+            case "SETBIT": {
+                String key = s(a.get(1));
+                long bit = l(a.get(2));
+                boolean on = l(a.get(3)) == 1;
+                byte[] cur = string(key);
+                int idx = (int) (bit >>> 3);
+                if (cur == null || cur.length <= idx) {
+                    cur = Arrays.copyOf(cur == null ? new byte[0] : cur, idx + 1);
+                }
+                int mask = 0x80 >>> (bit & 7);
+                int old = (cur[idx] & mask) != 0 ? 1 : 0;
+                cur[idx] = (byte) (on ? cur[idx] | mask : cur[idx] & ~mask);
+                Entry prev = live(key);
+                Entry e = new Entry(cur);
+                if (prev != null) e.expireAt = prev.expireAt;
+                data.put(key, e);
+                return Reply.integer(old);
+            }
+            case "GETBIT": {
+                byte[] cur = string(s(a.get(1)));
+                long bit = l(a.get(2));
+                int idx = (int) (bit >>> 3);
+                if (cur == null || cur.length <= idx) return Reply.integer(0);
+                return Reply.integer((cur[idx] & (0x80 >>> (bit & 7))) != 0 ? 1 : 0);
+            }
+            case "BITOP": {
+                String op = s(a.get(1)).toUpperCase(Locale.ROOT);
+                if (!op.equals("OR")) throw new IllegalArgumentException("only BITOP OR is supported");
+                byte[] out = new byte[0];
+                for (int i = 3; i < a.size(); i++) {
+                    byte[] src = string(s(a.get(i)));
+                    if (src == null) continue;
+                    if (src.length > out.length) out = Arrays.copyOf(out, src.length);
+                    for (int j = 0; j < src.length; j++) out[j] |= src[j];
+                }
+                data.put(s(a.get(2)), new Entry(out));
+                return Reply.integer(out.length);
+            }
+
+            case "HSET": {
+                Map<String, Field> h = hash(s(a.get(1)), true);
+                int added = 0;
+                for (int i = 2; i + 1 < a.size(); i += 2) {
+                    if (h.put(s(a.get(i)), new Field(a.get(i + 1))) == null) added++;
+                }
+                return Reply.integer(added);
+            }
+            case "HGET": {
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                Field f = h == null ? null : h.get(s(a.get(2)));
+                return Reply.bulk(f == null ? null : f.value);
+            }
+            case "HMGET": {
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                List<byte[]> out = new ArrayList<>();
+                for (int i = 2; i < a.size(); i++) {
+                    Field f = h == null ? null : h.get(s(a.get(i)));
+                    out.add(f == null ? null : f.value);
+                }
+                return Reply.bulks(out);
+            }
+            case "HDEL": {
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                int n = 0;
+                if (h != null) {
+                    for (int i = 2; i < a.size(); i++) if (h.remove(s(a.get(i))) != null) n++;
+                    if (h.isEmpty()) data.remove(s(a.get(1)));
+                }
+                return Reply.integer(n);
+            }
+            case "HLEN": {
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                return Reply.integer(h == null ? 0 : h.size());
+            }
+            case "HGETALL": {
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                List<byte[]> out = new ArrayList<>();
+                if (h != null) h.forEach((k, f) -> {
+                    out.add(b(k));
+                    out.add(f.value);
+                });
+                return Reply.bulks(out);
+            }
+            case "HPEXPIRE": { // HPEXPIRE key ms FIELDS n f1 .. fn
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                long ttl = l(a.get(2));
+                int n = (int) l(a.get(4));
+                List<Reply> out = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    Field f = h == null ? null : h.get(s(a.get(5 + i)));
+                    if (f == null) {
+                        out.add(Reply.integer(-2));
+                    } else {
+                        f.expireAt = now + ttl;
+                        out.add(Reply.integer(1));
+                    }
+                }
+                return Reply.array(out);
+            }
+            case "HPTTL": { // HPTTL key FIELDS n f1 .. fn
+                Map<String, Field> h = hash(s(a.get(1)), false);
+                int n = (int) l(a.get(3));
+                List<Reply> out = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    Field f = h == null ? null : h.get(s(a.get(4 + i)));
+                    out.add(Reply.integer(f == null ? -2 : f.expireAt < 0 ? -1 : f.expireAt - now));
+                }
+                return Reply.array(out);
+            }
+
+            case "ZADD": {
+                TreeMap<String, Double> z = zset(s(a.get(1)), true);
+                int added = 0;
+                for (int i = 2; i + 1 < a.size(); i += 2) {
+                    if (z.put(s(a.get(i + 1)), Double.parseDouble(s(a.get(i)))) == null) added++;
+                }
+                return Reply.integer(added);
+            }
+            case "ZREM": {
+                TreeMap<String, Double> z = zset(s(a.get(1)), false);
+                int n = 0;
+                if (z != null) for (int i = 2; i < a.size(); i++) if (z.remove(s(a.get(i))) != null) n++;
+                return Reply.integer(n);
+            }
+            case "ZCARD": {
+                TreeMap<String, Double> z = zset(s(a.get(1)), false);
+                return Reply.integer(z == null ? 0 : z.size());
+            }
+            case "ZRANGEBYSCORE": {
+                TreeMap<String, Double> z = zset(s(a.get(1)), false);
+                double min = score(s(a.get(2))), max = score(s(a.get(3)));
+                long offset = 0, count = Long.MAX_VALUE;
+                for (int i = 4; i < a.size(); i++) {
+                    if (s(a.get(i)).equalsIgnoreCase("LIMIT")) {
+                        offset = l(a.get(++i));
+                        count = l(a.get(++i));
+                    }
+                }
+                List<byte[]> out = new ArrayList<>();
+                if (z != null) {
+                    z.entrySet().stream()
+                            .filter(en -> en.getValue() >= min && en.getValue() <= max)
+                            .sorted(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                            .skip(offset)
+                            .limit(count < 0 ? Long.MAX_VALUE : count)
+                            .forEach(en -> out.add(b(en.getKey())));
+                }
+                return Reply.bulks(out);
+            }
+
+            case "KEYS": {
+                Pattern p = glob(s(a.get(1)));
+                List<byte[]> out = new ArrayList<>();
+                for (String k : new ArrayList<>(data.keySet())) if (live(k) != null && p.matcher(k).matches()) out.add(b(k));
+                return Reply.bulks(out);
+            }
+            case "SCAN": {
+                int cursor = (int) l(a.get(1));
+                Pattern p = null;
+                int count = 10;
+                for (int i = 2; i < a.size(); i++) {
+                    String opt = s(a.get(i)).toUpperCase(Locale.ROOT);
+                    if (opt.equals("MATCH")) p = glob(s(a.get(++i)));
+                    else if (opt.equals("COUNT")) count = (int) l(a.get(++i));
+                }
+                List<String> keys = new ArrayList<>(new TreeSet<>(data.keySet()));
+                int end = Math.min(keys.size(), cursor + count);
+                List<byte[]> page = new ArrayList<>();
+                for (int i = cursor; i < end; i++) {
+                    String k = keys.get(i);
+                    if (live(k) != null && (p == null || p.matcher(k).matches())) page.add(b(k));
+                }
+                int next = end >= keys.size() ? 0 : end;
+                return Reply.array(List.of(Reply.bulk(b(Integer.toString(next))), Reply.bulks(page)));
+            }
+            default:
+                return Reply.error("ERR unknown command '" + cmd + "'");
+        }
+    }
+
+    private static double score(String s) {
+        return switch (s) {
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+            default -> Double.parseDouble(s);
+        };
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder re = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> re.append(".*");
+                case '?' -> re.append('.');
+                case '[', ']' -> re.append(c);
+                default -> re.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(re.toString(), Pattern.DOTALL);
+    }
+}